@@ -0,0 +1,215 @@
+package bench;
+
+import models.Adoptant;
+import models.AdoptionRequest;
+import models.AdoptionRequestStatus;
+import models.BaseEntity;
+import repository.IRepository;
+import repository.InMemoryRepository;
+import service.AdoptantService;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark of {@link AdoptantService#filterAdoptantsByAdoptionRequests(int)} and
+ * {@link AdoptantService#sortAdoptantsByAdoptionRequests()}, which read per-adoptant request counts.
+ * Requests are skewed toward adoptants with low IDs. Three setups are measured:
+ * <ul>
+ *     <li>indexed: in-memory repositories, so the service keeps request counters that are updated on every change;
+ *     the cost of one counter update is measured by changing the status of requests;</li>
+ *     <li>unindexed: a repository without index support, so the service counts all requests in one scan per call;</li>
+ *     <li>per-adoptant scans: the previous implementation, which scanned all requests once per adoptant to filter and
+ *     twice per comparison to sort. It is quadratic, so it only runs at a smaller size.</li>
+ * </ul>
+ * Times are the best of several repetitions.
+ * <p>
+ * Usage: {@code java bench.AdoptantRequestCountBench [adoptants] [requests] [small adoptants] [small requests]
+ * [repetitions]}. Run with a heap of at least 2 GB for a million requests.
+ */
+public class AdoptantRequestCountBench {
+    private static final int MIN_REQUESTS = 100; // The filter threshold, met by the most active adoptants
+    private static final Date REQUEST_DATE = new Date(1_700_000_000_000L);
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the number of adoptants (default: 10000) and requests (default: 1000000), the smaller size the
+     *             per-adoptant scans are run at (default: 1000 adoptants and 20000 requests)
+     *             and the number of timed repetitions (default: 3)
+     */
+    public static void main(String[] args) {
+        int adoptantCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int requestCount = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int smallAdoptants = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+        int smallRequests = args.length > 3 ? Integer.parseInt(args[3]) : 20_000;
+        int repetitions = args.length > 4 ? Integer.parseInt(args[4]) : 3;
+
+        System.out.println("Adoptants by number of requests (ms, filter at " + MIN_REQUESTS + " requests):");
+        System.out.printf("  %-20s %10s %10s %10s %10s %16s%n", "setup", "adoptants", "requests", "filter", "sort",
+                "counter update");
+        for (int[] size : new int[][]{{smallAdoptants, smallRequests}, {adoptantCount, requestCount}}) {
+            List<Adoptant> adoptants = adoptants(size[0]);
+            List<AdoptionRequest> requests = requests(size[0], size[1]);
+            indexed(adoptants, requests, repetitions);
+            unindexed(adoptants, requests, repetitions);
+            if (size[0] == smallAdoptants && size[1] == smallRequests) {
+                perAdoptantScans(adoptants, requests, repetitions);
+            }
+        }
+    }
+
+    private static void indexed(List<Adoptant> adoptants, List<AdoptionRequest> requests, int repetitions) {
+        InMemoryRepository<Adoptant> adoptantRepository = new InMemoryRepository<>();
+        InMemoryRepository<AdoptionRequest> requestRepository = new InMemoryRepository<>();
+        AdoptantService service = new AdoptantService(adoptantRepository, requestRepository);
+        BenchSupport.quietly(() -> {
+            adoptantRepository.addAll(adoptants);
+            requestRepository.addAll(requests);
+        });
+        long filter = best(repetitions, () -> service.filterAdoptantsByAdoptionRequests(MIN_REQUESTS));
+        long sort = best(repetitions, service::sortAdoptantsByAdoptionRequests);
+
+        int updates = Math.min(requests.size(), 100_000);
+        long update = BenchSupport.timeQuietly(() -> {
+            for (int i = 0; i < updates; i++) {
+                requestRepository.update(requests.get(i).withStatus(AdoptionRequestStatus.APPROVED));
+            }
+        });
+        print("indexed", adoptants, requests, filter, sort, String.format("%.2f us", update / 1e3 / updates));
+    }
+
+    private static void unindexed(List<Adoptant> adoptants, List<AdoptionRequest> requests, int repetitions) {
+        IRepository<Adoptant> adoptantRepository = new Unindexed<>(adoptants);
+        IRepository<AdoptionRequest> requestRepository = new Unindexed<>(requests);
+        AdoptantService service = new AdoptantService(adoptantRepository, requestRepository);
+        long filter = best(repetitions, () -> service.filterAdoptantsByAdoptionRequests(MIN_REQUESTS));
+        long sort = best(repetitions, service::sortAdoptantsByAdoptionRequests);
+        print("unindexed", adoptants, requests, filter, sort, "-");
+    }
+
+    /**
+     * Runs the previous implementation: one scan of all requests per adoptant, and two per comparison.
+     */
+    private static void perAdoptantScans(List<Adoptant> adoptants, List<AdoptionRequest> requests, int repetitions) {
+        IRepository<AdoptionRequest> requestRepository = new Unindexed<>(requests);
+        long filter = best(repetitions, () -> adoptants.stream()
+                .filter(adoptant -> scanCount(requestRepository, adoptant) >= MIN_REQUESTS)
+                .collect(Collectors.toList()));
+        long sort = best(repetitions, () -> adoptants.stream()
+                .sorted((adoptant1, adoptant2) -> Integer.compare(
+                        scanCount(requestRepository, adoptant2), scanCount(requestRepository, adoptant1)))
+                .collect(Collectors.toList()));
+        print("per-adoptant scans", adoptants, requests, filter, sort, "-");
+    }
+
+    private static int scanCount(IRepository<AdoptionRequest> requests, Adoptant adoptant) {
+        try (Stream<AdoptionRequest> matching = requests.scan(request -> request.getAdoptantId() == adoptant.getId())) {
+            return (int) matching.count();
+        }
+    }
+
+    private static void print(String setup, List<Adoptant> adoptants, List<AdoptionRequest> requests, long filter,
+                              long sort, String update) {
+        System.out.printf("  %-20s %,10d %,10d %10.1f %10.1f %16s%n", setup, adoptants.size(), requests.size(),
+                filter / 1e6, sort / 1e6, update);
+    }
+
+    /**
+     * Runs an action the given number of times after one warm-up run and returns the fastest time.
+     *
+     * @return the fastest time in nanoseconds
+     */
+    private static long best(int repetitions, Supplier<List<Adoptant>> action) {
+        long best = Long.MAX_VALUE;
+        for (int repetition = 0; repetition <= repetitions; repetition++) { // The first one warms up
+            long start = System.nanoTime();
+            List<Adoptant> result = BenchSupport.quietly(action);
+            long elapsed = System.nanoTime() - start;
+            if (result == null) {
+                throw new IllegalStateException("No result");
+            }
+            if (repetition > 0) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        return best;
+    }
+
+    private static List<Adoptant> adoptants(int count) {
+        List<Adoptant> adoptants = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            adoptants.add(new Adoptant(id, "Adoptant " + id, "adoptant" + id + "@example.com"));
+        }
+        return adoptants;
+    }
+
+    /**
+     * Creates pending requests, most of them by adoptants with low IDs.
+     */
+    private static List<AdoptionRequest> requests(int adoptants, int count) {
+        Random random = new Random(count);
+        List<AdoptionRequest> requests = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            double skew = random.nextDouble();
+            int adoptantId = 1 + (int) (adoptants * skew * skew);
+            requests.add(new AdoptionRequest(id, adoptantId, 1 + random.nextInt(1_000), REQUEST_DATE,
+                    AdoptionRequestStatus.PENDING));
+        }
+        return requests;
+    }
+
+    /**
+     * A read-only repository over a list that does not support indexes, as a repository without index support
+     * would behave.
+     *
+     * @param <T> the type of entity
+     */
+    private static final class Unindexed<T extends BaseEntity> implements IRepository<T> {
+        private final List<T> entities;
+
+        private Unindexed(List<T> entities) {
+            this.entities = entities;
+        }
+
+        @Override
+        public void add(T entity) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void update(T entity) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void delete(int id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public T getById(int id) {
+            return entities.stream().filter(entity -> entity.getId() == id).findFirst().orElse(null);
+        }
+
+        @Override
+        public List<T> getAll() {
+            return new ArrayList<>(entities);
+        }
+
+        @Override
+        public Stream<T> scan() {
+            return entities.stream();
+        }
+
+        @Override
+        public int generateUniqueId() {
+            return entities.stream().mapToInt(BaseEntity::getId).max().orElse(0) + 1;
+        }
+    }
+}
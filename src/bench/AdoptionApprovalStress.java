@@ -0,0 +1,193 @@
+package bench;
+
+import models.Adoptant;
+import models.AdoptionDecisionReport;
+import models.AdoptionRequest;
+import models.AdoptionRequestStatus;
+import models.Animal;
+import models.AnimalStatus;
+import repository.ConcurrentRepository;
+import service.AdoptionRequestService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency check for the approval of adoption requests in {@link AdoptionRequestService}.
+ * Every animal gets several pending requests, and many threads then approve random requests at once, so approvals
+ * for the same animal race each other. Most calls approve a single request; the others approve a batch of requests
+ * for different animals, or for the same animal, in one call. Afterwards, for every animal:
+ * <ul>
+ *     <li>exactly one request is stored as approved, and exactly one call reported approving it;</li>
+ *     <li>every other request is stored as rejected, and no request was decided by more than one call;</li>
+ *     <li>the animal is adopted, and the status counts and pending queues agree with the stored requests.</li>
+ * </ul>
+ * The whole scenario is repeated for a number of rounds, with fresh repositories each time.
+ * <p>
+ * Usage: {@code java bench.AdoptionApprovalStress [threads] [rounds]}. Exits with status 1 if a check fails.
+ */
+public class AdoptionApprovalStress {
+    private static final int ANIMALS = 200;
+    private static final int REQUESTS_PER_ANIMAL = 8;
+    private static final int BATCH_EVERY = 4; // One call in this many approves a batch
+    private static final int MAX_BATCH = 4;
+
+    /**
+     * Runs the check.
+     *
+     * @param args the number of threads (default: twice the number of processors, at least 4)
+     *             and the number of rounds (default: 20)
+     * @throws InterruptedException if the driver is interrupted while waiting for its threads
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        System.out.println("Adoption approval race: " + threads + " threads, " + ANIMALS + " animals with "
+                + REQUESTS_PER_ANIMAL + " requests each, " + rounds + " rounds");
+
+        int failedRounds = 0;
+        Map<AdoptionDecisionReport.Outcome, AtomicInteger> totals = new ConcurrentHashMap<>();
+        for (int round = 0; round < rounds; round++) {
+            if (!runRound(round, threads, totals)) {
+                failedRounds++;
+            }
+        }
+        System.out.println("Outcomes over all rounds: " + totals);
+        System.out.printf("%d rounds, %d failed -> %s%n", rounds, failedRounds, failedRounds == 0 ? "OK" : "FAILED");
+        System.out.println(failedRounds == 0 ? "All checks passed." : "CHECKS FAILED.");
+        if (failedRounds > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Sets up fresh repositories, races approvals from every thread and checks the result.
+     *
+     * @param round   the number of the round, for reporting
+     * @param threads the number of approving threads
+     * @param totals  the count of every outcome reported so far, updated by this round
+     * @return true if the round passed
+     * @throws InterruptedException if interrupted while waiting for the threads
+     */
+    private static boolean runRound(int round, int threads, Map<AdoptionDecisionReport.Outcome, AtomicInteger> totals)
+            throws InterruptedException {
+        ConcurrentRepository<AdoptionRequest> requests = new ConcurrentRepository<>();
+        ConcurrentRepository<Animal> animals = new ConcurrentRepository<>();
+        ConcurrentRepository<Adoptant> adoptants = new ConcurrentRepository<>();
+        AdoptionRequestService service = new AdoptionRequestService(requests, animals, adoptants);
+
+        List<Animal> animalList = new ArrayList<>(ANIMALS);
+        List<Adoptant> adoptantList = new ArrayList<>(REQUESTS_PER_ANIMAL);
+        List<AdoptionRequest> requestList = new ArrayList<>(ANIMALS * REQUESTS_PER_ANIMAL);
+        for (int adoptantId = 1; adoptantId <= REQUESTS_PER_ANIMAL; adoptantId++) {
+            adoptantList.add(new Adoptant(adoptantId, "Adoptant " + adoptantId, "adoptant" + adoptantId + "@example.com"));
+        }
+        int[][] requestIdsByAnimal = new int[ANIMALS + 1][REQUESTS_PER_ANIMAL];
+        int requestId = 1;
+        for (int animalId = 1; animalId <= ANIMALS; animalId++) {
+            animalList.add(new Animal(animalId, "Animal " + animalId, null, 1, AnimalStatus.AVAILABLE));
+            for (int i = 0; i < REQUESTS_PER_ANIMAL; i++) {
+                requestIdsByAnimal[animalId][i] = requestId;
+                requestList.add(new AdoptionRequest(requestId++, i + 1, animalId, new Date(1_000L * i),
+                        AdoptionRequestStatus.PENDING));
+            }
+        }
+        adoptants.addAll(adoptantList);
+        animals.addAll(animalList);
+        requests.addAll(requestList);
+
+        // Every report that approved a request, and how many calls decided each request
+        Map<Integer, Integer> approvedByAnimal = new ConcurrentHashMap<>(); // Animal ID to the approved request
+        AtomicInteger doubleApprovals = new AtomicInteger();
+        Map<Integer, AtomicInteger> decisionsByRequest = new ConcurrentHashMap<>();
+
+        ConcurrentRepositoryStress.runConcurrently(threads, thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            List<Integer> order = new ArrayList<>(ANIMALS);
+            for (int animalId = 1; animalId <= ANIMALS; animalId++) {
+                order.add(animalId);
+            }
+            Collections.shuffle(order, random);
+            for (int animalId : order) {
+                int[] ids;
+                if (random.nextInt(BATCH_EVERY) == 0) {
+                    ids = new int[2 + random.nextInt(MAX_BATCH - 1)];
+                    ids[0] = requestIdsByAnimal[animalId][random.nextInt(REQUESTS_PER_ANIMAL)];
+                    for (int i = 1; i < ids.length; i++) {
+                        int other = random.nextBoolean() ? animalId : 1 + random.nextInt(ANIMALS); // Same or any animal
+                        ids[i] = requestIdsByAnimal[other][random.nextInt(REQUESTS_PER_ANIMAL)];
+                    }
+                } else {
+                    ids = new int[]{requestIdsByAnimal[animalId][random.nextInt(REQUESTS_PER_ANIMAL)]};
+                }
+                AdoptionDecisionReport report = service.approveAll(ids);
+                report.getOutcomes().forEach((id, outcome) -> {
+                    totals.computeIfAbsent(outcome, key -> new AtomicInteger()).incrementAndGet();
+                    if (outcome != AdoptionDecisionReport.Outcome.ALREADY_PROCESSED
+                            && outcome != AdoptionDecisionReport.Outcome.NOT_FOUND) {
+                        decisionsByRequest.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+                    }
+                    if (outcome == AdoptionDecisionReport.Outcome.APPROVED
+                            && approvedByAnimal.putIfAbsent(report.getRequest(id).getAnimalId(), id) != null) {
+                        doubleApprovals.incrementAndGet();
+                    }
+                });
+            }
+        });
+
+        int animalsWithoutOneApproval = 0;
+        int mismatchedApprovals = 0;
+        int stillPending = 0;
+        int notAdopted = 0;
+        for (int animalId = 1; animalId <= ANIMALS; animalId++) {
+            int approved = 0;
+            int approvedId = -1;
+            for (AdoptionRequest request : requests.getByIds(toList(requestIdsByAnimal[animalId]))) {
+                if (request.getStatus() == AdoptionRequestStatus.APPROVED) {
+                    approved++;
+                    approvedId = request.getId();
+                } else if (request.getStatus() != AdoptionRequestStatus.REJECTED) {
+                    stillPending++;
+                }
+            }
+            if (approved != 1) {
+                animalsWithoutOneApproval++;
+            } else if (!Integer.valueOf(approvedId).equals(approvedByAnimal.get(animalId))) {
+                mismatchedApprovals++; // The stored approval is not the one a caller was told about
+            }
+            if (animals.getById(animalId).getStatus() != AnimalStatus.ADOPTED) {
+                notAdopted++;
+            }
+        }
+        long decidedTwice = decisionsByRequest.values().stream().filter(count -> count.get() > 1).count();
+        boolean countsAgree = service.countAdoptionRequestsByStatus(AdoptionRequestStatus.APPROVED) == ANIMALS
+                && service.countAdoptionRequestsByStatus(AdoptionRequestStatus.REJECTED) == ANIMALS * (REQUESTS_PER_ANIMAL - 1)
+                && service.countAdoptionRequestsByStatus(AdoptionRequestStatus.PENDING) == 0
+                && service.getPendingQueueDepth() == 0;
+
+        boolean passed = animalsWithoutOneApproval == 0 && mismatchedApprovals == 0 && stillPending == 0 && notAdopted == 0
+                && doubleApprovals.get() == 0 && decidedTwice == 0 && countsAgree;
+        if (!passed) {
+            System.out.printf("  round %d: %d animals without exactly one approved request, %d approvals reported twice,"
+                            + " %d stored approvals not reported, %d requests decided twice, %d requests neither approved"
+                            + " nor rejected, %d animals not adopted, status counts %s -> FAILED%n",
+                    round, animalsWithoutOneApproval, doubleApprovals.get(), mismatchedApprovals, decidedTwice,
+                    stillPending, notAdopted, countsAgree ? "agree" : "disagree");
+        }
+        return passed;
+    }
+
+    private static List<Integer> toList(int[] ids) {
+        List<Integer> list = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            list.add(id);
+        }
+        return list;
+    }
+}
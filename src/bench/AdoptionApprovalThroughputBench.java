@@ -0,0 +1,151 @@
+package bench;
+
+import models.Adoptant;
+import models.AdoptionDecisionReport;
+import models.AdoptionRequest;
+import models.AdoptionRequestStatus;
+import models.Animal;
+import models.AnimalStatus;
+import repository.ConcurrentRepository;
+import service.AdoptionRequestService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of {@link AdoptionRequestService#approveAll(int...)} as the number of approving threads grows.
+ * Every animal gets several pending requests. For every thread count, fresh repositories are filled and every
+ * animal is then approved once: the animals are dealt out to the threads in a shuffled order, and each thread
+ * approves one random request per animal, which also rejects the animal's other requests. Approvals for different
+ * animals only share a lock when their animals fall on the same lock stripe.
+ * <p>
+ * For every thread count it reports the calls per second, the decisions per second (approved and rejected
+ * requests) and the mean latency of a call, the best of several repetitions after one warm-up run.
+ * <p>
+ * Usage: {@code java bench.AdoptionApprovalThroughputBench [threads] [animals] [requests per animal] [repetitions]},
+ * for example {@code java bench.AdoptionApprovalThroughputBench 1,2,4,8,16 20000 8 3}.
+ */
+public class AdoptionApprovalThroughputBench {
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the comma-separated thread counts (default: 1,2,4,8,16), the number of animals (default: 20000),
+     *             the number of requests per animal (default: 8) and the number of timed repetitions (default: 3)
+     * @throws InterruptedException if the driver is interrupted while waiting for its threads
+     */
+    public static void main(String[] args) throws InterruptedException {
+        String[] threadCounts = (args.length > 0 ? args[0] : "1,2,4,8,16").split(",");
+        int animals = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int requestsPerAnimal = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        int repetitions = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+
+        System.out.println("Adoption approvals, " + animals + " animals with " + requestsPerAnimal + " requests each, "
+                + Runtime.getRuntime().availableProcessors() + " processors:");
+        System.out.printf("  %8s %14s %18s %18s%n", "threads", "calls/s", "decisions/s", "mean latency (us)");
+        for (String threadCount : threadCounts) {
+            int threads = Integer.parseInt(threadCount.trim());
+            Result best = null;
+            for (int repetition = 0; repetition <= repetitions; repetition++) { // The first one warms up
+                Result result = run(threads, animals, requestsPerAnimal, repetition);
+                if (repetition > 0 && (best == null || result.elapsed < best.elapsed)) {
+                    best = result;
+                }
+            }
+            System.out.printf("  %8d %,14.0f %,18.0f %18.2f%n", threads, best.calls * 1e9 / best.elapsed,
+                    best.decisions * 1e9 / best.elapsed, best.latency / 1e3 / best.calls);
+        }
+    }
+
+    /**
+     * Fills fresh repositories, approves every animal once from the given number of threads and checks that every
+     * animal ended up with exactly one approved request.
+     */
+    private static Result run(int threads, int animalCount, int requestsPerAnimal, int seed) throws InterruptedException {
+        ConcurrentRepository<AdoptionRequest> requests = new ConcurrentRepository<>();
+        ConcurrentRepository<Animal> animals = new ConcurrentRepository<>();
+        ConcurrentRepository<Adoptant> adoptants = new ConcurrentRepository<>();
+        AdoptionRequestService service = new AdoptionRequestService(requests, animals, adoptants);
+
+        List<Animal> animalList = new ArrayList<>(animalCount);
+        List<Adoptant> adoptantList = new ArrayList<>(requestsPerAnimal);
+        List<AdoptionRequest> requestList = new ArrayList<>(animalCount * requestsPerAnimal);
+        for (int adoptantId = 1; adoptantId <= requestsPerAnimal; adoptantId++) {
+            adoptantList.add(new Adoptant(adoptantId, "Adoptant " + adoptantId, "adoptant" + adoptantId + "@example.com"));
+        }
+        int requestId = 1;
+        for (int animalId = 1; animalId <= animalCount; animalId++) {
+            animalList.add(new Animal(animalId, "Animal " + animalId, null, 1, AnimalStatus.AVAILABLE));
+            for (int i = 0; i < requestsPerAnimal; i++) {
+                requestList.add(new AdoptionRequest(requestId++, i + 1, animalId, new Date(1_000L * i),
+                        AdoptionRequestStatus.PENDING));
+            }
+        }
+        BenchSupport.quietly(() -> {
+            adoptants.addAll(adoptantList);
+            animals.addAll(animalList);
+            requests.addAll(requestList);
+        });
+
+        Random random = new Random(seed);
+        int[] toApprove = new int[animalCount]; // One request per animal, in a shuffled order of animals
+        List<Integer> order = new ArrayList<>(animalCount);
+        for (int animalId = 1; animalId <= animalCount; animalId++) {
+            order.add(animalId);
+        }
+        Collections.shuffle(order, random);
+        for (int i = 0; i < animalCount; i++) {
+            toApprove[i] = (order.get(i) - 1) * requestsPerAnimal + 1 + random.nextInt(requestsPerAnimal);
+        }
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicLong decisions = new AtomicLong();
+        AtomicLong latency = new AtomicLong();
+        long start = System.nanoTime();
+        BenchSupport.runConcurrentlyQuietly(threads, thread -> {
+            long decided = 0;
+            long busy = 0;
+            for (int i = next.getAndIncrement(); i < toApprove.length; i = next.getAndIncrement()) {
+                long callStart = System.nanoTime();
+                AdoptionDecisionReport report = service.approveAll(toApprove[i]);
+                busy += System.nanoTime() - callStart;
+                if (report.getOutcomes().get(toApprove[i]) != AdoptionDecisionReport.Outcome.APPROVED) {
+                    throw new IllegalStateException("Request " + toApprove[i] + " was not approved: "
+                            + report.getOutcomes());
+                }
+                decided += report.getOutcomes().size(); // Including the requests rejected automatically
+            }
+            decisions.addAndGet(decided);
+            latency.addAndGet(busy);
+        });
+        long elapsed = System.nanoTime() - start;
+
+        if (service.countAdoptionRequestsByStatus(AdoptionRequestStatus.APPROVED) != animalCount
+                || service.countAdoptionRequestsByStatus(AdoptionRequestStatus.PENDING) != 0) {
+            throw new IllegalStateException("Not every animal has exactly one approved request");
+        }
+        return new Result(elapsed, animalCount, decisions.get(), latency.get());
+    }
+
+    /**
+     * The wall-clock time of one run, the number of calls and decisions made, and the time spent in calls.
+     */
+    private static final class Result {
+        private final long elapsed;
+        private final long calls;
+        private final long decisions;
+        private final long latency;
+
+        private Result(long elapsed, long calls, long decisions, long latency) {
+            this.elapsed = elapsed;
+            this.calls = calls;
+            this.decisions = decisions;
+            this.latency = latency;
+        }
+    }
+}
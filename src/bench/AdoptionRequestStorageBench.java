@@ -0,0 +1,145 @@
+package bench;
+
+import models.Adoptant;
+import models.AdoptionRequest;
+import models.AdoptionRequestStatus;
+import models.Animal;
+import models.AnimalStatus;
+import models.AnimalType;
+import models.CarePlan;
+import models.HealthRecord;
+import models.Veterinarian;
+import models.Volunteer;
+import repository.FileRepository;
+import repository.InMemoryRepository;
+import repository.codec.AdoptionRequestCodec;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * File size and load time of adoption requests stored with their adoptant and animal embedded, as before,
+ * and stored by reference, with only the two IDs.
+ * The requests are spread over a smaller number of adoptants and animals; every animal has a health record,
+ * a care plan and an assigned volunteer, and every adoptant lists its own requests. The same requests are written
+ * to a {@link FileRepository} in three formats:
+ * <ul>
+ *     <li>Java serialization, which embeds the adoptant and the animal with everything they refer to;</li>
+ *     <li>the default {@link AdoptionRequestCodec}, which embeds the adoptant and the animal;</li>
+ *     <li>{@link AdoptionRequestCodec#byReference(repository.IRepository, repository.IRepository)}.</li>
+ * </ul>
+ * For each it reports the file size, the time to load all requests from a freshly opened repository (the best of
+ * several repetitions) and, as by-reference requests look their adoptant and animal up on first access, the time to
+ * load them and resolve both references of every request.
+ * <p>
+ * Usage: {@code java bench.AdoptionRequestStorageBench [requests] [adoptants and animals] [repetitions] [directory]}.
+ */
+public class AdoptionRequestStorageBench {
+    private static final Date REQUEST_DATE = new Date(1_700_000_000_000L);
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the number of requests (default: 10000), the number of adoptants and of animals (default: 500),
+     *             the number of timed repetitions (default: 5)
+     *             and the directory for the data files (default: a new temporary directory)
+     * @throws IOException if a data file cannot be written or measured
+     */
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int owners = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int repetitions = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        Path directory = args.length > 3 ? Paths.get(args[3]) : Files.createTempDirectory("request-storage-bench");
+
+        InMemoryRepository<Adoptant> adoptants = new InMemoryRepository<>();
+        InMemoryRepository<Animal> animals = new InMemoryRepository<>();
+        AnimalType type = new AnimalType(1, "Dog", "Loyal");
+        for (int id = 1; id <= owners; id++) {
+            Veterinarian veterinarian = new Veterinarian(id, "Vet " + id, "vet" + id + "@example.com", "Surgery");
+            Volunteer volunteer = new Volunteer(id, "Volunteer " + id, "volunteer" + id + "@example.com", "2 years");
+            Animal animal = new Animal(id, "Animal " + id, type, id % 15, AnimalStatus.AVAILABLE);
+            animal.setHealthRecord(new HealthRecord(id, Arrays.asList("Checked", "Vaccinated"),
+                    Arrays.asList("Rabies shot"), veterinarian));
+            animal.setCarePlan(new CarePlan(id, "Twice a day", "Yearly check-up"));
+            animal.setAssignedVolunteer(volunteer);
+            Adoptant adoptant = new Adoptant(id, "Adoptant " + id, "adoptant" + id + "@example.com");
+            BenchSupport.quietly(() -> {
+                animals.add(animal);
+                adoptants.add(adoptant);
+            });
+        }
+        List<AdoptionRequest> requests = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            Adoptant adoptant = adoptants.getById(1 + id % owners);
+            AdoptionRequest request = new AdoptionRequest(id, adoptant, animals.getById(1 + (id / owners) % owners),
+                    REQUEST_DATE, AdoptionRequestStatus.PENDING);
+            adoptant.addAdoptionRequest(request);
+            requests.add(request);
+        }
+
+        System.out.println("Adoption request storage, " + count + " requests over " + owners + " adoptants and "
+                + owners + " animals:");
+        System.out.printf("  %-22s %14s %12s %22s%n", "format", "file (bytes)", "load (ms)", "load and resolve (ms)");
+        measure("Java serialization", directory.resolve("requests-serialized.dat"), requests, repetitions,
+                file -> new FileRepository<>(file));
+        measure("embedded codec", directory.resolve("requests-embedded.dat"), requests, repetitions,
+                file -> new FileRepository<>(file, new AdoptionRequestCodec()));
+        measure("by-reference codec", directory.resolve("requests-by-reference.dat"), requests, repetitions,
+                file -> new FileRepository<>(file, AdoptionRequestCodec.byReference(adoptants, animals)));
+    }
+
+    /**
+     * Stores the requests in one format, then loads them back and prints the file size and load times.
+     */
+    private static void measure(String format, Path file, List<AdoptionRequest> requests, int repetitions,
+                                RepositoryFactory factory) throws IOException {
+        Files.deleteIfExists(file);
+        BenchSupport.quietly(() -> factory.open(file.toString()).addAll(requests));
+        long load = best(repetitions, () -> factory.open(file.toString()).getAll());
+        long loadAndResolve = best(repetitions, () -> {
+            List<AdoptionRequest> loaded = factory.open(file.toString()).getAll();
+            for (AdoptionRequest request : loaded) {
+                if (request.getAdoptant() == null || request.getAnimal() == null) {
+                    throw new IllegalStateException("Request " + request.getId() + " lost its adoptant or animal");
+                }
+            }
+            return loaded;
+        });
+        System.out.printf("  %-22s %,14d %12.1f %22.1f%n", format, Files.size(file), load / 1e6, loadAndResolve / 1e6);
+    }
+
+    /**
+     * Runs a load the given number of times after one warm-up run and returns the fastest time.
+     *
+     * @return the fastest time in nanoseconds
+     */
+    private static long best(int repetitions, Supplier<List<AdoptionRequest>> load) {
+        long best = Long.MAX_VALUE;
+        for (int repetition = 0; repetition <= repetitions; repetition++) { // The first one warms up
+            long start = System.nanoTime();
+            int loaded = BenchSupport.quietly(load).size();
+            long elapsed = System.nanoTime() - start;
+            if (loaded == 0) {
+                throw new IllegalStateException("No requests were loaded");
+            }
+            if (repetition > 0) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Opens a request repository over a file in one format.
+     */
+    private interface RepositoryFactory {
+        FileRepository<AdoptionRequest> open(String file);
+    }
+}
@@ -0,0 +1,104 @@
+package bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.function.Supplier;
+
+/**
+ * Helpers shared by the benchmark drivers in this package.
+ */
+final class BenchSupport {
+    private static final PrintStream DISCARD = new PrintStream(new OutputStream() {
+        @Override
+        public void write(int b) {
+            // Discarded
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            // Discarded
+        }
+    });
+
+    private BenchSupport() {
+    }
+
+    /**
+     * Runs an action with {@code System.out} discarded, so the status messages the repositories and services
+     * print for every operation are not part of what is measured.
+     *
+     * @param action the action to run
+     * @param <R>    the type of the result
+     * @return the result of the action
+     */
+    static <R> R quietly(Supplier<R> action) {
+        PrintStream out = System.out;
+        System.setOut(DISCARD);
+        try {
+            return action.get();
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    /**
+     * Runs an action with {@code System.out} discarded.
+     *
+     * @param action the action to run
+     */
+    static void quietly(Runnable action) {
+        quietly(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs an action with {@code System.out} discarded and returns how long it took.
+     *
+     * @param action the action to run
+     * @return the elapsed time in nanoseconds
+     */
+    static long timeQuietly(Runnable action) {
+        long start = System.nanoTime();
+        quietly(action);
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Returns the heap in use after asking for a few garbage collections, so that only reachable objects are counted.
+     *
+     * @return the used heap in bytes
+     */
+    static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Runs a task on the given number of threads with {@code System.out} discarded,
+     * as {@link ConcurrentRepositoryStress#runConcurrently(int, ConcurrentRepositoryStress.ThreadTask)} does.
+     *
+     * @param threads the number of threads
+     * @param task    the work done by each thread
+     * @throws InterruptedException if interrupted while waiting for the threads
+     */
+    static void runConcurrentlyQuietly(int threads, ConcurrentRepositoryStress.ThreadTask task) throws InterruptedException {
+        PrintStream out = System.out;
+        System.setOut(DISCARD);
+        try {
+            ConcurrentRepositoryStress.runConcurrently(threads, task);
+        } finally {
+            System.setOut(out);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package bench;
+
+import models.Adoptant;
+import models.AdoptionRequest;
+import models.AdoptionRequestStatus;
+import models.Animal;
+import models.AnimalStatus;
+import models.AnimalType;
+import models.BaseEntity;
+import models.CarePlan;
+import models.HealthRecord;
+import models.Veterinarian;
+import models.Volunteer;
+import repository.FileRepository;
+import repository.codec.AdoptantCodec;
+import repository.codec.AdoptionRequestCodec;
+import repository.codec.AnimalCodec;
+import repository.codec.EntityCodec;
+import repository.codec.VeterinarianCodec;
+import repository.codec.VolunteerCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Compares the binary entity codecs with Java serialization.
+ * For every entity type it encodes and decodes the same entities both ways, in memory, and reports the encoded size
+ * and the encode and decode throughput (the best of several repetitions). Java serialization writes the whole list
+ * with one {@link ObjectOutputStream}, as {@link FileRepository} does without a codec; the codec writes the
+ * entities one after another. It then stores the entities with {@link FileRepository#addAll(java.util.Collection)}
+ * with and without the codec and reports the size of the files on disk.
+ * <p>
+ * Usage: {@code java bench.CodecBench [entities] [repetitions] [directory]}.
+ */
+public class CodecBench {
+    private static final Date REQUEST_DATE = new Date(1_700_000_000_000L);
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the number of entities per type (default: 10000), the number of timed repetitions (default: 5)
+     *             and the directory for the data files (default: a new temporary directory)
+     * @throws IOException if an entity cannot be encoded or decoded, or a data file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        Path directory = args.length > 2 ? Paths.get(args[2]) : Files.createTempDirectory("codec-bench");
+
+        List<Animal> animals = new ArrayList<>(count);
+        List<Adoptant> adoptants = new ArrayList<>(count);
+        List<Volunteer> volunteers = new ArrayList<>(count);
+        List<Veterinarian> veterinarians = new ArrayList<>(count);
+        List<AdoptionRequest> requests = new ArrayList<>(count);
+        AnimalType[] types = {new AnimalType(1, "Dog", "Loyal"), new AnimalType(2, "Cat", "Independent")};
+        for (int id = 1; id <= count; id++) {
+            Veterinarian veterinarian = new Veterinarian(id, "Vet " + id, "vet" + id + "@example.com", "Surgery");
+            Volunteer volunteer = new Volunteer(id, "Volunteer " + id, "volunteer" + id + "@example.com", "2 years");
+            Animal animal = new Animal(id, "Animal " + id, types[id % 2], id % 15, AnimalStatus.values()[id % 3]);
+            animal.setHealthRecord(new HealthRecord(id, Arrays.asList("Checked", "Vaccinated"),
+                    Arrays.asList("Rabies shot"), veterinarian));
+            animal.setCarePlan(new CarePlan(id, "Twice a day", "Yearly check-up"));
+            animal.setAssignedVolunteer(volunteer);
+            Adoptant adoptant = new Adoptant(id, "Adoptant " + id, "adoptant" + id + "@example.com");
+            animals.add(animal);
+            adoptants.add(adoptant);
+            volunteers.add(volunteer);
+            veterinarians.add(veterinarian);
+            requests.add(new AdoptionRequest(id, adoptant, animal, REQUEST_DATE, AdoptionRequestStatus.PENDING));
+        }
+
+        System.out.println("Binary codecs against Java serialization, " + count + " entities per type:");
+        System.out.printf("  %-16s %-13s %12s %12s %16s %16s%n", "entity", "format", "bytes", "bytes/entity",
+                "encode (ent/s)", "decode (ent/s)");
+        compare("Animal", animals, new AnimalCodec(), repetitions);
+        compare("Adoptant", adoptants, new AdoptantCodec(), repetitions);
+        compare("Volunteer", volunteers, new VolunteerCodec(), repetitions);
+        compare("Veterinarian", veterinarians, new VeterinarianCodec(), repetitions);
+        compare("AdoptionRequest", requests, new AdoptionRequestCodec(), repetitions);
+
+        System.out.println("Bytes on disk through FileRepository:");
+        System.out.printf("  %-16s %16s %16s%n", "entity", "serialization", "codec");
+        onDisk("Animal", animals, new AnimalCodec(), directory);
+        onDisk("Adoptant", adoptants, new AdoptantCodec(), directory);
+        onDisk("Volunteer", volunteers, new VolunteerCodec(), directory);
+        onDisk("Veterinarian", veterinarians, new VeterinarianCodec(), directory);
+        onDisk("AdoptionRequest", requests, new AdoptionRequestCodec(), directory);
+    }
+
+    /**
+     * Encodes and decodes the entities with Java serialization and with the codec, and prints both results.
+     */
+    private static <T extends Serializable> void compare(String name, List<T> entities, EntityCodec<T> codec,
+                                                         int repetitions) throws IOException {
+        long serializeNanos = Long.MAX_VALUE;
+        long deserializeNanos = Long.MAX_VALUE;
+        long encodeNanos = Long.MAX_VALUE;
+        long decodeNanos = Long.MAX_VALUE;
+        byte[] serialized = null;
+        byte[] encoded = null;
+        for (int repetition = 0; repetition <= repetitions; repetition++) { // The first one warms up
+            long start = System.nanoTime();
+            serialized = serialize(entities);
+            long serializedAt = System.nanoTime();
+            if (deserialize(serialized).size() != entities.size()) {
+                throw new IllegalStateException("Java serialization lost entities");
+            }
+            long deserializedAt = System.nanoTime();
+            encoded = encode(entities, codec);
+            long encodedAt = System.nanoTime();
+            if (decode(encoded, codec, entities.size()).size() != entities.size()) {
+                throw new IllegalStateException("The codec lost entities");
+            }
+            long decodedAt = System.nanoTime();
+            if (repetition > 0) {
+                serializeNanos = Math.min(serializeNanos, serializedAt - start);
+                deserializeNanos = Math.min(deserializeNanos, deserializedAt - serializedAt);
+                encodeNanos = Math.min(encodeNanos, encodedAt - deserializedAt);
+                decodeNanos = Math.min(decodeNanos, decodedAt - encodedAt);
+            }
+        }
+        print(name, "serialization", serialized.length, entities.size(), serializeNanos, deserializeNanos);
+        print("", "codec", encoded.length, entities.size(), encodeNanos, decodeNanos);
+    }
+
+    private static void print(String name, String format, int bytes, int count, long encodeNanos, long decodeNanos) {
+        System.out.printf("  %-16s %-13s %,12d %12.1f %,16.0f %,16.0f%n", name, format, bytes, (double) bytes / count,
+                count * 1e9 / encodeNanos, count * 1e9 / decodeNanos);
+    }
+
+    /**
+     * Stores the entities in a Java-serialized and in a codec file and prints the size of both files.
+     */
+    private static <T extends BaseEntity> void onDisk(String name, List<T> entities, EntityCodec<T> codec,
+                                                      Path directory) throws IOException {
+        Path serializedFile = directory.resolve(name + "-serialized.dat");
+        Path codecFile = directory.resolve(name + "-codec.dat");
+        Files.deleteIfExists(serializedFile);
+        Files.deleteIfExists(codecFile);
+        BenchSupport.quietly(() -> new FileRepository<T>(serializedFile.toString()).addAll(entities));
+        BenchSupport.quietly(() -> new FileRepository<>(codecFile.toString(), codec).addAll(entities));
+        System.out.printf("  %-16s %,16d %,16d%n", name, Files.size(serializedFile), Files.size(codecFile));
+    }
+
+    private static byte[] serialize(List<?> entities) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new ArrayList<>(entities));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<?> deserialize(byte[] bytes) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (List<?>) in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown class in serialized list", e);
+        }
+    }
+
+    private static <T> byte[] encode(List<T> entities, EntityCodec<T> codec) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (T entity : entities) {
+                codec.encode(entity, out);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static <T> List<T> decode(byte[] bytes, EntityCodec<T> codec, int count) throws IOException {
+        List<T> entities = new ArrayList<>(count);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            for (int i = 0; i < count; i++) {
+                entities.add(codec.decode(in));
+            }
+        }
+        return entities;
+    }
+}
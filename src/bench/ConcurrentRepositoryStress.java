@@ -0,0 +1,275 @@
+package bench;
+
+import models.Animal;
+import models.AnimalStatus;
+import repository.ConcurrentRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stress driver and throughput benchmark for {@link ConcurrentRepository}.
+ * Runs three checks with many threads at once and then measures throughput:
+ * <ul>
+ *     <li>Lost updates: every thread adds entities with generated IDs, updates them over many rounds with single
+ *     and batch updates, and deletes some of them. Afterwards every generated ID must be unique, every remaining
+ *     entity must hold its last written version, and every deleted entity must be gone.</li>
+ *     <li>Consistent snapshots: writers move one unit of age between two animals, usually in different segments, with
+ *     {@link ConcurrentRepository#updateAll(java.util.Collection)}, so the total age never changes, while readers
+ *     sum the ages of every {@link ConcurrentRepository#getAll()} snapshot and compare it with the total.</li>
+ *     <li>Throughput: a mix of 90% reads and 10% updates on random IDs, for 1 up to the given number of threads.</li>
+ * </ul>
+ * Usage: {@code java bench.ConcurrentRepositoryStress [threads] [seconds]}. Exits with status 1 if a check fails.
+ */
+public class ConcurrentRepositoryStress {
+    private static final int ENTITIES_PER_THREAD = 500;
+    private static final int UPDATE_ROUNDS = 50;
+    private static final int ANIMAL_PAIRS = 64;
+    private static final int INITIAL_AGE = 1_000;
+    private static final int THROUGHPUT_ENTITIES = 100_000;
+
+    /**
+     * Runs the checks and the benchmark.
+     *
+     * @param args the maximum number of threads (default: twice the number of processors)
+     *             and the duration of each timed phase in seconds (default: 2)
+     * @throws InterruptedException if the driver is interrupted while waiting for its threads
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 2 * Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        System.out.println("ConcurrentRepository stress test: " + threads + " threads, "
+                + Runtime.getRuntime().availableProcessors() + " processors");
+
+        boolean passed = checkLostUpdates(threads);
+        passed &= checkSnapshots(threads, seconds);
+        measureThroughput(threads, seconds);
+
+        System.out.println(passed ? "All checks passed." : "CHECKS FAILED.");
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Adds, updates and deletes entities from every thread at once and verifies that no change was lost.
+     *
+     * @param threads the number of writer threads
+     * @return true if the check passed
+     * @throws InterruptedException if interrupted while waiting for the writers
+     */
+    private static boolean checkLostUpdates(int threads) throws InterruptedException {
+        ConcurrentRepository<Animal> repository = new ConcurrentRepository<>();
+        Set<Integer> generatedIds = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicateIds = new AtomicInteger();
+        int[][] idsByThread = new int[threads][ENTITIES_PER_THREAD];
+
+        runConcurrently(threads, thread -> {
+            int[] ids = idsByThread[thread];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = repository.generateUniqueId();
+                if (!generatedIds.add(ids[i])) {
+                    duplicateIds.incrementAndGet();
+                }
+                repository.add(animal(ids[i], 0));
+            }
+            for (int round = 1; round <= UPDATE_ROUNDS; round++) {
+                if (round % 2 == 0) {
+                    List<Animal> batch = new ArrayList<>(ids.length);
+                    for (int id : ids) {
+                        batch.add(animal(id, round));
+                    }
+                    repository.updateAll(batch);
+                } else {
+                    for (int id : ids) {
+                        repository.update(animal(id, round));
+                    }
+                }
+            }
+            repository.deleteAll(Arrays.copyOf(ids, ids.length / 5)); // The first fifth of the IDs
+            for (int i = ids.length / 5; i < ids.length / 4; i++) {
+                repository.delete(ids[i]); // Up to the first quarter of the IDs
+            }
+        });
+
+        int lostUpdates = 0;
+        int lostDeletes = 0;
+        int missing = 0;
+        for (int[] ids : idsByThread) {
+            for (int i = 0; i < ids.length; i++) {
+                Animal stored = repository.getById(ids[i]);
+                if (i < ids.length / 4) {
+                    lostDeletes += stored != null ? 1 : 0;
+                } else if (stored == null) {
+                    missing++;
+                } else if (stored.getAge() != UPDATE_ROUNDS) {
+                    lostUpdates++;
+                }
+            }
+        }
+        int expectedSize = threads * (ENTITIES_PER_THREAD - ENTITIES_PER_THREAD / 4);
+        int size = repository.getAll().size();
+        boolean passed = duplicateIds.get() == 0 && lostUpdates == 0 && lostDeletes == 0 && missing == 0 && size == expectedSize;
+        System.out.printf("Lost updates: %d entities, %d duplicate IDs, %d stale versions, %d missing, %d not deleted,"
+                        + " %d stored (expected %d) -> %s%n",
+                threads * ENTITIES_PER_THREAD, duplicateIds.get(), lostUpdates, missing, lostDeletes, size, expectedSize,
+                passed ? "OK" : "FAILED");
+        return passed;
+    }
+
+    /**
+     * Moves age between pairs of animals with batch updates while other threads take snapshots,
+     * and verifies that every snapshot sees the same total age.
+     *
+     * @param threads the number of threads, split between writers and readers
+     * @param seconds how long to run
+     * @return true if the check passed
+     * @throws InterruptedException if interrupted while waiting for the threads
+     */
+    private static boolean checkSnapshots(int threads, int seconds) throws InterruptedException {
+        ConcurrentRepository<Animal> repository = new ConcurrentRepository<>();
+        List<Animal> animals = new ArrayList<>();
+        for (int id = 1; id <= 2 * ANIMAL_PAIRS; id++) {
+            animals.add(animal(id, INITIAL_AGE));
+        }
+        repository.addAll(animals);
+        long expectedTotal = (long) animals.size() * INITIAL_AGE;
+
+        int writers = Math.max(1, Math.min(threads / 2, ANIMAL_PAIRS));
+        int readers = Math.max(1, threads - writers);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        AtomicLong transfers = new AtomicLong();
+        AtomicLong snapshots = new AtomicLong();
+        AtomicLong inconsistent = new AtomicLong();
+
+        runConcurrently(writers + readers, thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (thread < writers) {
+                while (System.nanoTime() < deadline) {
+                    // Each writer owns the pairs p with p % writers == thread, so no two writers touch the same animal
+                    int pair = thread + writers * random.nextInt((ANIMAL_PAIRS - thread + writers - 1) / writers);
+                    int from = 2 * pair + 1;
+                    int to = from + 1;
+                    if (random.nextBoolean()) {
+                        from = to;
+                        to = from - 1;
+                    }
+                    Animal source = repository.getById(from);
+                    Animal target = repository.getById(to);
+                    repository.updateAll(Arrays.asList(animal(from, source.getAge() - 1), animal(to, target.getAge() + 1)));
+                    transfers.incrementAndGet();
+                }
+            } else {
+                while (System.nanoTime() < deadline) {
+                    long total = 0;
+                    for (Animal animal : repository.getAll()) {
+                        total += animal.getAge();
+                    }
+                    if (total != expectedTotal) {
+                        inconsistent.incrementAndGet();
+                    }
+                    snapshots.incrementAndGet();
+                }
+            }
+        });
+
+        long finalTotal = repository.getAll().stream().mapToLong(Animal::getAge).sum();
+        boolean passed = inconsistent.get() == 0 && finalTotal == expectedTotal;
+        System.out.printf("Snapshots: %d writers made %d transfers, %d readers took %d snapshots, %d inconsistent,"
+                        + " final total %d (expected %d) -> %s%n",
+                writers, transfers.get(), readers, snapshots.get(), inconsistent.get(), finalTotal, expectedTotal,
+                passed ? "OK" : "FAILED");
+        return passed;
+    }
+
+    /**
+     * Measures the throughput of a read-mostly mix for a growing number of threads.
+     *
+     * @param maxThreads the largest number of threads to measure
+     * @param seconds    how long to run each measurement
+     * @throws InterruptedException if interrupted while waiting for the threads
+     */
+    private static void measureThroughput(int maxThreads, int seconds) throws InterruptedException {
+        ConcurrentRepository<Animal> repository = new ConcurrentRepository<>();
+        List<Animal> animals = new ArrayList<>(THROUGHPUT_ENTITIES);
+        for (int id = 1; id <= THROUGHPUT_ENTITIES; id++) {
+            animals.add(animal(id, 0));
+        }
+        repository.addAll(animals);
+
+        System.out.println("Throughput (90% getById, 10% update, " + THROUGHPUT_ENTITIES + " entities):");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+            AtomicLong operations = new AtomicLong();
+            long start = System.nanoTime();
+            runConcurrently(threads, thread -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long done = 0;
+                while ((done & 1023) != 0 || System.nanoTime() < deadline) {
+                    int id = 1 + random.nextInt(THROUGHPUT_ENTITIES);
+                    if (random.nextInt(10) == 0) {
+                        repository.update(animal(id, (int) done));
+                    } else {
+                        repository.getById(id);
+                    }
+                    done++;
+                }
+                operations.addAndGet(done);
+            });
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            System.out.printf("  %2d threads: %,12.0f ops/s%n", threads, operations.get() / elapsed);
+        }
+    }
+
+    /**
+     * Runs the task on the given number of threads, started together, and waits for all of them.
+     * A failure in any thread is rethrown once all threads have finished. Shared by the drivers in this package.
+     */
+    static void runConcurrently(int threads, ThreadTask task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean failed = new AtomicBoolean(false);
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            int thread = i;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    task.run(thread);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    e.printStackTrace(); // Log the exception if something goes wrong
+                    failed.set(true);
+                }
+            }, "stress-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (failed.get()) {
+            throw new IllegalStateException("A stress thread failed");
+        }
+    }
+
+    private static Animal animal(int id, int age) {
+        return new Animal(id, "Animal " + id, null, age, AnimalStatus.AVAILABLE);
+    }
+
+    /**
+     * The work done by one thread of a concurrent run.
+     */
+    interface ThreadTask {
+        void run(int thread);
+    }
+}
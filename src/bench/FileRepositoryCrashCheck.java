@@ -0,0 +1,174 @@
+package bench;
+
+import models.Adoptant;
+import repository.FileRepository;
+import repository.codec.AdoptantCodec;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Crash-recovery check for the atomic commits of {@link FileRepository}.
+ * A child JVM commits versions of a set of adoptants in a loop: every commit rewrites all of them with the
+ * next version number in their contact details, and the child prints the version once the commit has returned.
+ * The driver kills the child with SIGKILL after a random delay, so over many rounds the kill lands before,
+ * during and after the temporary file is written, forced and renamed. It then reopens the file and checks that
+ * it holds exactly the last acknowledged version or the one after it, never a mix, a partial list or nothing.
+ * Rounds in which the kill left a temporary file behind (the commit was cut off before its rename) are counted.
+ * <p>
+ * A killed process does not lose what it wrote to the page cache, so this checks the write-then-rename protocol
+ * and recovery at open, not the fsyncs themselves; those would need power to be cut.
+ * <p>
+ * Usage: {@code java bench.FileRepositoryCrashCheck [rounds] [directory]}. Both the Java serialization format
+ * and the binary codec format are checked. Exits with status 1 if a check fails.
+ */
+public class FileRepositoryCrashCheck {
+    private static final int ADOPTANTS = 200;
+    private static final int MAX_KILL_DELAY_MILLIS = 400;
+
+    /**
+     * Runs the check, or the committing child when the first argument is {@code child}.
+     *
+     * @param args the number of rounds per format (default: 100) and the directory for the data files
+     *             (default: a new temporary directory)
+     * @throws IOException          if the child cannot be started
+     * @throws InterruptedException if the driver is interrupted while waiting for the child
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 0 && args[0].equals("child")) {
+            runChild(args[1], Boolean.parseBoolean(args[2]));
+            return;
+        }
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        Path directory = args.length > 1 ? Paths.get(args[1]) : Files.createTempDirectory("crash-check");
+        boolean passed = check(directory.resolve("adoptants-serialized.dat").toString(), false, rounds);
+        passed &= check(directory.resolve("adoptants-codec.dat").toString(), true, rounds);
+        System.out.println(passed ? "All checks passed." : "CHECKS FAILED.");
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Kills a committing child the given number of times and checks the file after every kill.
+     *
+     * @param fileName the data file
+     * @param useCodec whether the file is written with the binary codec
+     * @param rounds   the number of kills
+     * @return true if every reopened file held a whole acknowledged or in-flight version
+     */
+    private static boolean check(String fileName, boolean useCodec, int rounds) throws IOException, InterruptedException {
+        Random random = new Random(42);
+        int failures = 0;
+        int cutOffCommits = 0;
+        int atAcknowledged = 0;
+        int atInFlight = 0;
+        for (int round = 0; round < rounds; round++) {
+            int before = readVersion(fileName, useCodec); // Acknowledged by the previous round
+            Process child = new ProcessBuilder(javaExecutable(), "-cp", System.getProperty("java.class.path"),
+                    FileRepositoryCrashCheck.class.getName(), "child", fileName, String.valueOf(useCodec))
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            AtomicInteger acknowledged = new AtomicInteger(before);
+            Thread reader = new Thread(() -> {
+                try (BufferedReader lines = new BufferedReader(new InputStreamReader(child.getInputStream()))) {
+                    String line;
+                    while ((line = lines.readLine()) != null) {
+                        acknowledged.set(Integer.parseInt(line.trim()));
+                    }
+                } catch (IOException e) {
+                    // The child was killed while its output was read
+                }
+            });
+            reader.start();
+            Thread.sleep(random.nextInt(MAX_KILL_DELAY_MILLIS));
+            child.destroyForcibly();
+            child.waitFor(1, TimeUnit.MINUTES);
+            reader.join();
+
+            if (Files.exists(Paths.get(fileName + ".tmp"))) {
+                cutOffCommits++;
+            }
+            int version = readVersion(fileName, useCodec);
+            int last = acknowledged.get();
+            if (version == last) {
+                atAcknowledged++;
+            } else if (version == last + 1) {
+                atInFlight++;
+            } else {
+                failures++;
+                System.out.println("  round " + round + ": reopened at version " + version + ", last acknowledged " + last);
+            }
+        }
+        System.out.printf("%s: %d kills, %d cut off before the rename, reopened at the acknowledged version %d times"
+                        + " and at the in-flight version %d times, %d failures -> %s%n",
+                useCodec ? "Binary codec" : "Java serialization", rounds, cutOffCommits, atAcknowledged, atInFlight,
+                failures, failures == 0 ? "OK" : "FAILED");
+        return failures == 0;
+    }
+
+    /**
+     * Reopens the file and returns the version all adoptants hold.
+     *
+     * @return the version, -1 if nothing is stored, or -2 if the adoptants are incomplete or hold different versions
+     */
+    private static int readVersion(String fileName, boolean useCodec) {
+        List<Adoptant> adoptants = repository(fileName, useCodec).getAll();
+        if (adoptants.isEmpty()) {
+            return -1;
+        }
+        if (adoptants.size() != ADOPTANTS) {
+            return -2;
+        }
+        String contact = adoptants.get(0).getContactDetails();
+        for (Adoptant adoptant : adoptants) {
+            if (!adoptant.getContactDetails().equals(contact)) {
+                return -2;
+            }
+        }
+        return Integer.parseInt(contact);
+    }
+
+    /**
+     * Commits versions in a loop until killed, continuing from the version already stored.
+     */
+    private static void runChild(String fileName, boolean useCodec) {
+        FileRepository<Adoptant> repository = repository(fileName, useCodec);
+        List<Adoptant> stored = repository.getAll();
+        int version = stored.isEmpty() ? -1 : Integer.parseInt(stored.get(0).getContactDetails());
+        if (stored.isEmpty()) {
+            repository.addAll(adoptants(0));
+            version = 0;
+            System.out.println(version);
+        }
+        while (true) {
+            repository.updateAll(adoptants(++version));
+            System.out.println(version); // Acknowledged: the commit has returned
+        }
+    }
+
+    private static List<Adoptant> adoptants(int version) {
+        List<Adoptant> adoptants = new ArrayList<>(ADOPTANTS);
+        for (int id = 1; id <= ADOPTANTS; id++) {
+            adoptants.add(new Adoptant(id, "Adoptant " + id, String.valueOf(version)));
+        }
+        return adoptants;
+    }
+
+    private static FileRepository<Adoptant> repository(String fileName, boolean useCodec) {
+        return useCodec ? new FileRepository<>(fileName, new AdoptantCodec()) : new FileRepository<>(fileName);
+    }
+
+    private static String javaExecutable() {
+        return Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+    }
+}
@@ -0,0 +1,90 @@
+package bench;
+
+import models.Adoptant;
+import repository.FileRepository;
+import repository.codec.AdoptantCodec;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Commit throughput benchmark for the group commits of {@link FileRepository}.
+ * For every group commit window and number of writer threads, each thread repeatedly updates its own adoptant
+ * for a fixed time. Every update is a commit that returns only once it is on disk, so the commits per second show
+ * how many changes share one write and fsync. The mean latency shows what the window costs each change.
+ * <p>
+ * Usage: {@code java bench.GroupCommitBench [windows] [threads] [seconds] [entities] [directory]}, for example
+ * {@code java bench.GroupCommitBench 0,1,5 1,4,16 2}. Windows are in milliseconds.
+ */
+public class GroupCommitBench {
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the comma-separated group commit windows in milliseconds (default: 0,1,2,5),
+     *             the comma-separated numbers of writer threads (default: 1,4,16),
+     *             the duration of each measurement in seconds (default: 2),
+     *             the number of adoptants in the file (default: 1000)
+     *             and the directory for the data file (default: a new temporary directory)
+     * @throws IOException          if the data file cannot be created
+     * @throws InterruptedException if the driver is interrupted while waiting for its threads
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String[] windows = (args.length > 0 ? args[0] : "0,1,2,5").split(",");
+        String[] threadCounts = (args.length > 1 ? args[1] : "1,4,16").split(",");
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        int entities = args.length > 3 ? Integer.parseInt(args[3]) : 1_000;
+        Path directory = args.length > 4 ? Paths.get(args[4]) : Files.createTempDirectory("group-commit-bench");
+
+        Path file = directory.resolve("adoptants.dat");
+        Files.deleteIfExists(file);
+        FileRepository<Adoptant> repository = new FileRepository<>(file.toString(), new AdoptantCodec());
+        List<Adoptant> adoptants = new ArrayList<>(entities);
+        for (int id = 1; id <= entities; id++) {
+            adoptants.add(new Adoptant(id, "Adoptant " + id, "0"));
+        }
+        BenchSupport.quietly(() -> repository.addAll(adoptants));
+
+        System.out.println("FileRepository group commits, " + entities + " adoptants, " + seconds + " s per measurement:");
+        System.out.printf("  %10s %8s %14s %18s%n", "window", "threads", "commits/s", "mean latency (ms)");
+        for (String window : windows) {
+            repository.setGroupCommitWindow(Long.parseLong(window.trim()), TimeUnit.MILLISECONDS);
+            for (String threadCount : threadCounts) {
+                int threads = Integer.parseInt(threadCount.trim());
+                long[] result = measure(repository, threads, seconds);
+                double elapsed = result[2] / 1e9;
+                System.out.printf("  %8s ms %8d %,14.0f %18.2f%n", window.trim(), threads, result[0] / elapsed,
+                        result[0] == 0 ? 0 : result[1] / 1e6 / result[0]);
+            }
+        }
+    }
+
+    /**
+     * Updates one adoptant per thread in a loop until the time is up.
+     *
+     * @return the number of commits, their total latency in nanoseconds and the elapsed time in nanoseconds
+     */
+    private static long[] measure(FileRepository<Adoptant> repository, int threads, int seconds)
+            throws InterruptedException {
+        AtomicLong commits = new AtomicLong();
+        AtomicLong latency = new AtomicLong();
+        long start = System.nanoTime();
+        long deadline = start + seconds * 1_000_000_000L;
+        BenchSupport.runConcurrentlyQuietly(threads, thread -> {
+            int version = 0;
+            while (System.nanoTime() < deadline) {
+                long before = System.nanoTime();
+                repository.update(new Adoptant(thread + 1, "Adoptant " + (thread + 1), String.valueOf(++version)));
+                latency.addAndGet(System.nanoTime() - before);
+                commits.incrementAndGet();
+            }
+        });
+        return new long[]{commits.get(), latency.get(), System.nanoTime() - start};
+    }
+}
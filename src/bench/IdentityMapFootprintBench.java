@@ -0,0 +1,143 @@
+package bench;
+
+import models.Adoptant;
+import models.AdoptionRequest;
+import models.AdoptionRequestStatus;
+import models.Animal;
+import models.AnimalStatus;
+import models.AnimalType;
+import repository.FileRepository;
+import repository.IRepository;
+import repository.IdentityMap;
+import repository.IdentityMapRepository;
+import repository.codec.AdoptantCodec;
+import repository.codec.AdoptionRequestCodec;
+import repository.codec.AnimalCodec;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Memory footprint of repeated reads with and without an {@link IdentityMap}.
+ * Adoption requests that embed their adoptant and animal are stored in a {@link FileRepository}, next to the
+ * adoptants and animals themselves. The benchmark then reads all adoptants, animals and requests several times,
+ * as several services would, and keeps every list it read. Without an identity map every read decodes fresh copies,
+ * and every request carries its own copy of its adoptant and animal; with one, all reads share one instance per
+ * entity. For both it reports the distinct adoptant, animal and request instances held, and the heap those reads
+ * retain.
+ * <p>
+ * Usage: {@code java bench.IdentityMapFootprintBench [requests] [adoptants and animals] [reads] [directory]}.
+ */
+public class IdentityMapFootprintBench {
+    private static final Date REQUEST_DATE = new Date(1_700_000_000_000L);
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the number of requests (default: 10000), the number of adoptants and of animals (default: 1000),
+     *             the number of times everything is read (default: 3)
+     *             and the directory for the data files (default: a new temporary directory)
+     * @throws IOException if a data file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int owners = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        int reads = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        Path directory = args.length > 3 ? Paths.get(args[3]) : Files.createTempDirectory("identity-map-bench");
+
+        Path adoptantFile = directory.resolve("adoptants.dat");
+        Path animalFile = directory.resolve("animals.dat");
+        Path requestFile = directory.resolve("requests.dat");
+        store(count, owners, adoptantFile, animalFile, requestFile); // Only what the reads return stays on the heap
+
+        System.out.println("Repeated reads of " + owners + " adoptants, " + owners + " animals and " + count
+                + " requests, " + reads + " times:");
+        System.out.printf("  %-18s %12s %12s %12s %16s%n", "identity map", "adoptants", "animals", "requests",
+                "retained (KB)");
+        measure(false, adoptantFile, animalFile, requestFile, reads);
+        measure(true, adoptantFile, animalFile, requestFile, reads);
+    }
+
+    /**
+     * Writes the adoptants, the animals and the requests that embed them to their files.
+     */
+    private static void store(int count, int owners, Path adoptantFile, Path animalFile, Path requestFile)
+            throws IOException {
+        List<Adoptant> adoptants = new ArrayList<>(owners);
+        List<Animal> animals = new ArrayList<>(owners);
+        AnimalType type = new AnimalType(1, "Dog", "Loyal");
+        for (int id = 1; id <= owners; id++) {
+            adoptants.add(new Adoptant(id, "Adoptant " + id, "adoptant" + id + "@example.com"));
+            animals.add(new Animal(id, "Animal " + id, type, id % 15, AnimalStatus.AVAILABLE));
+        }
+        List<AdoptionRequest> requests = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            requests.add(new AdoptionRequest(id, adoptants.get(id % owners), animals.get((id / owners) % owners),
+                    REQUEST_DATE, AdoptionRequestStatus.PENDING));
+        }
+        for (Path file : new Path[]{adoptantFile, animalFile, requestFile}) {
+            Files.deleteIfExists(file);
+        }
+        BenchSupport.quietly(() -> {
+            new FileRepository<>(adoptantFile.toString(), new AdoptantCodec()).addAll(adoptants);
+            new FileRepository<>(animalFile.toString(), new AnimalCodec()).addAll(animals);
+            new FileRepository<>(requestFile.toString(), new AdoptionRequestCodec()).addAll(requests);
+        });
+    }
+
+    /**
+     * Reads everything the given number of times, keeping every result, and prints the instances and heap held.
+     */
+    private static void measure(boolean identityMapped, Path adoptantFile, Path animalFile, Path requestFile,
+                                int reads) {
+        IRepository<Adoptant> adoptants = new FileRepository<>(adoptantFile.toString(), new AdoptantCodec());
+        IRepository<Animal> animals = new FileRepository<>(animalFile.toString(), new AnimalCodec());
+        IRepository<AdoptionRequest> requests = new FileRepository<>(requestFile.toString(), new AdoptionRequestCodec());
+        IdentityMap identityMap = new IdentityMap();
+        if (identityMapped) {
+            adoptants = new IdentityMapRepository<>(adoptants, identityMap, Adoptant.class);
+            animals = new IdentityMapRepository<>(animals, identityMap, Animal.class);
+            requests = IdentityMapRepository.forAdoptionRequests(requests, identityMap);
+        }
+
+        long before = BenchSupport.usedHeap();
+        List<List<?>> held = new ArrayList<>();
+        for (int read = 0; read < reads; read++) {
+            IRepository<Adoptant> adoptantSource = adoptants;
+            IRepository<Animal> animalSource = animals;
+            IRepository<AdoptionRequest> requestSource = requests;
+            held.add(BenchSupport.quietly(adoptantSource::getAll));
+            held.add(BenchSupport.quietly(animalSource::getAll));
+            held.add(BenchSupport.quietly(requestSource::getAll));
+        }
+        long retained = BenchSupport.usedHeap() - before;
+
+        Set<Object> adoptantInstances = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Object> animalInstances = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Object> requestInstances = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (List<?> list : held) {
+            for (Object entity : list) {
+                if (entity instanceof Adoptant) {
+                    adoptantInstances.add(entity);
+                } else if (entity instanceof Animal) {
+                    animalInstances.add(entity);
+                } else {
+                    AdoptionRequest request = (AdoptionRequest) entity;
+                    requestInstances.add(request);
+                    adoptantInstances.add(request.getAdoptant());
+                    animalInstances.add(request.getAnimal());
+                }
+            }
+        }
+        System.out.printf("  %-18s %,12d %,12d %,12d %,16d%n", identityMapped ? "yes" : "no",
+                adoptantInstances.size(), animalInstances.size(), requestInstances.size(), retained / 1024);
+    }
+}
@@ -0,0 +1,94 @@
+package bench;
+
+import models.Animal;
+import models.AnimalStatus;
+import repository.InMemoryRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk-insert scaling benchmark for {@link InMemoryRepository}.
+ * For every size it adds that many animals one by one, then looks up, updates and deletes each of them,
+ * and reports the time per operation. With the hashed ID index the cost per operation stays flat as the
+ * repository grows. For comparison, the same inserts are run against a list that checks for duplicates with a
+ * linear scan, as the repository did before it was indexed; that cost grows with the size, so it is only run up to
+ * a limit.
+ * <p>
+ * Usage: {@code java bench.InMemoryRepositoryBench [sizes] [linear-scan limit]}, for example
+ * {@code java bench.InMemoryRepositoryBench 10000,100000,1000000 100000}. Run with a heap of at least 1 GB
+ * for a million entities.
+ */
+public class InMemoryRepositoryBench {
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the comma-separated sizes (default: 10000,100000,1000000) and the largest size the linear-scan
+     *             reference is run for (default: 100000)
+     */
+    public static void main(String[] args) {
+        String[] sizes = (args.length > 0 ? args[0] : "10000,100000,1000000").split(",");
+        int linearLimit = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+
+        run(10_000, linearLimit); // Warm-up, not reported
+        System.out.println("InMemoryRepository bulk insert (ns per operation):");
+        System.out.printf("  %10s %10s %10s %10s %10s %18s%n", "entities", "add", "getById", "update", "delete", "linear-scan add");
+        for (String size : sizes) {
+            double[] result = run(Integer.parseInt(size.trim()), linearLimit);
+            System.out.printf("  %,10d %10.0f %10.0f %10.0f %10.0f %18s%n", Integer.parseInt(size.trim()),
+                    result[0], result[1], result[2], result[3],
+                    result[4] < 0 ? "skipped" : String.format("%.0f", result[4]));
+        }
+    }
+
+    /**
+     * Measures every operation for the given number of entities.
+     *
+     * @return the nanoseconds per add, getById, update and delete, and per linear-scan add (-1 if skipped)
+     */
+    private static double[] run(int size, int linearLimit) {
+        List<Animal> animals = new ArrayList<>(size);
+        List<Animal> updated = new ArrayList<>(size);
+        for (int id = 1; id <= size; id++) {
+            animals.add(new Animal(id, "Animal " + id, null, id % 20, AnimalStatus.AVAILABLE));
+            updated.add(new Animal(id, "Animal " + id, null, id % 20 + 1, AnimalStatus.PENDING));
+        }
+        InMemoryRepository<Animal> repository = new InMemoryRepository<>();
+        long add = BenchSupport.timeQuietly(() -> animals.forEach(repository::add));
+        long[] found = new long[1];
+        long getById = BenchSupport.timeQuietly(() -> {
+            for (int id = 1; id <= size; id++) {
+                found[0] += repository.getById(id).getAge();
+            }
+        });
+        long update = BenchSupport.timeQuietly(() -> updated.forEach(repository::update));
+        long delete = BenchSupport.timeQuietly(() -> {
+            for (int id = 1; id <= size; id++) {
+                repository.delete(id);
+            }
+        });
+        if (found[0] < 0 || !repository.getAll().isEmpty()) {
+            throw new IllegalStateException("The repository lost track of its entities");
+        }
+        long linear = size <= linearLimit ? linearScanAdd(animals) : -1;
+        return new double[]{(double) add / size, (double) getById / size, (double) update / size,
+                (double) delete / size, linear < 0 ? -1 : (double) linear / size};
+    }
+
+    /**
+     * Adds the animals to a plain list, checking every ID against all stored entities first.
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    private static long linearScanAdd(List<Animal> animals) {
+        List<Animal> entities = new ArrayList<>();
+        long start = System.nanoTime();
+        for (Animal animal : animals) {
+            if (entities.stream().noneMatch(existing -> existing.getId() == animal.getId())) {
+                entities.add(animal);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
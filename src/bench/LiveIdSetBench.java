@@ -0,0 +1,145 @@
+package bench;
+
+import models.Adoptant;
+import repository.FileRepository;
+import repository.LiveIdSet;
+import repository.codec.AdoptantCodec;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * False-positive rate and lookup latency of the live ID filter ({@link LiveIdSet}) kept by {@link FileRepository}.
+ * For every size it stores that many adoptants, with IDs spread over the whole positive range so that the filter
+ * size cannot depend on how large the IDs are, and then:
+ * <ul>
+ *     <li>probes the filter read back from the sidecar with IDs that are not stored and reports the share reported
+ *     as possibly stored (the false-positive rate), next to the sidecar size;</li>
+ *     <li>times {@link FileRepository#getById(int)} for missing IDs, which the filter answers, and a full scan of the
+ *     data file for the same IDs, which is what every miss cost without the filter;</li>
+ *     <li>deletes a share of the adoptants and adds as many new ones, one commit each, and reports the
+ *     false-positive rate again, with the filter maintained incrementally or rebuilt as it fills up.</li>
+ * </ul>
+ * <p>
+ * Usage: {@code java bench.LiveIdSetBench [sizes] [probes] [churn] [directory]}, for example
+ * {@code java bench.LiveIdSetBench 1000,10000,100000 100000 100}.
+ */
+public class LiveIdSetBench {
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the comma-separated numbers of stored adoptants (default: 1000,10000,100000),
+     *             the number of missing IDs probed (default: 100000), the number of adoptants deleted and added
+     *             one commit at a time afterwards (default: 100)
+     *             and the directory for the data files (default: a new temporary directory)
+     * @throws IOException if a data file cannot be written or measured
+     */
+    public static void main(String[] args) throws IOException {
+        String[] sizes = (args.length > 0 ? args[0] : "1000,10000,100000").split(",");
+        int probes = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int churn = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        Path directory = args.length > 3 ? Paths.get(args[3]) : Files.createTempDirectory("live-id-bench");
+
+        System.out.println("FileRepository live ID filter, " + probes + " missing IDs probed:");
+        System.out.printf("  %10s %14s %10s %18s %18s %16s%n", "entities", "sidecar (B)", "FPR (%)",
+                "miss, filter (us)", "miss, scan (us)", "FPR after churn");
+        for (String size : sizes) {
+            run(Integer.parseInt(size.trim()), probes, churn, directory);
+        }
+    }
+
+    private static void run(int size, int probes, int churn, Path directory) throws IOException {
+        Path file = directory.resolve("adoptants-" + size + ".dat");
+        Files.deleteIfExists(file);
+        Random random = new Random(size);
+        List<Adoptant> adoptants = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            adoptants.add(new Adoptant(idFor(i, size), "Adoptant " + i, "adoptant" + i + "@example.com"));
+        }
+        FileRepository<Adoptant> repository = new FileRepository<>(file.toString(), new AdoptantCodec());
+        BenchSupport.quietly(() -> repository.addAll(adoptants));
+
+        int[] missing = missingIds(probes, size, random);
+        double falsePositives = falsePositiveRate(file, missing);
+
+        FileRepository<Adoptant> reopened = new FileRepository<>(file.toString(), new AdoptantCodec());
+        reopened.getById(missing[0]); // Loads the filter from the sidecar
+        long filtered = BenchSupport.timeQuietly(() -> {
+            for (int id : missing) {
+                if (reopened.getById(id) != null) {
+                    throw new IllegalStateException("Found a missing ID: " + id);
+                }
+            }
+        });
+        int scanned = Math.min(missing.length, Math.max(10, 2_000_000 / Math.max(1, size))); // Scans are slow
+        long scan = BenchSupport.timeQuietly(() -> {
+            for (int i = 0; i < scanned; i++) {
+                int id = missing[i];
+                try (Stream<Adoptant> entities = reopened.scan()) {
+                    if (entities.anyMatch(entity -> entity.getId() == id)) {
+                        throw new IllegalStateException("Found a missing ID: " + id);
+                    }
+                }
+            }
+        });
+
+        BenchSupport.quietly(() -> {
+            for (int i = 0; i < churn; i++) {
+                reopened.delete(adoptants.get(i).getId());
+                reopened.add(new Adoptant(idFor(size + i, size), "New adoptant " + i, "new" + i + "@example.com"));
+            }
+        });
+        double afterChurn = falsePositiveRate(file, missing);
+
+        System.out.printf("  %,10d %,14d %10.2f %18.2f %,18.0f %15.2f%%%n", size, Files.size(Paths.get(file + ".ids")),
+                falsePositives, filtered / 1e3 / missing.length, scan / 1e3 / scanned, afterChurn);
+    }
+
+    /**
+     * Spreads the IDs of the stored entities over the positive range, up to Integer.MAX_VALUE.
+     */
+    private static int idFor(int index, int size) {
+        return (int) (Integer.MAX_VALUE - (long) index * (Integer.MAX_VALUE / (2L * size + 2)));
+    }
+
+    /**
+     * Returns random IDs that no entity has: stored IDs lie a whole number of steps below Integer.MAX_VALUE,
+     * so any ID that does not is missing.
+     */
+    private static int[] missingIds(int count, int size, Random random) {
+        long step = Integer.MAX_VALUE / (2L * size + 2);
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            int id;
+            do {
+                id = 1 + random.nextInt(Integer.MAX_VALUE - 1);
+            } while ((Integer.MAX_VALUE - (long) id) % step == 0);
+            ids[i] = id;
+        }
+        return ids;
+    }
+
+    /**
+     * Reads the filter back from the sidecar and returns the percentage of the missing IDs it reports as possibly stored.
+     */
+    private static double falsePositiveRate(Path file, int[] missing) {
+        LiveIdSet filter = LiveIdSet.readFrom(file + ".ids", file);
+        if (filter == null) {
+            throw new IllegalStateException("The sidecar of " + file + " is missing or stale");
+        }
+        int positives = 0;
+        for (int id : missing) {
+            if (filter.mightContain(id)) {
+                positives++;
+            }
+        }
+        return 100.0 * positives / missing.length;
+    }
+}
@@ -1,8 +1,11 @@
 package controller;
 
 import models.Adoptant;
+import models.AdoptantRanking;
 import models.Animal;
 import models.AdoptionRequest;
+import models.AdoptionRequestStatus;
+import repository.Page;
 import service.AdoptantService;
 import service.AnimalService;
 
@@ -193,12 +196,11 @@ public class AdoptantController {
      * Views adoptants sorted by the total number of adoptions they have made.
      */
     public void viewAdoptantsSortedByTotalAdoptions() {
-        List<Adoptant> sortedAdoptants = adoptantService.getAdoptantsByTotalAdoptions();
-        if (sortedAdoptants.isEmpty()) {
+        List<AdoptantRanking> rankings = adoptantService.getAdoptantsByTotalAdoptions();
+        if (rankings.isEmpty()) {
             System.out.println("No adoptants found.");
         } else {
-            sortedAdoptants.forEach(adoptant -> System.out.println(adoptant + " - Total Adoptions: " +
-                    adoptantService.getAdoptionRequestsByAdoptant(adoptant).size()));
+            rankings.forEach(ranking -> System.out.println(ranking.getAdoptant() + " - Total Adoptions: " + ranking.getRequestCount()));
         }
     }
 
@@ -206,6 +208,17 @@ public class AdoptantController {
         return adoptantService.getAllAdoptants();
     }
 
+    /**
+     * Retrieves one page of adoptants ordered by ID.
+     *
+     * @param afterId the cursor: only adoptants with a greater ID are returned ({@link Page#START} for the first page)
+     * @param limit   the maximum number of adoptants on the page
+     * @return the page of adoptants
+     */
+    public Page<Adoptant> getAdoptantsPage(int afterId, int limit) {
+        return adoptantService.getAdoptantsPage(afterId, limit);
+    }
+
     public Adoptant getAdoptantById(int id) {
         return adoptantService.getAdoptantById(id);
     }
@@ -241,7 +254,7 @@ public class AdoptantController {
         Animal animal = animalService.getAnimalById(animalId);
 
         if (adoptant != null && animal != null) {
-            AdoptionRequest adoptionRequest = new AdoptionRequest(0, adoptant, animal, new Date(), "Pending");
+            AdoptionRequest adoptionRequest = new AdoptionRequest(0, adoptant, animal, new Date(), AdoptionRequestStatus.PENDING);
             adoptantService.addAdoptionRequest(adoptionRequest);
             System.out.println("Adoption request made successfully!");
         } else {
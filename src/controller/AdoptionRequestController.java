@@ -5,8 +5,10 @@
  */
 package controller;
 
-import models.Adoptant;
+import models.AdoptantRanking;
+import models.AdoptionDecisionReport;
 import models.AdoptionRequest;
+import repository.Page;
 import service.AdoptionRequestService;
 
 import java.util.List;
@@ -41,6 +43,17 @@ public class AdoptionRequestController {
         return adoptionRequestService.getAllAdoptionRequests();
     }
 
+    /**
+     * Retrieves one page of adoption requests ordered by ID.
+     *
+     * @param afterId the cursor: only requests with a greater ID are returned ({@link Page#START} for the first page)
+     * @param limit   the maximum number of requests on the page
+     * @return the page of adoption requests
+     */
+    public Page<AdoptionRequest> getAdoptionRequestsPage(int afterId, int limit) {
+        return adoptionRequestService.getAdoptionRequestsPage(afterId, limit);
+    }
+
     /**
      * Approves an adoption request by its ID.
      *
@@ -60,11 +73,70 @@ public class AdoptionRequestController {
     }
 
     /**
-     * Retrieves adoptants sorted by the total number of adoption requests they have made.
+     * Approves several adoption requests at once, for example after an adoption event.
+     * When several requests are for the same animal, the earliest one is approved and the others are rejected.
+     *
+     * @param requestIds the IDs of the adoption requests to approve
+     * @return the outcome for each request ID
+     */
+    public AdoptionDecisionReport approveAll(int... requestIds) {
+        return adoptionRequestService.approveAll(requestIds);
+    }
+
+    /**
+     * Rejects several adoption requests at once.
      *
-     * @return a list of adoptants sorted by the total number of requests
+     * @param requestIds the IDs of the adoption requests to reject
+     * @return the outcome for each request ID
      */
-    public List<Adoptant> getAdoptantsByTotalRequests() {
+    public AdoptionDecisionReport rejectAll(int... requestIds) {
+        return adoptionRequestService.rejectAll(requestIds);
+    }
+
+    /**
+     * Retrieves the pending adoption request that should be reviewed next.
+     *
+     * @return the oldest pending request, or null if no request is pending
+     */
+    public AdoptionRequest getNextPendingRequest() {
+        return adoptionRequestService.getNextPendingRequest();
+    }
+
+    /**
+     * Retrieves the pending adoption requests for an animal, oldest first.
+     *
+     * @param animalId the ID of the animal
+     * @return a list of the animal's pending requests
+     */
+    public List<AdoptionRequest> getPendingRequestsForAnimal(int animalId) {
+        return adoptionRequestService.getPendingRequestsForAnimal(animalId);
+    }
+
+    /**
+     * Returns the number of adoption requests waiting for review.
+     *
+     * @return the number of pending requests
+     */
+    public int getPendingQueueDepth() {
+        return adoptionRequestService.getPendingQueueDepth();
+    }
+
+    /**
+     * Retrieves adoptants sorted by the total number of adoption requests they have made, with their counts.
+     *
+     * @return a list of adoptants and their request counts, sorted by the total number of requests
+     */
+    public List<AdoptantRanking> getAdoptantsByTotalRequests() {
         return adoptionRequestService.getAdoptantsByTotalRequests();
     }
+
+    /**
+     * Retrieves the adoptants with the most adoption requests, with their counts.
+     *
+     * @param limit the maximum number of adoptants to return
+     * @return a list of at most {@code limit} adoptants and their request counts, most requests first
+     */
+    public List<AdoptantRanking> getTopAdoptantsByTotalRequests(int limit) {
+        return adoptionRequestService.getTopAdoptantsByTotalRequests(limit);
+    }
 }
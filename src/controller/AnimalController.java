@@ -5,6 +5,9 @@
 package controller;
 
 import models.Animal;
+import models.AnimalStatus;
+import models.AnimalType;
+import repository.Page;
 import service.AnimalService;
 
 import java.util.List;
@@ -41,6 +44,17 @@ public class AnimalController {
         return animalService.getAllAnimals();
     }
 
+    /**
+     * Retrieves one page of animals ordered by ID.
+     *
+     * @param afterId the cursor: only animals with a greater ID are returned ({@link Page#START} for the first page)
+     * @param limit   the maximum number of animals on the page
+     * @return the page of animals
+     */
+    public Page<Animal> getAnimalsPage(int afterId, int limit) {
+        return animalService.getAnimalsPage(afterId, limit);
+    }
+
     /**
      * Retrieves an animal by its ID.
      *
@@ -85,10 +99,31 @@ public class AnimalController {
     /**
      * Filters animals by their status.
      *
-     * @param status the status to filter animals by (e.g., "Available", "Adopted")
+     * @param status the status to filter animals by
      * @return a list of animals matching the specified status
      */
-    public List<Animal> filterAnimalsByStatus(String status) {
+    public List<Animal> filterAnimalsByStatus(AnimalStatus status) {
         return animalService.filterAnimalsByStatus(status);
     }
+
+    /**
+     * Returns the shared animal type with the given name and characteristics, creating it the first time.
+     *
+     * @param typeName               the name of the type (e.g., Dog, Cat)
+     * @param specialCharacteristics the special characteristics of the type
+     * @return the animal type
+     */
+    public AnimalType getAnimalType(String typeName, String specialCharacteristics) {
+        return animalService.getAnimalType(typeName, specialCharacteristics);
+    }
+
+    /**
+     * Filters animals by their type.
+     *
+     * @param typeId the ID of the animal type
+     * @return a list of animals of the given type
+     */
+    public List<Animal> filterAnimalsByType(int typeId) {
+        return animalService.filterAnimalsByType(typeId);
+    }
 }
@@ -8,18 +8,19 @@ import java.util.List;
  * the functionality to manage adoption requests.
  */
 public class Adoptant extends Person {
-    private static int currentId = 1;
+    private static final long serialVersionUID = 4373572772508712192L; // The value computed before the ID counter was removed
+
     private List<AdoptionRequest> adoptionRequests;
 
     /**
      * Constructor for creating an adoptant (adopter).
      *
-     * @param id the ID of the adoptant (auto-generated)
+     * @param id the ID of the adoptant
      * @param name the name of the adoptant
      * @param contactDetails the contact details of the adoptant
      */
     public Adoptant(int id, String name, String contactDetails) {
-        super(currentId++, name, contactDetails);
+        super(id, name, contactDetails);
         this.adoptionRequests = new ArrayList<>();
     }
 
@@ -0,0 +1,49 @@
+package models;
+
+/**
+ * Represents an adoptant together with the number of adoption requests they have made,
+ * as returned by the rankings of the most active adoptants.
+ */
+public class AdoptantRanking {
+    private final Adoptant adoptant;
+    private final int requestCount;
+
+    /**
+     * Constructor for creating an instance of AdoptantRanking.
+     *
+     * @param adoptant the adoptant
+     * @param requestCount the number of adoption requests the adoptant has made
+     */
+    public AdoptantRanking(Adoptant adoptant, int requestCount) {
+        this.adoptant = adoptant;
+        this.requestCount = requestCount;
+    }
+
+    /**
+     * Returns the adoptant.
+     *
+     * @return the adoptant
+     */
+    public Adoptant getAdoptant() {
+        return adoptant;
+    }
+
+    /**
+     * Returns the number of adoption requests the adoptant has made.
+     *
+     * @return the request count
+     */
+    public int getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * Returns a string representation of the ranking, including the adoptant and the request count.
+     *
+     * @return a string representation of the ranking
+     */
+    @Override
+    public String toString() {
+        return adoptant + " - Total Requests: " + requestCount;
+    }
+}
@@ -0,0 +1,137 @@
+package models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents the result of approving or rejecting several adoption requests at once:
+ * the outcome for every request ID, in the order the IDs were given, followed by the requests
+ * that were rejected automatically because another request for the same animal was approved.
+ */
+public class AdoptionDecisionReport {
+    /**
+     * The outcome of the decision on one adoption request.
+     */
+    public enum Outcome {
+        APPROVED("Approved"),
+        REJECTED("Rejected"),
+        CONFLICT("Rejected: an earlier request for the same animal was approved"),
+        AUTO_REJECTED("Rejected: another request for the same animal was approved"),
+        ANIMAL_ADOPTED("Rejected: the animal has already been adopted"),
+        NOT_FOUND("Not found"),
+        ALREADY_PROCESSED("Already processed");
+
+        private final String label;
+
+        Outcome(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Returns the description of the outcome shown to users.
+         *
+         * @return the description
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * Returns the description of the outcome.
+         *
+         * @return the description
+         */
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private final Map<Integer, Outcome> outcomes = new LinkedHashMap<>();
+    private final Map<Integer, AdoptionRequest> decidedRequests = new HashMap<>();
+
+    /**
+     * Records the outcome for a request ID.
+     *
+     * @param requestId the ID of the request
+     * @param outcome the outcome of the decision
+     * @param request the request in its new state, or null if it was not changed
+     */
+    public void record(int requestId, Outcome outcome, AdoptionRequest request) {
+        outcomes.put(requestId, outcome);
+        if (request != null) {
+            decidedRequests.put(requestId, request);
+        }
+    }
+
+    /**
+     * Returns the outcome for a request ID.
+     *
+     * @param requestId the ID of the request
+     * @return the outcome, or null if the ID was not part of the decision
+     */
+    public Outcome getOutcome(int requestId) {
+        return outcomes.get(requestId);
+    }
+
+    /**
+     * Returns a request that was approved or rejected, in its new state.
+     *
+     * @param requestId the ID of the request
+     * @return the decided request, or null if the request was not changed
+     */
+    public AdoptionRequest getRequest(int requestId) {
+        return decidedRequests.get(requestId);
+    }
+
+    /**
+     * Returns the outcome of every request ID, in the order the IDs were given.
+     *
+     * @return the outcomes by request ID
+     */
+    public Map<Integer, Outcome> getOutcomes() {
+        return Collections.unmodifiableMap(outcomes);
+    }
+
+    /**
+     * Returns the IDs of the requests with the given outcome.
+     *
+     * @param outcome the outcome to look for
+     * @return the matching request IDs, in report order
+     */
+    public List<Integer> getIds(Outcome outcome) {
+        List<Integer> ids = new ArrayList<>();
+        outcomes.forEach((requestId, recorded) -> {
+            if (recorded == outcome) {
+                ids.add(requestId);
+            }
+        });
+        return ids;
+    }
+
+    /**
+     * Returns the number of requests with the given outcome.
+     *
+     * @param outcome the outcome to count
+     * @return the number of matching requests
+     */
+    public int count(Outcome outcome) {
+        return getIds(outcome).size();
+    }
+
+    /**
+     * Returns a string representation of the report, with one line per request ID.
+     *
+     * @return a string representation of the report
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        outcomes.forEach((requestId, outcome) -> builder.append("Request ").append(requestId).append(": ").append(outcome).append('\n'));
+        return builder.toString();
+    }
+}
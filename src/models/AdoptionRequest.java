@@ -1,20 +1,42 @@
 package models;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.Date;
+import java.util.function.IntFunction;
 
 /**
  * Class representing an adoption request made by an adoptant for an animal.
  * It extends the BaseEntity class and implements Serializable for data persistence.
+ * The request always knows the IDs of its adoptant and animal. The objects themselves are either
+ * held directly, or resolved by ID on first access when the request was loaded by reference
+ * (see {@link #setResolvers(IntFunction, IntFunction)}).
+ * The status is serialized as its label, as in the original class, so requests stored before statuses
+ * became an enum can still be read.
  */
 public class AdoptionRequest extends BaseEntity implements Serializable {
     private static final long serialVersionUID = 1L;
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("adoptantId", int.class),
+            new ObjectStreamField("animalId", int.class),
+            new ObjectStreamField("adoptant", Adoptant.class),
+            new ObjectStreamField("animal", Animal.class),
+            new ObjectStreamField("requestDate", Date.class),
+            new ObjectStreamField("status", String.class)
+    };
 
-    private int id;
-    private Adoptant adoptant;
-    private Animal animal;
+    private int adoptantId;
+    private int animalId;
+    private Adoptant adoptant; // null until resolved when the request was loaded by reference
+    private Animal animal; // null until resolved when the request was loaded by reference
     private Date requestDate;
-    private String status;
+    private AdoptionRequestStatus status;
+    private transient IntFunction<Adoptant> adoptantResolver;
+    private transient IntFunction<Animal> animalResolver;
 
     /**
      * Constructor for creating an adoption request.
@@ -25,8 +47,10 @@ public class AdoptionRequest extends BaseEntity implements Serializable {
      * @param requestDate the date when the request was made
      * @param status the current status of the request (e.g., Pending, Approved, Rejected)
      */
-    public AdoptionRequest(int id, Adoptant adoptant, Animal animal, Date requestDate, String status) {
+    public AdoptionRequest(int id, Adoptant adoptant, Animal animal, Date requestDate, AdoptionRequestStatus status) {
         super(id);  // Calling the constructor from BaseEntity
+        this.adoptantId = adoptant != null ? adoptant.getId() : 0;
+        this.animalId = animal != null ? animal.getId() : 0;
         this.adoptant = adoptant;
         this.animal = animal;
         this.requestDate = requestDate;
@@ -34,29 +58,111 @@ public class AdoptionRequest extends BaseEntity implements Serializable {
     }
 
     /**
-     * Returns the ID of the adoption request.
+     * Constructor for an adoption request that refers to its adoptant and animal by ID only.
+     * The objects can be resolved later through {@link #setResolvers(IntFunction, IntFunction)}.
      *
-     * @return the ID of the adoption request
+     * @param id the ID of the adoption request
+     * @param adoptantId the ID of the adoptant who made the request
+     * @param animalId the ID of the animal that the adoptant wants to adopt
+     * @param requestDate the date when the request was made
+     * @param status the current status of the request (e.g., Pending, Approved, Rejected)
+     */
+    public AdoptionRequest(int id, int adoptantId, int animalId, Date requestDate, AdoptionRequestStatus status) {
+        super(id);
+        this.adoptantId = adoptantId;
+        this.animalId = animalId;
+        this.requestDate = requestDate;
+        this.status = status;
+    }
+
+    /**
+     * Sets the functions used to look up the adoptant and the animal by ID the first time they are needed.
+     *
+     * @param adoptantResolver returns the adoptant with a given ID, or null if it does not exist
+     * @param animalResolver returns the animal with a given ID, or null if it does not exist
+     */
+    public void setResolvers(IntFunction<Adoptant> adoptantResolver, IntFunction<Animal> animalResolver) {
+        this.adoptantResolver = adoptantResolver;
+        this.animalResolver = animalResolver;
+    }
+
+    /**
+     * Returns a copy of this request with another status, referring to the same adoptant and animal.
+     *
+     * @param status the status of the copy
+     * @return the copy of the request
+     */
+    public AdoptionRequest withStatus(AdoptionRequestStatus status) {
+        AdoptionRequest copy = new AdoptionRequest(getId(), adoptantId, animalId, requestDate, status);
+        copy.adoptant = adoptant;
+        copy.animal = animal;
+        copy.setResolvers(adoptantResolver, animalResolver);
+        return copy;
+    }
+
+    /**
+     * Returns the ID of the adoptant who made the adoption request, without resolving the adoptant.
+     *
+     * @return the ID of the adoptant
      */
-    public int getId() {
-        return id;
+    public int getAdoptantId() {
+        return adoptant != null ? adoptant.getId() : adoptantId; // Requests stored before the ID field existed only hold the object
     }
 
     /**
-     * Returns the adoptant who made the adoption request.
+     * Returns the ID of the animal requested for adoption, without resolving the animal.
      *
-     * @return the adoptant
+     * @return the ID of the animal
+     */
+    public int getAnimalId() {
+        return animal != null ? animal.getId() : animalId;
+    }
+
+    /**
+     * Returns the adoptant who made the adoption request, resolving it by ID on first access if needed.
+     *
+     * @return the adoptant, or null if it cannot be resolved
      */
     public Adoptant getAdoptant() {
+        if (adoptant == null && adoptantResolver != null) {
+            adoptant = adoptantResolver.apply(adoptantId);
+        }
         return adoptant;
     }
 
     /**
-     * Returns the animal requested for adoption.
+     * Replaces the adoptant object of the request, for example with a shared instance of the same adoptant.
+     *
+     * @param adoptant the adoptant; its ID becomes the adoptant ID of the request
+     */
+    public void setAdoptant(Adoptant adoptant) {
+        this.adoptant = adoptant;
+        if (adoptant != null) {
+            this.adoptantId = adoptant.getId();
+        }
+    }
+
+    /**
+     * Replaces the animal object of the request, for example with a shared instance of the same animal.
      *
-     * @return the animal
+     * @param animal the animal; its ID becomes the animal ID of the request
+     */
+    public void setAnimal(Animal animal) {
+        this.animal = animal;
+        if (animal != null) {
+            this.animalId = animal.getId();
+        }
+    }
+
+    /**
+     * Returns the animal requested for adoption, resolving it by ID on first access if needed.
+     *
+     * @return the animal, or null if it cannot be resolved
      */
     public Animal getAnimal() {
+        if (animal == null && animalResolver != null) {
+            animal = animalResolver.apply(animalId);
+        }
         return animal;
     }
 
@@ -74,7 +180,7 @@ public class AdoptionRequest extends BaseEntity implements Serializable {
      *
      * @return the status of the request (e.g., Pending, Approved, Rejected)
      */
-    public String getStatus() {
+    public AdoptionRequestStatus getStatus() {
         return status;
     }
 
@@ -86,7 +192,54 @@ public class AdoptionRequest extends BaseEntity implements Serializable {
      */
     @Override
     public String toString() {
-        return "Request ID: " + id + ", Adoptant: " + adoptant.getName() + ", Animal: " + animal.getName() +
+        Adoptant requestAdoptant = getAdoptant();
+        Animal requestAnimal = getAnimal();
+        return "Request ID: " + getId() +
+                ", Adoptant: " + (requestAdoptant != null ? requestAdoptant.getName() : "#" + getAdoptantId()) +
+                ", Animal: " + (requestAnimal != null ? requestAnimal.getName() : "#" + getAnimalId()) +
                 ", Date: " + requestDate + ", Status: " + status;
     }
+
+    /**
+     * Writes the adoption request with its status as a label, as in the original serialized form.
+     *
+     * @param out the stream to write to
+     * @throws IOException if the adoption request cannot be written
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("adoptantId", adoptantId);
+        fields.put("animalId", animalId);
+        fields.put("adoptant", adoptant);
+        fields.put("animal", animal);
+        fields.put("requestDate", requestDate);
+        fields.put("status", status != null ? status.getLabel() : null);
+        out.writeFields();
+    }
+
+    /**
+     * Reads an adoption request, parsing a stored status label (e.g., "Pending") into an
+     * {@link AdoptionRequestStatus}. Requests written while the status was serialized as the enum itself
+     * are read as well.
+     *
+     * @param in the stream to read from
+     * @throws IOException            if the adoption request cannot be read or its status is unknown
+     * @throws ClassNotFoundException if a class of the serialized adoption request cannot be found
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        adoptantId = fields.get("adoptantId", 0);
+        animalId = fields.get("animalId", 0);
+        adoptant = (Adoptant) fields.get("adoptant", null);
+        animal = (Animal) fields.get("animal", null);
+        requestDate = (Date) fields.get("requestDate", null);
+        Object stored = fields.get("status", null);
+        try {
+            status = stored == null || stored instanceof AdoptionRequestStatus
+                    ? (AdoptionRequestStatus) stored
+                    : AdoptionRequestStatus.parse((String) stored);
+        } catch (IllegalArgumentException | ClassCastException e) {
+            throw new InvalidObjectException("Unknown adoption request status: " + stored);
+        }
+    }
 }
@@ -0,0 +1,58 @@
+package models;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * The processing status of an adoption request.
+ * Statuses are shown and entered by their label (e.g., Pending); parsing ignores case.
+ */
+public enum AdoptionRequestStatus {
+    PENDING("Pending"),
+    APPROVED("Approved"),
+    REJECTED("Rejected");
+
+    private final String label;
+
+    AdoptionRequestStatus(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Returns the label of the status, as shown to users.
+     *
+     * @return the label of the status
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Parses a status label, ignoring case and surrounding whitespace.
+     *
+     * @param text the label to parse (e.g., "pending", "Approved")
+     * @return the matching status
+     * @throws IllegalArgumentException if the text is not a known status
+     */
+    public static AdoptionRequestStatus parse(String text) {
+        if (text != null) {
+            for (AdoptionRequestStatus status : values()) {
+                if (status.label.equalsIgnoreCase(text.trim())) {
+                    return status;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown adoption request status: " + text + " (expected one of "
+                + Arrays.stream(values()).map(AdoptionRequestStatus::getLabel).collect(Collectors.joining(", ")) + ")");
+    }
+
+    /**
+     * Returns the label of the status.
+     *
+     * @return the label of the status
+     */
+    @Override
+    public String toString() {
+        return label;
+    }
+}
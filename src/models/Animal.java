@@ -1,5 +1,10 @@
 package models;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 
 /**
@@ -7,14 +12,27 @@ import java.io.Serializable;
  * This class contains information about the animal's name, type, age, health record,
  * care plan, status, and assigned volunteer.
  * It extends {@link BaseEntity} and implements {@link Serializable} for persistence.
+ * The serialized form is the one of the original class, which stored the status as its label,
+ * so animals stored before statuses became an enum can still be read.
  */
 public class Animal extends BaseEntity implements Serializable {
+    private static final long serialVersionUID = -7472378454069050351L; // The value computed before the status became an enum
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("name", String.class),
+            new ObjectStreamField("animalType", AnimalType.class),
+            new ObjectStreamField("age", int.class),
+            new ObjectStreamField("healthRecord", HealthRecord.class),
+            new ObjectStreamField("carePlan", CarePlan.class),
+            new ObjectStreamField("status", String.class),
+            new ObjectStreamField("assignedVolunteer", Volunteer.class)
+    };
+
     private String name;
     private AnimalType animalType;
     private int age;
     private HealthRecord healthRecord;
     private CarePlan carePlan;
-    private String status;
+    private AnimalStatus status;
     private Volunteer assignedVolunteer;
 
     /**
@@ -26,7 +44,7 @@ public class Animal extends BaseEntity implements Serializable {
      * @param age        The age of the animal.
      * @param status     The current status of the animal (e.g., available, adopted).
      */
-    public Animal(int id, String name, AnimalType animalType, int age, String status) {
+    public Animal(int id, String name, AnimalType animalType, int age, AnimalStatus status) {
         super(id);  // Using ID from BaseEntity
         this.name = name;
         this.animalType = animalType;
@@ -130,7 +148,7 @@ public class Animal extends BaseEntity implements Serializable {
      *
      * @return The status of the animal.
      */
-    public String getStatus() {
+    public AnimalStatus getStatus() {
         return status;
     }
 
@@ -139,10 +157,24 @@ public class Animal extends BaseEntity implements Serializable {
      *
      * @param status The status of the animal (e.g., available, adopted).
      */
-    public void setStatus(String status) {
+    public void setStatus(AnimalStatus status) {
         this.status = status;
     }
 
+    /**
+     * Returns a copy of this animal with another status, sharing its type, records, care plan and volunteer.
+     *
+     * @param status The status of the copy.
+     * @return The copy of the animal.
+     */
+    public Animal withStatus(AnimalStatus status) {
+        Animal copy = new Animal(getId(), name, animalType, age, status);
+        copy.healthRecord = healthRecord;
+        copy.carePlan = carePlan;
+        copy.assignedVolunteer = assignedVolunteer;
+        return copy;
+    }
+
     /**
      * Provides a string representation of the animal, including its ID, name, type, age, and status.
      *
@@ -170,4 +202,46 @@ public class Animal extends BaseEntity implements Serializable {
     public void setAssignedVolunteer(Volunteer assignedVolunteer) {
         this.assignedVolunteer = assignedVolunteer;
     }
+
+    /**
+     * Writes the animal in the original serialized form, with the status as its label.
+     *
+     * @param out the stream to write to
+     * @throws IOException if the animal cannot be written
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("name", name);
+        fields.put("animalType", animalType);
+        fields.put("age", age);
+        fields.put("healthRecord", healthRecord);
+        fields.put("carePlan", carePlan);
+        fields.put("status", status != null ? status.getLabel() : null);
+        fields.put("assignedVolunteer", assignedVolunteer);
+        out.writeFields();
+    }
+
+    /**
+     * Reads an animal in the original serialized form, parsing the stored status label
+     * (e.g., "adopted") into an {@link AnimalStatus}.
+     *
+     * @param in the stream to read from
+     * @throws IOException            if the animal cannot be read or its status is unknown
+     * @throws ClassNotFoundException if a class of the serialized animal cannot be found
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        name = (String) fields.get("name", null);
+        animalType = (AnimalType) fields.get("animalType", null);
+        age = fields.get("age", 0);
+        healthRecord = (HealthRecord) fields.get("healthRecord", null);
+        carePlan = (CarePlan) fields.get("carePlan", null);
+        assignedVolunteer = (Volunteer) fields.get("assignedVolunteer", null);
+        String label = (String) fields.get("status", null);
+        try {
+            status = label != null ? AnimalStatus.parse(label) : null;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidObjectException(e.getMessage());
+        }
+    }
 }
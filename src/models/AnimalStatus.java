@@ -0,0 +1,58 @@
+package models;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * The availability status of an animal.
+ * Statuses are shown and entered by their label (e.g., Available); parsing ignores case.
+ */
+public enum AnimalStatus {
+    AVAILABLE("Available"),
+    PENDING("Pending"),
+    ADOPTED("Adopted");
+
+    private final String label;
+
+    AnimalStatus(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Returns the label of the status, as shown to users.
+     *
+     * @return the label of the status
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Parses a status label, ignoring case and surrounding whitespace.
+     *
+     * @param text the label to parse (e.g., "available", "Adopted")
+     * @return the matching status
+     * @throws IllegalArgumentException if the text is not a known status
+     */
+    public static AnimalStatus parse(String text) {
+        if (text != null) {
+            for (AnimalStatus status : values()) {
+                if (status.label.equalsIgnoreCase(text.trim())) {
+                    return status;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown animal status: " + text + " (expected one of "
+                + Arrays.stream(values()).map(AnimalStatus::getLabel).collect(Collectors.joining(", ")) + ")");
+    }
+
+    /**
+     * Returns the label of the status.
+     *
+     * @return the label of the status
+     */
+    @Override
+    public String toString() {
+        return label;
+    }
+}
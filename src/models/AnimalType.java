@@ -1,13 +1,25 @@
 package models;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 
 /**
  * Represents an animal type (e.g., Dog, Cat) with its associated characteristics.
- * This class implements Serializable for data persistence.
+ * It extends the BaseEntity class so that types can be stored once and shared by ID,
+ * and implements Serializable for data persistence. The serialized form is the one of the original
+ * class, which held the ID itself, so animals stored before types became entities can still be read.
  */
-public class AnimalType implements Serializable {
-    private int id;
+public class AnimalType extends BaseEntity implements Serializable {
+    private static final long serialVersionUID = 7221429381002119080L;
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("id", int.class),
+            new ObjectStreamField("typeName", String.class),
+            new ObjectStreamField("specialCharacteristics", String.class)
+    };
+
     private String typeName;
     private String specialCharacteristics;
 
@@ -19,20 +31,11 @@ public class AnimalType implements Serializable {
      * @param specialCharacteristics special features or traits associated with this animal type
      */
     public AnimalType(int id, String typeName, String specialCharacteristics) {
-        this.id = id;
+        super(id);
         this.typeName = typeName;
         this.specialCharacteristics = specialCharacteristics;
     }
 
-    /**
-     * Returns the ID of the animal type.
-     *
-     * @return the ID of the animal type
-     */
-    public int getId() {
-        return id;
-    }
-
     /**
      * Returns the name of the animal type (e.g., Dog, Cat).
      *
@@ -60,4 +63,33 @@ public class AnimalType implements Serializable {
     public String toString() {
         return "Type: " + typeName + ", Characteristics: " + specialCharacteristics;
     }
+
+    /**
+     * Writes the animal type in the original serialized form, with the ID among the type's own fields.
+     *
+     * @param out the stream to write to
+     * @throws IOException if the animal type cannot be written
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("id", getId());
+        fields.put("typeName", typeName);
+        fields.put("specialCharacteristics", specialCharacteristics);
+        out.writeFields();
+    }
+
+    /**
+     * Reads an animal type in the original serialized form. Types stored before they became entities
+     * have no {@link BaseEntity} data, so the ID is always taken from the type's own fields.
+     *
+     * @param in the stream to read from
+     * @throws IOException            if the animal type cannot be read
+     * @throws ClassNotFoundException if a class of the serialized animal type cannot be found
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        setId(fields.get("id", 0));
+        typeName = (String) fields.get("typeName", null);
+        specialCharacteristics = (String) fields.get("specialCharacteristics", null);
+    }
 }
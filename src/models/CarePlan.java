@@ -8,6 +8,8 @@ import java.io.Serializable;
  * This class implements Serializable to allow instances to be saved or transmitted.
  */
 public class CarePlan implements Serializable {
+    private static final long serialVersionUID = 936729100477668041L; // The value computed before getters were added
+
     private int id;
     private String feedingPlan;
     private String medicalCare;
@@ -25,6 +27,33 @@ public class CarePlan implements Serializable {
         this.medicalCare = medicalCare;
     }
 
+    /**
+     * Returns the ID of the care plan.
+     *
+     * @return the ID of the care plan
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the feeding plan for the animal.
+     *
+     * @return the feeding plan
+     */
+    public String getFeedingPlan() {
+        return feedingPlan;
+    }
+
+    /**
+     * Returns the medical care information for the animal.
+     *
+     * @return the medical care information
+     */
+    public String getMedicalCare() {
+        return medicalCare;
+    }
+
     /**
      * Returns a string representation of the care plan, including feeding plan and medical care.
      *
@@ -9,6 +9,8 @@ import java.util.List;
  * This class implements Serializable to allow instances to be saved or transmitted.
  */
 public class HealthRecord implements Serializable {
+    private static final long serialVersionUID = 9213043541490953461L; // The value computed before getters were added
+
     private int id;
     private List<String> diagnoses;
     private List<String> treatments;
@@ -29,6 +31,42 @@ public class HealthRecord implements Serializable {
         this.veterinarian = veterinarian;
     }
 
+    /**
+     * Returns the ID of the health record.
+     *
+     * @return the ID of the health record
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the diagnoses recorded for the animal.
+     *
+     * @return a list of diagnoses
+     */
+    public List<String> getDiagnoses() {
+        return diagnoses;
+    }
+
+    /**
+     * Returns the treatments prescribed for the animal.
+     *
+     * @return a list of treatments
+     */
+    public List<String> getTreatments() {
+        return treatments;
+    }
+
+    /**
+     * Returns the veterinarian responsible for the animal's care.
+     *
+     * @return the veterinarian
+     */
+    public Veterinarian getVeterinarian() {
+        return veterinarian;
+    }
+
     /**
      * Returns a string representation of the health record, including diagnoses, treatments, and the veterinarian.
      *
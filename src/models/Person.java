@@ -1,14 +1,26 @@
 package models;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 
 /**
  * This class represents a person, which is a base class for entities such as Adoptants and Volunteers.
  * It contains common attributes like ID, name, and contact details.
  * This class implements Serializable to allow instances to be saved or transmitted.
+ * The serialized form is the one of the original class, which kept its own copy of the ID,
+ * so files written before the ID moved to {@link BaseEntity} can still be read.
  */
 public abstract class Person extends BaseEntity implements Serializable {
-    private int id;
+    private static final long serialVersionUID = -2843492635907471342L;
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("id", int.class),
+            new ObjectStreamField("name", String.class),
+            new ObjectStreamField("contactDetails", String.class)
+    };
+
     private String name;
     private String contactDetails;
 
@@ -25,24 +37,6 @@ public abstract class Person extends BaseEntity implements Serializable {
         this.contactDetails = contactDetails;
     }
 
-    /**
-     * Returns the ID of the person.
-     *
-     * @return the ID of the person
-     */
-    public int getId() {
-        return id;
-    }
-
-    /**
-     * Sets the ID of the person.
-     *
-     * @param id the ID to set
-     */
-    public void setId(int id) {
-        this.id = id;
-    }
-
     /**
      * Returns the name of the person.
      *
@@ -86,6 +80,39 @@ public abstract class Person extends BaseEntity implements Serializable {
      */
     @Override
     public String toString() {
-        return "ID: " + id + ", Name: " + name + ", Contact: " + contactDetails;
+        return "ID: " + getId() + ", Name: " + name + ", Contact: " + contactDetails;
+    }
+
+    /**
+     * Writes the person in the original serialized form, with the ID repeated in the person's own fields.
+     *
+     * @param out the stream to write to
+     * @throws IOException if the person cannot be written
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("id", getId());
+        fields.put("name", name);
+        fields.put("contactDetails", contactDetails);
+        out.writeFields();
+    }
+
+    /**
+     * Reads a person in the original serialized form. The person's own copy of the ID is the one the
+     * original class reported (services assigned it with setId), so it wins over the ID read for
+     * {@link BaseEntity} unless it was never set.
+     *
+     * @param in the stream to read from
+     * @throws IOException            if the person cannot be read
+     * @throws ClassNotFoundException if a class of the serialized person cannot be found
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        name = (String) fields.get("name", null);
+        contactDetails = (String) fields.get("contactDetails", null);
+        int id = fields.get("id", 0);
+        if (id != 0) {
+            setId(id);
+        }
     }
 }
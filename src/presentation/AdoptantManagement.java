@@ -4,8 +4,8 @@ import controller.AdoptantController;
 import models.Adoptant;
 import models.Animal;
 import models.AdoptionRequest;
+import repository.Page;
 
-import java.util.List;
 import java.util.Scanner;
 
 /**
@@ -14,6 +14,7 @@ import java.util.Scanner;
  * delete adoptants, and manage adoption requests.
  */
 public class AdoptantManagement {
+    private static final int PAGE_SIZE = 20;
     private AdoptantController adoptantController;
     private Scanner scanner;
 
@@ -94,15 +95,21 @@ public class AdoptantManagement {
     }
 
     /**
-     * Displays all adoptants by fetching them from the AdoptantController.
+     * Displays all adoptants one page at a time, fetching each page from the AdoptantController.
      * If no adoptants are found, a message is shown to the user.
      */
     private void viewAllAdoptants() {
-        List<Adoptant> adoptants = adoptantController.getAllAdoptants();
-        if (adoptants.isEmpty()) {
+        Page<Adoptant> page = adoptantController.getAdoptantsPage(Page.START, PAGE_SIZE);
+        if (page.isEmpty()) {
             System.out.println("No adoptants found.");
-        } else {
-            adoptants.forEach(adoptant -> System.out.println(adoptant));
+            return;
+        }
+        while (true) {
+            page.getItems().forEach(adoptant -> System.out.println(adoptant));
+            if (!page.hasMore() || !ConsolePaging.askForNextPage(scanner)) {
+                return;
+            }
+            page = adoptantController.getAdoptantsPage(page.getNextAfterId(), PAGE_SIZE);
         }
     }
 
@@ -1,8 +1,9 @@
 package presentation;
 
 import controller.AdoptionRequestController;
-import models.Adoptant;
+import models.AdoptantRanking;
 import models.AdoptionRequest;
+import repository.Page;
 
 import java.util.List;
 import java.util.Scanner;
@@ -13,6 +14,7 @@ import java.util.Scanner;
  * as well as view adoptants with the most adoption requests.
  */
 public class AdoptionRequestManagement {
+    private static final int PAGE_SIZE = 20;
 
     private AdoptionRequestController adoptionRequestController;
     private Scanner scanner;
@@ -39,7 +41,9 @@ public class AdoptionRequestManagement {
             System.out.println("2. Approve Adoption Request");
             System.out.println("3. Reject Adoption Request");
             System.out.println("4. View Adoptants By Total Requests"); // New option for adoptants with the most requests
-            System.out.println("5. Exit");
+            System.out.println("5. View Next Pending Request");
+            System.out.println("6. View Pending Requests for an Animal");
+            System.out.println("7. Exit");
 
             System.out.print("Choose an option: ");
             int choice = scanner.nextInt();
@@ -59,6 +63,12 @@ public class AdoptionRequestManagement {
                     viewAdoptantsByTotalRequests();  // New option to see adoptants with the most requests
                     break;
                 case 5:
+                    viewNextPendingRequest();
+                    break;
+                case 6:
+                    viewPendingRequestsForAnimal();
+                    break;
+                case 7:
                     System.out.println("Exiting...");
                     return;
                 default:
@@ -68,59 +78,116 @@ public class AdoptionRequestManagement {
     }
 
     /**
-     * Displays all adoption requests by fetching them from the AdoptionRequestController.
+     * Displays all adoption requests one page at a time, fetching each page from the AdoptionRequestController.
      * If no adoption requests are found, a message is displayed to the user.
      */
     private void viewAllAdoptionRequests() {
-        List<AdoptionRequest> requests = adoptionRequestController.getAllAdoptionRequests();
-        if (requests.isEmpty()) {
+        Page<AdoptionRequest> page = adoptionRequestController.getAdoptionRequestsPage(Page.START, PAGE_SIZE);
+        if (page.isEmpty()) {
             System.out.println("No adoption requests found.");
-        } else {
-            System.out.println("\n--- All Adoption Requests ---");
-            for (AdoptionRequest request : requests) {
+            return;
+        }
+        System.out.println("\n--- All Adoption Requests ---");
+        while (true) {
+            for (AdoptionRequest request : page.getItems()) {
                 System.out.println(request);
             }
+            if (!page.hasMore() || !ConsolePaging.askForNextPage(scanner)) {
+                return;
+            }
+            page = adoptionRequestController.getAdoptionRequestsPage(page.getNextAfterId(), PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Displays the oldest pending adoption request, which is the one to review next,
+     * together with the number of requests waiting for review.
+     */
+    private void viewNextPendingRequest() {
+        AdoptionRequest request = adoptionRequestController.getNextPendingRequest();
+        if (request == null) {
+            System.out.println("No pending adoption requests.");
+        } else {
+            System.out.println("Next request to review (" + adoptionRequestController.getPendingQueueDepth() + " pending): " + request);
         }
     }
 
     /**
-     * Approves an adoption request based on the request ID provided by the user.
-     * The adoption request is processed by the AdoptionRequestController.
+     * Displays the pending adoption requests for the animal whose ID is provided by the user, oldest first.
+     */
+    private void viewPendingRequestsForAnimal() {
+        System.out.print("Enter animal ID: ");
+        int animalId = scanner.nextInt();
+        scanner.nextLine();  // Consume newline
+
+        List<AdoptionRequest> requests = adoptionRequestController.getPendingRequestsForAnimal(animalId);
+        if (requests.isEmpty()) {
+            System.out.println("No pending adoption requests for this animal.");
+        } else {
+            requests.forEach(request -> System.out.println(request));
+        }
+    }
+
+    /**
+     * Approves the adoption requests whose IDs are provided by the user, one or several at once.
+     * The requests are processed together by the AdoptionRequestController and the outcome for each ID is displayed.
      */
     private void approveAdoptionRequest() {
-        System.out.print("Enter adoption request ID to approve: ");
-        int requestId = scanner.nextInt();
-        adoptionRequestController.approveAdoptionRequest(requestId); // No need to check return type, as it is void
-        System.out.println("Adoption request approved successfully.");
+        System.out.print("Enter adoption request ID(s) to approve, separated by spaces: ");
+        int[] requestIds = readRequestIds();
+        if (requestIds != null) {
+            System.out.print(adoptionRequestController.approveAll(requestIds));
+        }
     }
 
     /**
-     * Rejects an adoption request based on the request ID provided by the user.
-     * The adoption request is processed by the AdoptionRequestController.
+     * Rejects the adoption requests whose IDs are provided by the user, one or several at once.
+     * The requests are processed together by the AdoptionRequestController and the outcome for each ID is displayed.
      */
     private void rejectAdoptionRequest() {
-        System.out.print("Enter adoption request ID to reject: ");
-        int requestId = scanner.nextInt();
-        adoptionRequestController.rejectAdoptionRequest(requestId); // No need to check return type, as it is void
-        System.out.println("Adoption request rejected successfully.");
+        System.out.print("Enter adoption request ID(s) to reject, separated by spaces: ");
+        int[] requestIds = readRequestIds();
+        if (requestIds != null) {
+            System.out.print(adoptionRequestController.rejectAll(requestIds));
+        }
+    }
+
+    /**
+     * Reads a line of request IDs separated by spaces or commas.
+     *
+     * @return the IDs, or null if the line is empty or contains something that is not a number
+     */
+    private int[] readRequestIds() {
+        String line = scanner.nextLine().trim();
+        if (line.isEmpty()) {
+            System.out.println("No request IDs entered.");
+            return null;
+        }
+        String[] tokens = line.split("[\\s,]+");
+        int[] requestIds = new int[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            try {
+                requestIds[i] = Integer.parseInt(tokens[i]);
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid request ID: " + tokens[i]);
+                return null;
+            }
+        }
+        return requestIds;
     }
 
     /**
      * Displays adoptants who have the most adoption requests.
-     * The total number of requests for each adoptant is calculated and displayed.
+     * The total number of requests for each adoptant comes with the ranking, so nothing is recounted.
      */
     private void viewAdoptantsByTotalRequests() {
-        List<Adoptant> adoptants = adoptionRequestController.getAdoptantsByTotalRequests();
-        if (adoptants.isEmpty()) {
+        List<AdoptantRanking> rankings = adoptionRequestController.getAdoptantsByTotalRequests();
+        if (rankings.isEmpty()) {
             System.out.println("No adoptants found.");
         } else {
             System.out.println("\n--- Adoptants by Total Adoption Requests ---");
-            for (Adoptant adoptant : adoptants) {
-                // Calculate the number of adoption requests for each adoptant
-                long requestCount = adoptionRequestController.getAllAdoptionRequests().stream()
-                        .filter(request -> request.getAdoptant().equals(adoptant))
-                        .count();
-                System.out.println(adoptant.getName() + " has " + requestCount + " adoption requests.");
+            for (AdoptantRanking ranking : rankings) {
+                System.out.println(ranking.getAdoptant().getName() + " has " + ranking.getRequestCount() + " adoption requests.");
             }
         }
     }
@@ -2,7 +2,9 @@ package presentation;
 
 import controller.AnimalController;
 import models.Animal;
+import models.AnimalStatus;
 import models.AnimalType;
+import repository.Page;
 
 import java.util.List;
 import java.util.Scanner;
@@ -12,6 +14,7 @@ import java.util.Scanner;
  * It provides a menu-driven interface to add, view, update, delete, and sort animals.
  */
 public class AnimalManagement {
+    private static final int PAGE_SIZE = 20;
 
     private AnimalController animalController;
     private Scanner scanner;
@@ -100,11 +103,17 @@ public class AnimalManagement {
         System.out.print("Enter animal special characteristics (e.g., Friendly, Shy): ");
         String specialCharacteristics = scanner.nextLine();
 
-        System.out.print("Enter animal status (e.g., Available, Adopted): ");
-        String status = scanner.nextLine();
+        System.out.print("Enter animal status (Available, Pending, Adopted): ");
+        AnimalStatus status;
+        try {
+            status = AnimalStatus.parse(scanner.nextLine());
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
 
-        // Create an Animal object with a customized ID
-        AnimalType animalType = new AnimalType(0, typeName, specialCharacteristics);  // Assuming ID 0 for AnimalType
+        // Create an Animal object with a customized ID, sharing the type with other animals of the same type
+        AnimalType animalType = animalController.getAnimalType(typeName, specialCharacteristics);
         Animal animal = new Animal(id, name, animalType, age, status);
 
         // Add the animal to the repository
@@ -113,15 +122,21 @@ public class AnimalManagement {
     }
 
     /**
-     * Displays all animals by fetching them from the AnimalController.
+     * Displays all animals one page at a time, fetching each page from the AnimalController.
      * If no animals are available, a message is displayed to the user.
      */
     private void viewAllAnimals() {
-        List<Animal> animals = animalController.getAllAnimals();
-        if (animals.isEmpty()) {
+        Page<Animal> page = animalController.getAnimalsPage(Page.START, PAGE_SIZE);
+        if (page.isEmpty()) {
             System.out.println("No animals available.");
-        } else {
-            animals.forEach(animal -> System.out.println(animal));
+            return;
+        }
+        while (true) {
+            page.getItems().forEach(animal -> System.out.println(animal));
+            if (!page.hasMore() || !ConsolePaging.askForNextPage(scanner)) {
+                return;
+            }
+            page = animalController.getAnimalsPage(page.getNextAfterId(), PAGE_SIZE);
         }
     }
 
@@ -169,14 +184,21 @@ public class AnimalManagement {
             if (!typeName.isEmpty()) {
                 System.out.print("Enter new animal special characteristics (leave empty to keep current): ");
                 String specialCharacteristics = scanner.nextLine();
-                AnimalType updatedType = new AnimalType(0, typeName, specialCharacteristics); // Assuming ID is autogenerated
-                animal.setAnimalType(updatedType);
+                if (specialCharacteristics.isEmpty() && animal.getAnimalType() != null) {
+                    specialCharacteristics = animal.getAnimalType().getSpecialCharacteristics();
+                }
+                animal.setAnimalType(animalController.getAnimalType(typeName, specialCharacteristics));
             }
 
             System.out.print("Enter new status (leave empty to keep current): ");
             String status = scanner.nextLine();
             if (!status.isEmpty()) {
-                animal.setStatus(status);
+                try {
+                    animal.setStatus(AnimalStatus.parse(status));
+                } catch (IllegalArgumentException e) {
+                    System.out.println(e.getMessage());
+                    return;
+                }
             }
 
             animalController.updateAnimal(animal);
@@ -220,8 +242,14 @@ public class AnimalManagement {
      * If no animals match the status, a message is displayed.
      */
     private void filterAnimalsByStatus() {
-        System.out.print("Enter status to filter by (e.g., Available, Adopted): ");
-        String status = scanner.nextLine();
+        System.out.print("Enter status to filter by (Available, Pending, Adopted): ");
+        AnimalStatus status;
+        try {
+            status = AnimalStatus.parse(scanner.nextLine());
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
 
         List<Animal> filteredAnimals = animalController.filterAnimalsByStatus(status);
         if (filteredAnimals.isEmpty()) {
@@ -0,0 +1,23 @@
+package presentation;
+
+import java.util.Scanner;
+
+/**
+ * Helper for the listing screens that print results one page at a time.
+ */
+final class ConsolePaging {
+
+    private ConsolePaging() {
+    }
+
+    /**
+     * Asks the user whether to show the next page.
+     *
+     * @param scanner the scanner used to read user input
+     * @return true if the user wants the next page, false if they chose to stop
+     */
+    static boolean askForNextPage(Scanner scanner) {
+        System.out.print("Press Enter for the next page, or type q to stop: ");
+        return !scanner.nextLine().trim().equalsIgnoreCase("q");
+    }
+}
@@ -0,0 +1,245 @@
+package repository;
+
+import models.Adoptant;
+import models.AdoptantRanking;
+import models.AdoptionRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A live ranking of adoptants by the number of adoption requests they have made.
+ * Adoptants are kept in one array ordered by request count, highest first, where all adoptants with the same
+ * count form a contiguous block whose first and last positions are remembered. A new request moves its adoptant
+ * to the front of its block, which then becomes part of the next higher block; a deleted request moves it to the
+ * back of its block. Each request event therefore costs O(1), and the top K adoptants are simply the first K
+ * positions of the array. Adoptants with the same count are ranked in no particular order.
+ */
+public class AdoptantLeaderboard extends RepositoryIndex<AdoptionRequest> {
+    /**
+     * The name the leaderboard is registered under.
+     */
+    public static final String NAME = "adoptionRequest.leaderboard";
+
+    private int[] adoptantIds = new int[16]; // Ordered by descending count
+    private int[] counts = new int[16]; // Count of the adoptant at the same position
+    private int size = 0;
+    private final IntHashIndex positions = new IntHashIndex(); // Adoptant ID to its position in the array
+    private final IntHashIndex blockFirst = new IntHashIndex(); // Count to the first position of its block
+    private final IntHashIndex blockLast = new IntHashIndex(); // Count to the last position of its block
+    private final IntHashIndex adoptantByRequest = new IntHashIndex(); // Request ID to the adoptant it is counted for
+
+    /**
+     * Creates an empty leaderboard, filled when it is registered with a request repository.
+     */
+    public AdoptantLeaderboard() {
+        super(NAME);
+    }
+
+    /**
+     * Builds a one-off leaderboard from a stream of requests, for repositories that do not keep indexes.
+     *
+     * @param requests the requests to count
+     * @return the filled leaderboard
+     */
+    public static AdoptantLeaderboard of(Stream<AdoptionRequest> requests) {
+        AdoptantLeaderboard leaderboard = new AdoptantLeaderboard();
+        requests.forEach(leaderboard::onPut);
+        return leaderboard;
+    }
+
+    /**
+     * Returns the adoptants with the most requests together with their counts, highest count first.
+     * Only the adoptants on the returned positions are read; adoptants that no longer exist are skipped.
+     *
+     * @param limit     the maximum number of adoptants to return
+     * @param adoptants the repository holding the adoptants
+     * @return up to {@code limit} rankings
+     */
+    public List<AdoptantRanking> rank(int limit, IRepository<Adoptant> adoptants) {
+        List<Entry> entries = top(limit);
+        Map<Integer, Adoptant> adoptantsById = new HashMap<>();
+        for (Adoptant adoptant : adoptants.getByIds(entries.stream().map(Entry::getAdoptantId).collect(Collectors.toList()))) {
+            adoptantsById.put(adoptant.getId(), adoptant);
+        }
+        List<AdoptantRanking> rankings = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            Adoptant adoptant = adoptantsById.get(entry.getAdoptantId());
+            if (adoptant != null) {
+                rankings.add(new AdoptantRanking(adoptant, entry.getCount()));
+            }
+        }
+        return rankings;
+    }
+
+    /**
+     * Returns the adoptants with the most requests, highest count first.
+     *
+     * @param limit the maximum number of adoptants to return
+     * @return up to {@code limit} entries; adoptants without requests are never included
+     */
+    public synchronized List<Entry> top(int limit) {
+        List<Entry> entries = new ArrayList<>(Math.min(limit, size));
+        for (int position = 0; position < size && entries.size() < limit && counts[position] > 0; position++) {
+            entries.add(new Entry(adoptantIds[position], counts[position]));
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the number of requests made by an adoptant.
+     *
+     * @param adoptantId the ID of the adoptant
+     * @return the number of requests, 0 if the adoptant has made none
+     */
+    public synchronized int count(int adoptantId) {
+        int position = positions.get(adoptantId);
+        return position < 0 ? 0 : counts[position];
+    }
+
+    @Override
+    protected synchronized void onPut(AdoptionRequest request) {
+        int adoptantId = request.getAdoptantId();
+        int previousAdoptant = adoptantByRequest.get(request.getId());
+        if (previousAdoptant == adoptantId) {
+            return; // Counted already, for example after a status change
+        }
+        if (previousAdoptant >= 0) {
+            decrement(previousAdoptant);
+            adoptantByRequest.remove(request.getId());
+        }
+        if (adoptantId >= 0) {
+            increment(adoptantId);
+            adoptantByRequest.put(request.getId(), adoptantId);
+        }
+    }
+
+    @Override
+    protected synchronized void onRemove(int id) {
+        int adoptantId = adoptantByRequest.remove(id);
+        if (adoptantId >= 0) {
+            decrement(adoptantId);
+        }
+    }
+
+    /**
+     * Moves an adoptant from its block to the next higher one, adding it with a count of zero first if it is new.
+     */
+    private void increment(int adoptantId) {
+        int position = positions.get(adoptantId);
+        if (position < 0) {
+            position = append(adoptantId);
+        }
+        int count = counts[position];
+        int target = blockFirst.get(count); // Swap with the first adoptant of the block, then shrink the block
+        swap(position, target);
+        shrinkFront(count, target);
+        counts[target] = count + 1;
+        if (blockLast.containsKey(count + 1)) {
+            blockLast.put(count + 1, target); // The higher block ends right before the target
+        } else {
+            blockFirst.put(count + 1, target);
+            blockLast.put(count + 1, target);
+        }
+    }
+
+    /**
+     * Moves an adoptant from its block to the next lower one. Adoptants stay in the array with a count of zero.
+     */
+    private void decrement(int adoptantId) {
+        int position = positions.get(adoptantId);
+        int count = counts[position];
+        int target = blockLast.get(count); // Swap with the last adoptant of the block, then shrink the block
+        swap(position, target);
+        shrinkBack(count, target);
+        counts[target] = count - 1;
+        if (blockFirst.containsKey(count - 1)) {
+            blockFirst.put(count - 1, target); // The lower block starts right after the target
+        } else {
+            blockFirst.put(count - 1, target);
+            blockLast.put(count - 1, target);
+        }
+    }
+
+    private int append(int adoptantId) {
+        if (size == adoptantIds.length) {
+            adoptantIds = Arrays.copyOf(adoptantIds, size * 2);
+            counts = Arrays.copyOf(counts, size * 2);
+        }
+        int position = size++;
+        adoptantIds[position] = adoptantId;
+        counts[position] = 0;
+        positions.put(adoptantId, position);
+        if (!blockFirst.containsKey(0)) {
+            blockFirst.put(0, position);
+        }
+        blockLast.put(0, position);
+        return position;
+    }
+
+    private void shrinkFront(int count, int first) {
+        if (blockLast.get(count) == first) {
+            blockFirst.remove(count);
+            blockLast.remove(count);
+        } else {
+            blockFirst.put(count, first + 1);
+        }
+    }
+
+    private void shrinkBack(int count, int last) {
+        if (blockFirst.get(count) == last) {
+            blockFirst.remove(count);
+            blockLast.remove(count);
+        } else {
+            blockLast.put(count, last - 1);
+        }
+    }
+
+    private void swap(int position, int other) {
+        if (position == other) {
+            return;
+        }
+        int adoptantId = adoptantIds[position];
+        adoptantIds[position] = adoptantIds[other];
+        adoptantIds[other] = adoptantId;
+        positions.put(adoptantIds[position], position);
+        positions.put(adoptantId, other);
+        // Both positions are in the same block, so their counts are equal and need not be swapped
+    }
+
+    /**
+     * An adoptant's place on the leaderboard.
+     */
+    public static final class Entry {
+        private final int adoptantId;
+        private final int count;
+
+        private Entry(int adoptantId, int count) {
+            this.adoptantId = adoptantId;
+            this.count = count;
+        }
+
+        /**
+         * Returns the ID of the adoptant.
+         *
+         * @return the adoptant ID
+         */
+        public int getAdoptantId() {
+            return adoptantId;
+        }
+
+        /**
+         * Returns the number of requests the adoptant has made.
+         *
+         * @return the request count
+         */
+        public int getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package repository;
+
+import models.AdoptionRequest;
+import models.AdoptionRequestStatus;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the adoption requests of every adoptant, in total and broken down by status.
+ * The counters are adjusted on every add, status change and delete of a request, so asking
+ * how many requests an adoptant has made is O(1) and never reads a single request.
+ * Requests with a negative adoptant ID are not counted.
+ */
+public class AdoptionRequestCounters extends RepositoryIndex<AdoptionRequest> {
+    /**
+     * The name the counters are registered under.
+     */
+    public static final String NAME = "adoptionRequest.counters";
+
+    private static final AdoptionRequestStatus[] STATUSES = AdoptionRequestStatus.values();
+    private static final int NO_STATUS = STATUSES.length; // Slot for requests without a status
+    private static final int TOTAL = STATUSES.length + 1; // Slot for the total of an adoptant
+
+    private final Map<Integer, int[]> countsByAdoptant = new HashMap<>();
+    private final IntHashIndex adoptantByRequest = new IntHashIndex(); // Request ID to the adoptant it is counted for
+    private final IntHashIndex statusByRequest = new IntHashIndex(); // Request ID to the slot it is counted in
+
+    /**
+     * Creates empty counters, filled when they are registered with a request repository.
+     */
+    public AdoptionRequestCounters() {
+        super(NAME);
+    }
+
+    /**
+     * Returns the total number of requests made by an adoptant.
+     *
+     * @param adoptantId the ID of the adoptant
+     * @return the number of requests, 0 if the adoptant has made none
+     */
+    public synchronized int count(int adoptantId) {
+        int[] counts = countsByAdoptant.get(adoptantId);
+        return counts == null ? 0 : counts[TOTAL];
+    }
+
+    /**
+     * Returns the number of requests with the given status made by an adoptant.
+     *
+     * @param adoptantId the ID of the adoptant
+     * @param status     the status to count
+     * @return the number of matching requests
+     */
+    public synchronized int count(int adoptantId, AdoptionRequestStatus status) {
+        int[] counts = countsByAdoptant.get(adoptantId);
+        return counts == null ? 0 : counts[status.ordinal()];
+    }
+
+    /**
+     * Returns the IDs of the adoptants who have made at least one request.
+     *
+     * @return the adoptant IDs, in no particular order
+     */
+    public synchronized List<Integer> adoptantIds() {
+        return new ArrayList<>(countsByAdoptant.keySet());
+    }
+
+    @Override
+    protected synchronized void onPut(AdoptionRequest request) {
+        int adoptantId = request.getAdoptantId();
+        int slot = request.getStatus() != null ? request.getStatus().ordinal() : NO_STATUS;
+        int id = request.getId();
+        int previousAdoptant = adoptantByRequest.get(id);
+        if (previousAdoptant >= 0) {
+            if (previousAdoptant == adoptantId && statusByRequest.get(id) == slot) {
+                return; // Nothing that is counted has changed
+            }
+            uncount(id, previousAdoptant);
+        }
+        if (adoptantId < 0) {
+            return;
+        }
+        int[] counts = countsByAdoptant.computeIfAbsent(adoptantId, key -> new int[TOTAL + 1]);
+        counts[slot]++;
+        counts[TOTAL]++;
+        adoptantByRequest.put(id, adoptantId);
+        statusByRequest.put(id, slot);
+    }
+
+    @Override
+    protected synchronized void onRemove(int id) {
+        int adoptantId = adoptantByRequest.get(id);
+        if (adoptantId >= 0) {
+            uncount(id, adoptantId);
+        }
+    }
+
+    private void uncount(int id, int adoptantId) {
+        int[] counts = countsByAdoptant.get(adoptantId);
+        counts[statusByRequest.remove(id)]--;
+        if (--counts[TOTAL] == 0) {
+            countsByAdoptant.remove(adoptantId);
+        }
+        adoptantByRequest.remove(id);
+    }
+}
@@ -0,0 +1,341 @@
+package repository;
+
+import models.Animal;
+import models.AnimalStatus;
+import repository.codec.StatusDictionary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * A memory-mapped column store for the fields of {@link Animal} that reports read most:
+ * ID, age, status, animal type and assigned volunteer.
+ * Every animal occupies one fixed-width record in a file mapped with {@link FileChannel#map},
+ * so sorting by age or filtering by status runs directly over the mapped bytes without
+ * deserializing a single animal. The status is stored as its one-byte dictionary code, and the name,
+ * the only variable-length field, is appended to a side heap file and referenced by offset and length.
+ * <p>
+ * The store is a {@link RepositoryIndex}: once registered with an animal repository it is filled
+ * with every stored animal and then kept up to date on every change.
+ * <p>
+ * The files are a transient cache, not a second copy of the data: they are mapped so the records live in the page
+ * cache rather than on the heap, but they are truncated when the store is opened and rebuilt from the repository
+ * when it is registered. The repository remains the only durable store, so the columns never hold animals that were
+ * changed or deleted while the store was not registered, and nothing is lost if the files are removed.
+ */
+public class AnimalColumnStore extends RepositoryIndex<Animal> implements Closeable {
+    /**
+     * The name the store is registered under.
+     */
+    public static final String NAME = "animal.columns";
+
+    private static final int MAGIC = 0x414E4331; // "ANC1"
+    private static final int HEADER_SIZE = 8; // Magic number and number of records in use
+    private static final int RECORD_SIZE = 32;
+    private static final int NO_ID = -1; // Stored when an animal has no type or no assigned volunteer
+
+    // Field offsets within a record
+    private static final int ID = 0;
+    private static final int AGE = 4;
+    private static final int STATUS_CODE = 8;
+    private static final int LIVE = 9;
+    private static final int TYPE_ID = 12;
+    private static final int VOLUNTEER_ID = 16;
+    private static final int NAME_OFFSET = 20;
+    private static final int NAME_LENGTH = 28;
+
+    private final FileChannel columns;
+    private final FileChannel heap;
+    private MappedByteBuffer records;
+    private int capacity; // Number of records the current mapping can hold
+    private int recordCount = 0; // Number of record slots in use, live or deleted
+    private long heapEnd = 0;
+    private final IntHashIndex slots = new IntHashIndex(); // Animal ID to record slot
+    private final Deque<Integer> freeSlots = new ArrayDeque<>(); // Slots of deleted animals, reused first
+
+    /**
+     * Creates an empty store in the given file, with the heap in {@code fileName.heap}.
+     * Whatever the files held before is discarded.
+     *
+     * @param fileName        the file holding the fixed-width records
+     * @param initialCapacity the number of records to map at first; the mapping grows as needed
+     * @throws UncheckedIOException if the files cannot be created or mapped
+     */
+    public AnimalColumnStore(String fileName, int initialCapacity) {
+        super(NAME);
+        try {
+            columns = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            heap = FileChannel.open(Paths.get(fileName + ".heap"), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            map(Math.max(16, initialCapacity));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open column store " + fileName, e);
+        }
+        records.putInt(0, MAGIC);
+        records.putInt(4, 0);
+    }
+
+    /**
+     * Stores the hot fields of an added or updated animal, reusing its record if it already has one.
+     *
+     * @param animal the new state of the animal
+     */
+    @Override
+    protected synchronized void onPut(Animal animal) {
+        int slot = slots.get(animal.getId());
+        if (slot < 0) {
+            slot = allocateSlot();
+            slots.put(animal.getId(), slot);
+            clearHeapReferences(slot);
+        }
+        int base = offsetOf(slot);
+        records.putInt(base + ID, animal.getId());
+        records.putInt(base + AGE, animal.getAge());
+        records.putInt(base + TYPE_ID, animal.getAnimalType() != null ? animal.getAnimalType().getId() : NO_ID);
+        records.putInt(base + VOLUNTEER_ID, animal.getAssignedVolunteer() != null ? animal.getAssignedVolunteer().getId() : NO_ID);
+        records.put(base + STATUS_CODE, (byte) codeOf(animal.getStatus()));
+        writeHeapField(base + NAME_OFFSET, base + NAME_LENGTH, animal.getName());
+        records.put(base + LIVE, (byte) 1);
+    }
+
+    /**
+     * Marks the record of a deleted animal as free.
+     *
+     * @param id the ID of the deleted animal
+     */
+    @Override
+    protected synchronized void onRemove(int id) {
+        int slot = slots.get(id);
+        if (slot < 0) {
+            return;
+        }
+        records.put(offsetOf(slot) + LIVE, (byte) 0);
+        slots.remove(id);
+        freeSlots.push(slot);
+    }
+
+    /**
+     * Returns the number of animals in the store.
+     *
+     * @return the number of animals
+     */
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    /**
+     * Returns the IDs of all animals ordered by age, youngest first; animals of the same age are ordered by ID.
+     * The sort runs over packed primitive values read from the mapped records.
+     *
+     * @return the IDs of the animals in order of age
+     */
+    public synchronized int[] idsSortedByAge() {
+        long[] keys = new long[slots.size()];
+        int count = 0;
+        for (int slot = 0; slot < recordCount; slot++) {
+            int base = offsetOf(slot);
+            if (records.get(base + LIVE) != 0) {
+                // Age in the high half and ID in the low half, so one long comparison orders by age, then ID
+                keys[count++] = ((long) records.getInt(base + AGE) << 32) | (records.getInt(base + ID) & 0xFFFFFFFFL);
+            }
+        }
+        Arrays.sort(keys, 0, count);
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = (int) keys[i];
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the IDs of the animals with the given status, matched on its one-byte code.
+     *
+     * @param status the status to look for
+     * @return the IDs of the matching animals, in ascending order
+     */
+    public synchronized int[] idsWithStatus(AnimalStatus status) {
+        int wanted = codeOf(status);
+        int[] ids = new int[slots.size()];
+        int count = 0;
+        for (int slot = 0; slot < recordCount; slot++) {
+            if (hasStatus(offsetOf(slot), wanted)) {
+                ids[count++] = records.getInt(offsetOf(slot) + ID);
+            }
+        }
+        ids = Arrays.copyOf(ids, count);
+        Arrays.sort(ids); // Slots of deleted animals are reused, so storage order is not ID order
+        return ids;
+    }
+
+    /**
+     * Counts the animals with the given status.
+     *
+     * @param status the status to look for
+     * @return the number of matching animals
+     */
+    public synchronized int countWithStatus(AnimalStatus status) {
+        int wanted = codeOf(status);
+        int count = 0;
+        for (int slot = 0; slot < recordCount; slot++) {
+            if (hasStatus(offsetOf(slot), wanted)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the IDs of the animals of the given type.
+     *
+     * @param typeId the ID of the animal type
+     * @return the IDs of the matching animals, in storage order
+     */
+    public synchronized int[] idsOfType(int typeId) {
+        int[] ids = new int[slots.size()];
+        int count = 0;
+        for (int slot = 0; slot < recordCount; slot++) {
+            int base = offsetOf(slot);
+            if (records.get(base + LIVE) != 0 && records.getInt(base + TYPE_ID) == typeId) {
+                ids[count++] = records.getInt(base + ID);
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * Returns the age of an animal.
+     *
+     * @param id the ID of the animal
+     * @return the age, or -1 if the animal is not in the store
+     */
+    public synchronized int getAge(int id) {
+        int slot = slots.get(id);
+        return slot < 0 ? -1 : records.getInt(offsetOf(slot) + AGE);
+    }
+
+    /**
+     * Returns the name of an animal, read from the heap file.
+     *
+     * @param id the ID of the animal
+     * @return the name, or null if the animal has no name or is not in the store
+     */
+    public synchronized String getName(int id) {
+        int slot = slots.get(id);
+        return slot < 0 ? null : readHeapField(offsetOf(slot) + NAME_OFFSET, offsetOf(slot) + NAME_LENGTH);
+    }
+
+    /**
+     * Forces the mapped records to disk and closes the files.
+     */
+    @Override
+    public synchronized void close() {
+        records.force();
+        try {
+            columns.close();
+            heap.close();
+        } catch (IOException e) {
+            e.printStackTrace(); // Log the exception if something goes wrong
+        }
+    }
+
+    private boolean hasStatus(int base, int wanted) {
+        return records.get(base + LIVE) != 0 && records.get(base + STATUS_CODE) == wanted;
+    }
+
+    private static int codeOf(AnimalStatus status) {
+        return StatusDictionary.codeOf(status != null ? status.getLabel() : null);
+    }
+
+    private int offsetOf(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    private int allocateSlot() {
+        if (!freeSlots.isEmpty()) {
+            return freeSlots.pop();
+        }
+        if (recordCount == capacity) {
+            try {
+                map(capacity * 2);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot grow the column store", e);
+            }
+        }
+        records.putInt(4, recordCount + 1);
+        return recordCount++;
+    }
+
+    private void clearHeapReferences(int slot) {
+        int base = offsetOf(slot);
+        records.putInt(base + NAME_LENGTH, -1);
+    }
+
+    private void map(int newCapacity) throws IOException {
+        records = columns.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) newCapacity * RECORD_SIZE);
+        capacity = newCapacity;
+    }
+
+    /**
+     * Writes a variable-length value to the heap. The value overwrites the previous one in place
+     * when it fits, and is appended to the end of the heap otherwise.
+     *
+     * @param offsetField  the position of the record field holding the heap offset
+     * @param lengthField  the position of the record field holding the length, -1 meaning null
+     * @param value        the value to write, may be null
+     */
+    private void writeHeapField(int offsetField, int lengthField, String value) {
+        if (value == null) {
+            records.putInt(lengthField, -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int previousLength = records.getInt(lengthField);
+        long offset = previousLength >= bytes.length ? records.getLong(offsetField) : heapEnd;
+        try {
+            ByteBuffer source = ByteBuffer.wrap(bytes);
+            long position = offset;
+            while (source.hasRemaining()) {
+                position += heap.write(source, position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write to the column store heap", e);
+        }
+        if (offset == heapEnd) {
+            heapEnd += bytes.length;
+        }
+        records.putLong(offsetField, offset);
+        records.putInt(lengthField, bytes.length);
+    }
+
+    private String readHeapField(int offsetField, int lengthField) {
+        int length = records.getInt(lengthField);
+        if (length < 0) {
+            return null;
+        }
+        ByteBuffer target = ByteBuffer.allocate(length);
+        long position = records.getLong(offsetField);
+        try {
+            while (target.hasRemaining()) {
+                int read = heap.read(target, position);
+                if (read < 0) {
+                    throw new IOException("Column store heap is truncated");
+                }
+                position += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read from the column store heap", e);
+        }
+        return new String(target.array(), StandardCharsets.UTF_8);
+    }
+}
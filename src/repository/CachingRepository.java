@@ -0,0 +1,341 @@
+package repository;
+
+import models.BaseEntity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+/**
+ * A read-through cache around another {@link IRepository}.
+ * Lookups by ID are answered from a bounded cache and only go to the wrapped repository on a miss,
+ * which saves a full file read per lookup when the wrapped repository is a {@link FileRepository}.
+ * <ul>
+ *     <li>The least recently used entities are evicted once the cache holds more than the maximum
+ *     number of entities or, when a weigher is given, more than the maximum estimated size.</li>
+ *     <li>Every add, update and delete goes straight to the wrapped repository and drops the affected
+ *     IDs from the cache, so the next lookup reads the stored version.</li>
+ *     <li>Listings ({@link #getAll()}, {@link #scan()}, {@link #page(int, int)}) are not cached.</li>
+ * </ul>
+ * Cached entities are shared between callers; an entity that is changed must be saved with
+ * {@link #update(BaseEntity)} like with any other repository.
+ *
+ * @param <T> the type of entity that extends BaseEntity
+ */
+public class CachingRepository<T extends BaseEntity> implements IRepository<T> {
+    private final IRepository<T> delegate;
+    private final int maxEntries;
+    private final long maxWeight;
+    private final ToLongFunction<? super T> weigher; // null when the cache is bounded by count only
+    private final LinkedHashMap<Integer, T> cache = new LinkedHashMap<>(16, 0.75f, true); // Access order, eldest first
+    private long weight = 0;
+    private long invalidations = 0; // Bumped on every write, so a load that raced with a write is not cached
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * Creates a cache bounded by the number of entities.
+     *
+     * @param delegate   the repository to read from and write to
+     * @param maxEntries the maximum number of cached entities
+     */
+    public CachingRepository(IRepository<T> delegate, int maxEntries) {
+        this(delegate, maxEntries, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * Creates a cache bounded by the number of entities and by their estimated total size.
+     *
+     * @param delegate   the repository to read from and write to
+     * @param maxEntries the maximum number of cached entities
+     * @param maxWeight  the maximum total weight of the cached entities, for example in bytes
+     * @param weigher    estimates the weight of one entity, or null to bound by count only
+     */
+    public CachingRepository(IRepository<T> delegate, int maxEntries, long maxWeight, ToLongFunction<? super T> weigher) {
+        if (maxEntries <= 0 || maxWeight <= 0) {
+            throw new IllegalArgumentException("Cache limits must be positive");
+        }
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Adds a new entity to the wrapped repository.
+     *
+     * @param entity the entity to add
+     */
+    @Override
+    public void add(T entity) {
+        delegate.add(entity);
+        invalidate(entity.getId());
+    }
+
+    /**
+     * Updates an entity in the wrapped repository and drops the cached copy.
+     *
+     * @param entity the entity with updated data
+     */
+    @Override
+    public void update(T entity) {
+        delegate.update(entity);
+        invalidate(entity.getId());
+    }
+
+    /**
+     * Deletes an entity from the wrapped repository and drops the cached copy.
+     *
+     * @param id the ID of the entity to delete
+     */
+    @Override
+    public void delete(int id) {
+        delegate.delete(id);
+        invalidate(id);
+    }
+
+    /**
+     * Adds several entities to the wrapped repository in one batch.
+     *
+     * @param entities the entities to add
+     */
+    @Override
+    public void addAll(Collection<? extends T> entities) {
+        delegate.addAll(entities);
+        entities.forEach(entity -> invalidate(entity.getId()));
+    }
+
+    /**
+     * Updates several entities in the wrapped repository in one batch and drops their cached copies.
+     *
+     * @param entities the entities with updated data
+     */
+    @Override
+    public void updateAll(Collection<? extends T> entities) {
+        delegate.updateAll(entities);
+        entities.forEach(entity -> invalidate(entity.getId()));
+    }
+
+    /**
+     * Deletes several entities from the wrapped repository in one batch and drops their cached copies.
+     *
+     * @param ids the IDs of the entities to delete
+     */
+    @Override
+    public void deleteAll(int... ids) {
+        delegate.deleteAll(ids);
+        for (int id : ids) {
+            invalidate(id);
+        }
+    }
+
+    /**
+     * Retrieves an entity by its ID, from the cache if possible.
+     *
+     * @param id the ID of the entity to retrieve
+     * @return the entity with the given ID, or null if not found
+     */
+    @Override
+    public T getById(int id) {
+        long version;
+        synchronized (this) {
+            T cached = cache.get(id);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+            version = invalidations;
+        }
+        T entity = delegate.getById(id); // Loaded without holding the lock, so slow reads do not block hits
+        if (entity != null) {
+            store(entity, version);
+        }
+        return entity;
+    }
+
+    /**
+     * Retrieves the entities with the given IDs, loading all the missing ones with one call to the wrapped repository.
+     *
+     * @param ids the IDs of the entities to retrieve
+     * @return the entities that were found
+     */
+    @Override
+    public List<T> getByIds(Collection<Integer> ids) {
+        List<T> found = new ArrayList<>(ids.size());
+        List<Integer> missing = new ArrayList<>();
+        long version;
+        synchronized (this) {
+            for (int id : ids) {
+                T cached = cache.get(id);
+                if (cached != null) {
+                    hits++;
+                    found.add(cached);
+                } else {
+                    misses++;
+                    missing.add(id);
+                }
+            }
+            version = invalidations;
+        }
+        if (!missing.isEmpty()) {
+            for (T entity : delegate.getByIds(missing)) {
+                store(entity, version);
+                found.add(entity);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Retrieves all entities from the wrapped repository.
+     *
+     * @return a list of all entities
+     */
+    @Override
+    public List<T> getAll() {
+        return delegate.getAll();
+    }
+
+    /**
+     * Streams over all entities of the wrapped repository.
+     *
+     * @return a stream of all entities
+     */
+    @Override
+    public Stream<T> scan() {
+        return delegate.scan();
+    }
+
+    /**
+     * Retrieves one page of entities from the wrapped repository.
+     *
+     * @param afterId the cursor: only entities with a greater ID are returned
+     * @param limit   the maximum number of entities on the page
+     * @return the page of entities, ordered by ascending ID
+     */
+    @Override
+    public Page<T> page(int afterId, int limit) {
+        return delegate.page(afterId, limit);
+    }
+
+    /**
+     * Registers an index with the wrapped repository.
+     *
+     * @param index the index to register
+     * @param <I>   the type of the index
+     * @return the index maintained under the given name, or null if the wrapped repository does not support indexes
+     */
+    @Override
+    public <I extends RepositoryIndex<T>> I registerIndex(I index) {
+        return delegate.registerIndex(index);
+    }
+
+    /**
+     * Retrieves an index registered with the wrapped repository.
+     *
+     * @param name the name of the index
+     * @return the index, or null if no index with that name is registered
+     */
+    @Override
+    public RepositoryIndex<T> getIndex(String name) {
+        return delegate.getIndex(name);
+    }
+
+    /**
+     * Generates a unique ID for new entities using the wrapped repository.
+     *
+     * @return the next available unique ID
+     */
+    @Override
+    public int generateUniqueId() {
+        return delegate.generateUniqueId();
+    }
+
+    /**
+     * Empties the cache. The counters are kept.
+     */
+    public synchronized void clear() {
+        cache.clear();
+        weight = 0;
+        invalidations++;
+    }
+
+    /**
+     * Returns the number of entities currently cached.
+     *
+     * @return the number of cached entities
+     */
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    /**
+     * Returns the number of lookups that were answered from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that had to go to the wrapped repository.
+     *
+     * @return the number of cache misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of entities dropped to stay within the cache limits.
+     * Entities dropped because they were changed are not counted.
+     *
+     * @return the number of evictions
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Caches a loaded entity unless a write happened since the load started, then evicts down to the limits.
+     *
+     * @param entity  the loaded entity
+     * @param version the value of the invalidation counter when the load started
+     */
+    private synchronized void store(T entity, long version) {
+        if (version != invalidations) {
+            return; // The entity may have changed while it was loaded
+        }
+        T previous = cache.put(entity.getId(), entity);
+        if (previous != null) {
+            weight -= weigh(previous);
+        }
+        weight += weigh(entity);
+        Iterator<Map.Entry<Integer, T>> eldest = cache.entrySet().iterator();
+        while (cache.size() > 1 && (cache.size() > maxEntries || weight > maxWeight)) {
+            weight -= weigh(eldest.next().getValue());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private synchronized void invalidate(int id) {
+        T removed = cache.remove(id);
+        if (removed != null) {
+            weight -= weigh(removed);
+        }
+        invalidations++;
+    }
+
+    private long weigh(T entity) {
+        return weigher == null ? 0 : weigher.applyAsLong(entity);
+    }
+}
@@ -0,0 +1,288 @@
+package repository;
+
+import models.BaseEntity;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * A thread-safe in-memory implementation of the {@link IRepository} interface.
+ * Entities are spread over segments by ID, and each segment is guarded by its own
+ * read-write lock from {@link LockStripes}, so operations on different segments run in parallel.
+ * <ul>
+ *     <li>Single-entity operations lock only the segment that owns the ID, which makes them linearizable.</li>
+ *     <li>Batch operations lock every segment they touch, in ascending order, and apply atomically.</li>
+ *     <li>{@link #getAll()} holds the read locks of all segments at once, so it returns a consistent snapshot.</li>
+ *     <li>IDs are handed out by an atomic counter that is kept ahead of every stored ID.</li>
+ * </ul>
+ *
+ * @param <T> The type of entity being managed, which must extend {@link BaseEntity}.
+ */
+public class ConcurrentRepository<T extends BaseEntity> implements IRepository<T> {
+    private static final int DEFAULT_SEGMENTS = 16;
+
+    private final LockStripes locks;
+    private final List<Map<Integer, T>> segments;
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final IndexRegistry<T> indexes = new IndexRegistry<>();
+
+    /**
+     * Creates a repository with the default number of segments.
+     */
+    public ConcurrentRepository() {
+        this(DEFAULT_SEGMENTS);
+    }
+
+    /**
+     * Creates a repository with the given number of segments.
+     *
+     * @param segmentCount The minimum number of segments; rounded up to a power of two.
+     */
+    public ConcurrentRepository(int segmentCount) {
+        this.locks = new LockStripes(segmentCount);
+        this.segments = new ArrayList<>(locks.size());
+        for (int i = 0; i < locks.size(); i++) {
+            segments.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Adds a new entity to the repository.
+     * If an entity with the same ID already exists, it is not added.
+     *
+     * @param entity The entity to add.
+     */
+    @Override
+    public void add(T entity) {
+        int segment = locks.stripeOf(entity.getId());
+        Lock lock = locks.getStripe(segment).writeLock();
+        lock.lock();
+        try {
+            store(segment, entity);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Updates an existing entity in the repository.
+     * If no entity with the same ID exists, no update is performed.
+     *
+     * @param entity The updated entity to replace the existing one.
+     */
+    @Override
+    public void update(T entity) {
+        int segment = locks.stripeOf(entity.getId());
+        Lock lock = locks.getStripe(segment).writeLock();
+        lock.lock();
+        try {
+            replace(segment, entity);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes an entity from the repository by its ID.
+     * If no entity with this ID exists, nothing happens.
+     *
+     * @param id The ID of the entity to delete.
+     */
+    @Override
+    public void delete(int id) {
+        int segment = locks.stripeOf(id);
+        Lock lock = locks.getStripe(segment).writeLock();
+        lock.lock();
+        try {
+            remove(segment, id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds several entities atomically. Entities whose ID already exists are skipped.
+     *
+     * @param batch The entities to add.
+     */
+    @Override
+    public void addAll(Collection<? extends T> batch) {
+        int[] touched = lockSegmentsOf(batch);
+        try {
+            for (T entity : batch) {
+                store(locks.stripeOf(entity.getId()), entity);
+            }
+        } finally {
+            unlockSegments(touched);
+        }
+    }
+
+    /**
+     * Updates several entities atomically. Entities whose ID does not exist are skipped.
+     *
+     * @param batch The updated entities to replace the existing ones.
+     */
+    @Override
+    public void updateAll(Collection<? extends T> batch) {
+        int[] touched = lockSegmentsOf(batch);
+        try {
+            for (T entity : batch) {
+                replace(locks.stripeOf(entity.getId()), entity);
+            }
+        } finally {
+            unlockSegments(touched);
+        }
+    }
+
+    /**
+     * Deletes several entities atomically. IDs that do not exist are skipped.
+     *
+     * @param ids The IDs of the entities to delete.
+     */
+    @Override
+    public void deleteAll(int... ids) {
+        int[] touched = lockSegments(Arrays.stream(ids).map(locks::stripeOf).toArray());
+        try {
+            for (int id : ids) {
+                remove(locks.stripeOf(id), id);
+            }
+        } finally {
+            unlockSegments(touched);
+        }
+    }
+
+    /**
+     * Retrieves an entity by its ID.
+     *
+     * @param id The ID of the entity to retrieve.
+     * @return The entity with the given ID, or {@code null} if not found.
+     */
+    @Override
+    public T getById(int id) {
+        int segment = locks.stripeOf(id);
+        Lock lock = locks.getStripe(segment).readLock();
+        lock.lock();
+        try {
+            return segments.get(segment).get(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves a consistent snapshot of all entities, taken while every segment is read-locked.
+     *
+     * @return A list of all entities, ordered by ID.
+     */
+    @Override
+    public List<T> getAll() {
+        List<T> all = new ArrayList<>();
+        for (int i = 0; i < locks.size(); i++) {
+            locks.getStripe(i).readLock().lock();
+        }
+        try {
+            for (Map<Integer, T> segment : segments) {
+                all.addAll(segment.values());
+            }
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.getStripe(i).readLock().unlock();
+            }
+        }
+        all.sort(Comparator.comparingInt(BaseEntity::getId));
+        return all;
+    }
+
+    /**
+     * Registers an index that is kept up to date on every add, update and delete.
+     * Writers are blocked while the index is built, so it never misses a change.
+     *
+     * @param index The index to register.
+     * @param <I>   The type of the index.
+     * @return The index maintained under the given name.
+     */
+    @Override
+    public <I extends RepositoryIndex<T>> I registerIndex(I index) {
+        for (int i = 0; i < locks.size(); i++) {
+            locks.getStripe(i).writeLock().lock();
+        }
+        try {
+            return indexes.register(index, this);
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.getStripe(i).writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Retrieves a registered index by its name.
+     *
+     * @param name The name of the index.
+     * @return The index, or null if no index with that name is registered.
+     */
+    @Override
+    public RepositoryIndex<T> getIndex(String name) {
+        return indexes.get(name);
+    }
+
+    /**
+     * Generates a unique ID for new entities. Safe to call from any number of threads.
+     *
+     * @return A unique ID.
+     */
+    @Override
+    public int generateUniqueId() {
+        return nextId.getAndIncrement();
+    }
+
+    // The helpers below must be called while holding the write lock of the entity's segment.
+    // They update the indexes before the segment, so an index that rejects a change leaves the repository unchanged.
+
+    private void store(int segment, T entity) {
+        if (!segments.get(segment).containsKey(entity.getId())) {
+            indexes.put(entity);
+            segments.get(segment).put(entity.getId(), entity);
+            nextId.accumulateAndGet(entity.getId() + 1, Math::max);
+        }
+    }
+
+    private void replace(int segment, T entity) {
+        if (segments.get(segment).containsKey(entity.getId())) {
+            indexes.put(entity);
+            segments.get(segment).put(entity.getId(), entity);
+        }
+    }
+
+    private void remove(int segment, int id) {
+        if (segments.get(segment).containsKey(id)) {
+            indexes.remove(id);
+            segments.get(segment).remove(id);
+        }
+    }
+
+    private int[] lockSegmentsOf(Collection<? extends T> batch) {
+        return lockSegments(batch.stream().mapToInt(entity -> locks.stripeOf(entity.getId())).toArray());
+    }
+
+    /**
+     * Write-locks the given segments in ascending order, each one only once.
+     *
+     * @param stripes the segments to lock, possibly unordered and with duplicates
+     * @return the distinct locked segments, in ascending order
+     */
+    private int[] lockSegments(int[] stripes) {
+        int[] touched = Arrays.stream(stripes).distinct().sorted().toArray();
+        for (int stripe : touched) {
+            locks.getStripe(stripe).writeLock().lock();
+        }
+        return touched;
+    }
+
+    private void unlockSegments(int[] touched) {
+        for (int i = touched.length - 1; i >= 0; i--) {
+            locks.getStripe(touched[i]).writeLock().unlock();
+        }
+    }
+}
@@ -1,20 +1,62 @@
 package repository;
 
 import models.BaseEntity;
+import repository.codec.BinaryIO;
+import repository.codec.EntityCodec;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
 
 /**
  * A generic repository class for managing entities of type T that extend BaseEntity.
  * It allows performing CRUD operations (Create, Read, Update, Delete) on entities
  * and stores them in a file.
+ * By default the whole list is stored with Java serialization; when an {@link EntityCodec}
+ * is given, the file holds the entity count followed by each entity in the codec's binary form,
+ * which lets {@link #scan()} decode entities one at a time instead of loading the whole list.
+ * <p>
+ * Every change is committed by writing the new contents to a temporary file, forcing it to disk
+ * and atomically renaming it over the data file, so a crash leaves either the old or the new contents.
+ * Changes made concurrently are committed as a group: one writer applies all of them to a single
+ * read of the file and pays for one write and one fsync on behalf of the others.
+ * <p>
+ * A Bloom filter of the stored IDs ({@link LiveIdSet}) is kept next to the data file in {@code fileName.ids}
+ * and updated with the IDs each commit adds and deletes, so looking up an ID that is not stored almost always
+ * returns without reading the data file.
+ * A repository created with {@link #storageOnly(String, EntityCodec)} keeps neither that filter nor an ID sequence,
+ * for files that are parts of a larger store which keeps its own.
  *
  * @param <T> the type of entity that extends BaseEntity
  */
 public class FileRepository<T extends BaseEntity> implements IRepository<T> {
     private String fileName;
+    private EntityCodec<T> codec; // null when the list is stored with Java serialization
+    private final boolean sidecars; // Whether the ID filter and the ID sequence are kept next to the data file
+    private IndexRegistry<T> indexes = new IndexRegistry<>(); // Secondary indexes kept up to date on every change
+    private volatile IdSequence idSequence; // Created on first use, stored next to the data file
+    private final ReentrantLock commitLock = new ReentrantLock(); // Held by the writer committing the current group
+    private final List<Commit<T>> pendingCommits = new ArrayList<>(); // Changes waiting for the next group, guarded by itself
+    private volatile long groupCommitWindowNanos = 0; // How long a committing writer waits for others to join its group
+    private volatile LiveIdSet liveIds; // Loaded on first lookup, updated on every commit
 
     /**
      * Constructor for the FileRepository. Initializes the repository with a file name.
@@ -22,7 +64,54 @@ public class FileRepository<T extends BaseEntity> implements IRepository<T> {
      * @param fileName the name of the file where entities are stored
      */
     public FileRepository(String fileName) {
+        this(fileName, null);
+    }
+
+    /**
+     * Constructor for the FileRepository that stores entities with the given codec.
+     *
+     * @param fileName the name of the file where entities are stored
+     * @param codec    the codec used to encode and decode entities, or null for Java serialization
+     */
+    public FileRepository(String fileName, EntityCodec<T> codec) {
+        this(fileName, codec, true);
+    }
+
+    private FileRepository(String fileName, EntityCodec<T> codec, boolean sidecars) {
         this.fileName = fileName;
+        this.codec = codec;
+        this.sidecars = sidecars;
+        try {
+            Files.deleteIfExists(tempPath()); // Left over by a commit that was interrupted before its rename
+        } catch (IOException e) {
+            e.printStackTrace(); // Log the exception if something goes wrong
+        }
+    }
+
+    /**
+     * Creates a repository that only stores the entities, without the live ID bitmap and the ID sequence
+     * sidecar files. Lookups always read the data file and {@link #generateUniqueId()} is not supported;
+     * used for the files of a store that tracks IDs itself, such as {@link SegmentedFileRepository}.
+     *
+     * @param fileName the name of the file where entities are stored
+     * @param codec    the codec used to encode and decode entities, or null for Java serialization
+     * @param <T>      the type of entity that extends BaseEntity
+     * @return the storage-only repository
+     */
+    static <T extends BaseEntity> FileRepository<T> storageOnly(String fileName, EntityCodec<T> codec) {
+        return new FileRepository<>(fileName, codec, false);
+    }
+
+    /**
+     * Sets how long a committing writer waits for concurrent writers to join its group before writing.
+     * A longer window lets more changes share one fsync, at the cost of latency for each change.
+     * The default is zero: a group only contains the changes that arrived while the previous group was written.
+     *
+     * @param window the group commit window, zero or positive
+     * @param unit   the time unit of the window
+     */
+    public void setGroupCommitWindow(long window, TimeUnit unit) {
+        groupCommitWindowNanos = unit.toNanos(window);
     }
 
     /**
@@ -32,9 +121,10 @@ public class FileRepository<T extends BaseEntity> implements IRepository<T> {
      */
     @Override
     public void add(T entity) {
-        List<T> entities = getAll();
-        entities.add(entity);
-        saveToFile(entities);
+        commit(entities -> entities.add(entity), ids -> ids.add(entity.getId()), () -> indexes.put(entity));
+        if (sidecars) {
+            idSequence().advancePast(entity.getId());
+        }
     }
 
     /**
@@ -45,10 +135,10 @@ public class FileRepository<T extends BaseEntity> implements IRepository<T> {
      */
     @Override
     public void update(T entity) {
-        List<T> entities = getAll();
-        entities.removeIf(e -> ((BaseEntity) e).getId() == ((BaseEntity) entity).getId()); // Remove the old entity by ID
-        entities.add(entity); // Add the updated entity
-        saveToFile(entities);
+        commit(entities -> {
+            entities.removeIf(e -> ((BaseEntity) e).getId() == ((BaseEntity) entity).getId()); // Remove the old entity by ID
+            entities.add(entity); // Add the updated entity
+        }, ids -> ids.add(entity.getId()), () -> indexes.put(entity));
     }
 
     /**
@@ -58,68 +148,548 @@ public class FileRepository<T extends BaseEntity> implements IRepository<T> {
      */
     @Override
     public void delete(int id) {
-        List<T> entities = getAll();
-        entities.removeIf(entity -> ((BaseEntity) entity).getId() == id); // Remove the entity by ID
-        saveToFile(entities);
+        commit(entities -> entities.removeIf(entity -> ((BaseEntity) entity).getId() == id), // Remove the entity by ID
+                ids -> ids.remove(id), () -> indexes.remove(id));
+    }
+
+    /**
+     * Adds several entities with a single read and a single write of the file.
+     *
+     * @param batch the entities to add
+     */
+    @Override
+    public void addAll(Collection<? extends T> batch) {
+        commit(entities -> entities.addAll(batch), ids -> batch.forEach(entity -> ids.add(entity.getId())),
+                () -> batch.forEach(indexes::put));
+        if (sidecars) {
+            batch.forEach(entity -> idSequence().advancePast(entity.getId()));
+        }
+    }
+
+    /**
+     * Updates several entities with a single read and a single write of the file.
+     * Removes the old entities and adds the updated ones.
+     *
+     * @param batch the entities with updated data
+     */
+    @Override
+    public void updateAll(Collection<? extends T> batch) {
+        IntHashIndex updatedIds = new IntHashIndex(batch.size());
+        for (T entity : batch) {
+            updatedIds.put(entity.getId(), 0);
+        }
+        commit(entities -> {
+            entities.removeIf(e -> updatedIds.containsKey(e.getId())); // Remove the old entities by ID
+            entities.addAll(batch); // Add the updated entities
+        }, ids -> batch.forEach(entity -> ids.add(entity.getId())), () -> batch.forEach(indexes::put));
+    }
+
+    /**
+     * Deletes several entities with a single read and a single write of the file.
+     *
+     * @param ids the IDs of the entities to delete
+     */
+    @Override
+    public void deleteAll(int... ids) {
+        IntHashIndex deletedIds = new IntHashIndex(ids.length);
+        for (int id : ids) {
+            deletedIds.put(id, 0);
+        }
+        commit(entities -> entities.removeIf(entity -> deletedIds.containsKey(entity.getId())), // Remove the entities by ID
+                liveIds -> {
+                    for (int id : ids) {
+                        liveIds.remove(id);
+                    }
+                },
+                () -> {
+                    for (int id : ids) {
+                        indexes.remove(id);
+                    }
+                });
     }
 
     /**
      * Retrieves an entity by its ID.
+     * IDs that are not stored are almost always answered from the live ID filter, without reading the data file.
      *
      * @param id the ID of the entity to retrieve
      * @return the entity with the given ID, or null if not found
      */
     @Override
     public T getById(int id) {
-        return getAll().stream()
-                .filter(entity -> ((BaseEntity) entity).getId() == id) // Filter by matching ID
-                .findFirst() // Get the first matching entity
-                .orElse(null); // Return null if no entity is found
+        if (sidecars && !liveIds().mightContain(id)) {
+            return null;
+        }
+        try (Stream<T> entities = scan()) {
+            return entities
+                    .filter(entity -> ((BaseEntity) entity).getId() == id) // Filter by matching ID
+                    .findFirst() // Get the first matching entity
+                    .orElse(null); // Return null if no entity is found
+        }
+    }
+
+    /**
+     * Retrieves the entities with the given IDs with a single pass over the file.
+     *
+     * @param ids the IDs of the entities to retrieve
+     * @return the entities that were found, in file order
+     */
+    @Override
+    public List<T> getByIds(Collection<Integer> ids) {
+        LiveIdSet live = sidecars ? liveIds() : null;
+        IntHashIndex wanted = new IntHashIndex(ids.size());
+        for (int id : ids) {
+            if (live == null || live.mightContain(id)) {
+                wanted.put(id, 0);
+            }
+        }
+        if (wanted.size() == 0) {
+            return new ArrayList<>(); // None of the IDs is stored
+        }
+        try (Stream<T> entities = scan(entity -> wanted.containsKey(entity.getId()))) {
+            return entities.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Registers an index that is built from the file once and then kept up to date
+     * on every add, update and delete made through this repository.
+     * The index is built while holding the commit lock, so no group is committed between reading
+     * the file and the index receiving its first change.
+     *
+     * @param index the index to register
+     * @param <I>   the type of the index
+     * @return the index maintained under the given name
+     */
+    @Override
+    public <I extends RepositoryIndex<T>> I registerIndex(I index) {
+        commitLock.lock();
+        try {
+            return indexes.register(index, this);
+        } finally {
+            commitLock.unlock();
+            synchronized (pendingCommits) {
+                pendingCommits.notifyAll(); // Writers that saw the commit lock held wait for a notification
+            }
+        }
+    }
+
+    /**
+     * Retrieves a registered index by its name.
+     *
+     * @param name the name of the index
+     * @return the index, or null if no index with that name is registered
+     */
+    @Override
+    public RepositoryIndex<T> getIndex(String name) {
+        return indexes.get(name);
     }
 
     /**
      * Retrieves all entities stored in the file.
      *
-     * @return a list of all entities
+     * @return a list of all entities, empty if the file does not exist or cannot be read
      */
     @Override
     public List<T> getAll() {
-        List<T> entities = new ArrayList<>();
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(fileName))) {
-            entities = (List<T>) ois.readObject(); // Deserialize the list of entities
-        } catch (IOException | ClassNotFoundException e) {
-            // Handle exception when file might be empty or not exist (returns empty list)
+        try {
+            return readAll();
+        } catch (UncheckedIOException e) {
+            e.printStackTrace(); // Log the exception if something goes wrong
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Reads every entity stored in the file, failing instead of returning what could be read.
+     * Used wherever the result is written back or trusted to be complete, so that a file that cannot
+     * be read is never replaced by a shorter list.
+     *
+     * @return a list of all entities, empty if the file does not exist or is empty
+     * @throws UncheckedIOException if the file exists but cannot be read completely
+     */
+    @SuppressWarnings("unchecked")
+    private List<T> readAll() {
+        if (codec != null) {
+            try (Stream<T> entities = streamEncoded(true)) {
+                return entities.collect(Collectors.toCollection(ArrayList::new));
+            }
+        }
+        File file = new File(fileName);
+        if (!file.exists() || file.length() == 0) {
+            return new ArrayList<>(); // Nothing stored yet
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return (List<T>) ois.readObject(); // Deserialize the list of entities
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + fileName, e);
+        } catch (ClassNotFoundException e) {
+            throw new UncheckedIOException("Cannot read " + fileName, new IOException(e));
+        }
+    }
+
+    /**
+     * Streams over all entities stored in the file.
+     * With a codec, entities are decoded lazily from disk as the stream is consumed,
+     * so filters run in bounded memory; the stream must be closed to release the file.
+     *
+     * @return a stream of all entities
+     */
+    @Override
+    public Stream<T> scan() {
+        return codec != null ? streamEncoded(false) : getAll().stream();
+    }
+
+    /**
+     * Applies a change to the stored entities and returns once it is on disk.
+     * The writer that gets the commit lock becomes the leader of a group: it optionally waits for the
+     * group commit window, takes every pending change, applies them in arrival order to one read of the file
+     * and saves the result once. The other writers wait for their change to be committed without queuing
+     * on the commit lock, so they are free to submit their next change while the group is written.
+     * Once the group is saved, the leader applies the index updates of its changes in the same order,
+     * still holding the commit lock, so the indexes always see the changes in the order they were persisted.
+     *
+     * @param change      the change to apply to the list of stored entities
+     * @param idUpdate    the IDs the change adds to or deletes from the live ID filter, applied only if the change was saved
+     * @param indexUpdate the matching change to the indexes, applied only if the change was saved
+     * @throws RuntimeException (an {@link UncheckedIOException} if the file could not be read completely
+     *                          or the group could not be saved) if the group containing the change failed;
+     *                          nothing of that group is saved and the data file is left unchanged
+     */
+    private void commit(Consumer<List<T>> change, Consumer<LiveIdSet> idUpdate, Runnable indexUpdate) {
+        Commit<T> mine = new Commit<>(change, idUpdate, indexUpdate);
+        synchronized (pendingCommits) {
+            pendingCommits.add(mine);
+        }
+        boolean interrupted = false;
+        while (!mine.done) {
+            if (commitLock.tryLock()) {
+                try {
+                    if (!mine.done) {
+                        commitGroup();
+                    }
+                } finally {
+                    commitLock.unlock();
+                }
+                synchronized (pendingCommits) {
+                    pendingCommits.notifyAll(); // Wake the writers of the group and the next leader
+                }
+            } else {
+                synchronized (pendingCommits) {
+                    if (!mine.done && commitLock.isLocked()) {
+                        try {
+                            pendingCommits.wait();
+                        } catch (InterruptedException e) {
+                            interrupted = true; // The change is already queued, so wait for its outcome anyway
+                        }
+                    }
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (mine.failure != null) {
+            throw mine.failure;
+        }
+    }
+
+    /**
+     * Commits every pending change as one group. Must be called while holding the commit lock.
+     */
+    private void commitGroup() {
+        waitForGroup();
+        List<Commit<T>> group;
+        synchronized (pendingCommits) {
+            group = new ArrayList<>(pendingCommits);
+            pendingCommits.clear();
+        }
+        RuntimeException failure = null;
+        try {
+            LiveIdSet ids = liveIds;
+            if (ids != null && !ids.matches(Paths.get(fileName))) {
+                ids = null; // Changed by another repository instance: rebuilt below
+            }
+            List<T> entities = readAll(); // Never commit on top of a partial read
+            for (Commit<T> commit : group) {
+                commit.change.accept(entities);
+            }
+            long checksum = saveToFile(entities);
+            if (sidecars) {
+                if (ids != null) {
+                    for (Commit<T> commit : group) {
+                        commit.idUpdate.accept(ids);
+                    }
+                }
+                if (ids == null || ids.needsRebuild()) {
+                    ids = LiveIdSet.of(entities, Paths.get(fileName), checksum);
+                } else {
+                    ids.restamp(Paths.get(fileName), checksum);
+                }
+                ids.writeTo(idsFileName());
+                liveIds = ids;
+            }
+        } catch (RuntimeException e) {
+            failure = e; // Reported to every writer of the group
+        }
+        for (Commit<T> commit : group) {
+            commit.failure = failure;
+            if (failure == null) {
+                try {
+                    commit.indexUpdate.run(); // In commit order, before the next group can be saved
+                } catch (RuntimeException e) {
+                    commit.failure = e; // The change is saved, but the writer learns that an index rejected it
+                }
+            }
+            commit.done = true;
+        }
+    }
+
+    private void waitForGroup() {
+        long window = groupCommitWindowNanos;
+        if (window > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(window);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // Commit right away
+            }
         }
-        return entities;
     }
 
     /**
      * Saves the list of entities to the file.
-     * Serializes the entities and writes them to the file.
+     * The entities are written to a temporary file, which is forced to disk and then atomically renamed
+     * over the data file, so every saved list costs exactly one write pass and one fsync and a crash
+     * never leaves a partially written data file behind.
      *
      * @param entities the list of entities to save
+     * @return the CRC-32 checksum of the saved file, which the live ID filter is stamped with
+     * @throws UncheckedIOException if the entities cannot be saved; the data file is then left unchanged
      */
-    private void saveToFile(List<T> entities) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(fileName))) {
-            oos.writeObject(entities); // Serialize the entities and save them to the file
+    private long saveToFile(List<T> entities) {
+        Path tempPath = tempPath();
+        CheckedOutputStream checked;
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            checked = new CheckedOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)), new CRC32());
+            if (codec != null) {
+                writeEncoded(entities, new DataOutputStream(checked));
+            } else {
+                ObjectOutputStream oos = new ObjectOutputStream(checked);
+                oos.writeObject(entities); // Serialize the entities and save them to the file
+                oos.flush();
+            }
+            checked.flush();
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot save " + fileName, e);
+        }
+        try {
+            Files.move(tempPath, Paths.get(fileName), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot save " + fileName, e);
+        }
+        syncDirectory();
+        return checked.getChecksum().getValue();
+    }
+
+    /**
+     * Forces the directory entry of the renamed data file to disk, where the platform allows it.
+     */
+    private void syncDirectory() {
+        Path directory = Paths.get(fileName).toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not every platform can open a directory; the rename is still atomic, only its durability is delayed
+        }
+    }
+
+    private Path tempPath() {
+        return Paths.get(fileName + ".tmp");
+    }
+
+    private String idsFileName() {
+        return fileName + ".ids";
+    }
+
+    /**
+     * Returns the filter of the stored IDs. It is read from {@code fileName.ids} on first use, or rebuilt
+     * with one pass over the data file if the sidecar is missing or stale, and reloaded whenever the data file
+     * was changed by another repository instance. Loading holds the commit lock, so it cannot race with a commit.
+     *
+     * @return the live IDs of the data file as it is now
+     */
+    private LiveIdSet liveIds() {
+        LiveIdSet ids = liveIds;
+        if (ids != null && ids.matches(Paths.get(fileName))) {
+            return ids;
+        }
+        commitLock.lock();
+        try {
+            ids = liveIds;
+            if (ids == null || !ids.matches(Paths.get(fileName))) {
+                ids = LiveIdSet.readFrom(idsFileName(), Paths.get(fileName));
+                if (ids == null) {
+                    try {
+                        ids = LiveIdSet.of(readAll(), Paths.get(fileName), LiveIdSet.checksumOf(Paths.get(fileName)));
+                        ids.writeTo(idsFileName());
+                        liveIds = ids;
+                    } catch (IOException | UncheckedIOException e) {
+                        e.printStackTrace(); // Log the exception if something goes wrong
+                        ids = LiveIdSet.of(new ArrayList<>(), Paths.get(fileName), 0); // Answer like getAll, but keep nothing
+                    }
+                } else {
+                    liveIds = ids;
+                }
+            }
+        } finally {
+            commitLock.unlock();
+        }
+        synchronized (pendingCommits) {
+            pendingCommits.notifyAll(); // Writers that saw the commit lock held wait for a notification
+        }
+        return ids;
+    }
+
+    /**
+     * Opens the file and returns a stream that decodes one entity per element.
+     * Closing the stream closes the file.
+     *
+     * @param strict whether a file that cannot be read completely fails the stream,
+     *               rather than ending it after the last entity that could be decoded
+     * @return a lazy stream of the stored entities, empty if the file does not exist or is empty
+     * @throws UncheckedIOException in strict mode, from the stream, if an entity cannot be decoded
+     */
+    private Stream<T> streamEncoded(boolean strict) {
+        DataInputStream in;
+        int count;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName)));
+        } catch (FileNotFoundException e) {
+            return Stream.empty(); // Nothing stored yet
+        }
+        try {
+            count = BinaryIO.readVarInt(in);
+        } catch (IOException e) {
+            closeQuietly(in);
+            if (strict && new File(fileName).length() > 0) {
+                throw new UncheckedIOException("Cannot read " + fileName, e);
+            }
+            return Stream.empty(); // The file is empty
+        }
+        Spliterator<T> decoder = new Spliterators.AbstractSpliterator<T>(count, Spliterator.ORDERED | Spliterator.NONNULL) {
+            private int remaining = count;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                if (remaining == 0) {
+                    return false;
+                }
+                try {
+                    T entity = codec.decode(in);
+                    remaining--;
+                    action.accept(entity);
+                    return true;
+                } catch (IOException e) {
+                    remaining = 0;
+                    if (strict) {
+                        throw new UncheckedIOException("Cannot read " + fileName, e);
+                    }
+                    e.printStackTrace(); // Log the exception if something goes wrong
+                    return false; // Stop at a truncated or corrupt record (returns what was read)
+                }
+            }
+        };
+        return StreamSupport.stream(decoder, false).onClose(() -> closeQuietly(in));
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
         } catch (IOException e) {
             e.printStackTrace(); // Log the exception if something goes wrong
         }
     }
 
     /**
-     * Generates a unique ID for new entities by finding the maximum ID from existing entities
-     * and incrementing it by 1.
-     * If no entities exist, it starts from 1.
+     * Writes the entity count followed by each entity in the codec's binary format.
+     *
+     * @param entities the list of entities to save
+     * @param out      the stream to write to
+     * @throws IOException if the entities cannot be written
+     */
+    private void writeEncoded(List<T> entities, DataOutputStream out) throws IOException {
+        BinaryIO.writeVarInt(out, entities.size());
+        for (T entity : entities) {
+            codec.encode(entity, out);
+        }
+        out.flush();
+    }
+
+    /**
+     * Generates a unique ID for new entities from a durable {@link IdSequence}
+     * stored in the sidecar file {@code fileName.seq}.
+     * Each call hands out a new ID in constant time, without reading the data file.
      *
      * @return the next available unique ID
+     * @throws UnsupportedOperationException if the repository was created with {@link #storageOnly(String, EntityCodec)}
      */
     @Override
     public int generateUniqueId() {
-        List<T> allEntities = getAll(); // Read all entities from the file
-        return allEntities.stream()
-                .mapToInt(entity -> entity.getId()) // Get the IDs of all entities
-                .max() // Get the maximum ID
-                .orElse(0) + 1; // If no entities exist, start from 1
+        if (!sidecars) {
+            throw new UnsupportedOperationException("IDs of " + fileName + " are generated by the store it belongs to");
+        }
+        return idSequence().next();
+    }
+
+    /**
+     * Returns the ID sequence, opening it on first use. The sequence starts after both the reserved block
+     * in the sidecar file and the maximum ID of the existing entities (read once).
+     *
+     * @return the ID sequence of this repository
+     */
+    private IdSequence idSequence() {
+        if (idSequence == null) {
+            synchronized (this) {
+                if (idSequence == null) {
+                    idSequence = new IdSequence(fileName + ".seq", IdSequence.DEFAULT_BLOCK_SIZE, this::highestStoredId);
+                }
+            }
+        }
+        return idSequence;
+    }
+
+    /**
+     * Finds the maximum ID from existing entities, to seed the ID sequence.
+     *
+     * @return the highest stored ID, or 0 if no entities exist
+     */
+    private int highestStoredId() {
+        try (Stream<T> allEntities = codec != null ? streamEncoded(true) : readAll().stream()) { // Read the entities one by one
+            return allEntities
+                    .mapToInt(entity -> entity.getId()) // Get the IDs of all entities
+                    .max() // Get the maximum ID
+                    .orElse(0); // If no entities exist, the sequence starts from 1
+        }
+    }
+
+    /**
+     * A change waiting to be committed, and its outcome once its group has been saved.
+     *
+     * @param <T> the type of entity that extends BaseEntity
+     */
+    private static final class Commit<T> {
+        private final Consumer<List<T>> change;
+        private final Consumer<LiveIdSet> idUpdate;
+        private final Runnable indexUpdate;
+        private volatile boolean done = false;
+        private volatile RuntimeException failure;
+
+        private Commit(Consumer<List<T>> change, Consumer<LiveIdSet> idUpdate, Runnable indexUpdate) {
+            this.change = change;
+            this.idUpdate = idUpdate;
+            this.indexUpdate = indexUpdate;
+        }
     }
 }
@@ -1,7 +1,16 @@
 package repository;
 
+import models.BaseEntity;
+
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Interface for a generic repository that can store serializable entities.
@@ -35,6 +44,42 @@ public interface IRepository<T extends Serializable> {
      */
     void delete(int id);
 
+    /**
+     * Adds several entities to the repository in one batch.
+     * Implementations backed by storage persist the whole batch in a single write.
+     *
+     * @param entities The entities to be added. This cannot be null.
+     */
+    default void addAll(Collection<? extends T> entities) {
+        for (T entity : entities) {
+            add(entity);
+        }
+    }
+
+    /**
+     * Updates several existing entities in one batch.
+     * Implementations backed by storage persist the whole batch in a single write.
+     *
+     * @param entities The updated entities that will replace the existing ones. This cannot be null.
+     */
+    default void updateAll(Collection<? extends T> entities) {
+        for (T entity : entities) {
+            update(entity);
+        }
+    }
+
+    /**
+     * Deletes several entities from the repository in one batch.
+     * Implementations backed by storage persist the whole batch in a single write.
+     *
+     * @param ids The IDs of the entities to be deleted. IDs that do not exist are ignored.
+     */
+    default void deleteAll(int... ids) {
+        for (int id : ids) {
+            delete(id);
+        }
+    }
+
     /**
      * Retrieves an entity from the repository based on its ID.
      *
@@ -43,6 +88,23 @@ public interface IRepository<T extends Serializable> {
      */
     T getById(int id);
 
+    /**
+     * Retrieves the entities with the given IDs. IDs that do not exist are skipped.
+     *
+     * @param ids The IDs of the desired entities.
+     * @return The entities that were found.
+     */
+    default List<T> getByIds(Collection<Integer> ids) {
+        List<T> found = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            T entity = getById(id);
+            if (entity != null) {
+                found.add(entity);
+            }
+        }
+        return found;
+    }
+
     /**
      * Retrieves all entities from the repository.
      *
@@ -50,6 +112,101 @@ public interface IRepository<T extends Serializable> {
      */
     List<T> getAll();
 
+    /**
+     * Streams over all entities in the repository.
+     * File-backed implementations may decode entities lazily while the stream is consumed,
+     * so the stream can hold an open file and should be closed after use (e.g. with try-with-resources).
+     *
+     * @return A stream of all entities in the repository.
+     */
+    default Stream<T> scan() {
+        return getAll().stream();
+    }
+
+    /**
+     * Streams over the entities that match the given filter.
+     * The stream should be closed after use, like the one returned by {@link #scan()}.
+     *
+     * @param filter The condition an entity must satisfy to be included.
+     * @return A stream of the matching entities.
+     */
+    default Stream<T> scan(Predicate<? super T> filter) {
+        return scan().filter(filter);
+    }
+
+    /**
+     * Performs the given action for every entity in the repository, one at a time.
+     *
+     * @param action The action to perform for each entity.
+     */
+    default void forEach(Consumer<? super T> action) {
+        try (Stream<T> entities = scan()) {
+            entities.forEach(action);
+        }
+    }
+
+    /**
+     * Retrieves one page of entities ordered by ID, starting after the given cursor.
+     * Only {@code limit + 1} entities are held in memory at a time, however many the repository contains.
+     * Requires the entities to extend {@link BaseEntity}.
+     *
+     * @param afterId The cursor: only entities with a greater ID are returned.
+     *                Use {@link Page#START} for the first page and {@link Page#getNextAfterId()} afterwards.
+     * @param limit   The maximum number of entities on the page. Must be positive.
+     * @return The page of entities, ordered by ascending ID.
+     */
+    default Page<T> page(int afterId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive: " + limit);
+        }
+        Comparator<T> byId = Comparator.comparingInt(entity -> ((BaseEntity) entity).getId());
+        // Max-heap holding the smallest limit + 1 IDs after the cursor; the extra one tells if there is a next page
+        PriorityQueue<T> smallest = new PriorityQueue<>(limit + 1, byId.reversed());
+        forEach(entity -> {
+            int id = ((BaseEntity) entity).getId();
+            if (id <= afterId) {
+                return;
+            }
+            if (smallest.size() <= limit) {
+                smallest.add(entity);
+            } else if (id < ((BaseEntity) smallest.peek()).getId()) {
+                smallest.poll();
+                smallest.add(entity);
+            }
+        });
+        List<T> items = new ArrayList<>(smallest);
+        items.sort(byId);
+        boolean hasMore = items.size() > limit;
+        if (hasMore) {
+            items.remove(limit);
+        }
+        int nextAfterId = items.isEmpty() ? afterId : ((BaseEntity) items.get(items.size() - 1)).getId();
+        return new Page<>(items, nextAfterId, hasMore);
+    }
+
+    /**
+     * Registers an index that the repository keeps up to date on every add, update and delete.
+     * The index is first fed every entity already in the repository.
+     * If an index with the same name is already registered, that one is kept and returned instead.
+     *
+     * @param index The index to register.
+     * @param <I>   The type of the index.
+     * @return The index maintained under the given name, or null if this repository does not support indexes.
+     */
+    default <I extends RepositoryIndex<T>> I registerIndex(I index) {
+        return null;
+    }
+
+    /**
+     * Retrieves a registered index by its name.
+     *
+     * @param name The name of the index.
+     * @return The index, or null if no index with that name is registered.
+     */
+    default RepositoryIndex<T> getIndex(String name) {
+        return null;
+    }
+
     /**
      * Generates a unique ID for a new entity.
      * This should return an ID that has not been used by any other entities.
@@ -0,0 +1,133 @@
+package repository;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * A durable sequence of unique IDs, handed out from blocks reserved in a small sidecar file.
+ * The sidecar only stores the end of the reserved block; IDs below it are handed out from memory
+ * with a compare-and-set, so allocation is constant time and lock-free. The file is rewritten
+ * (atomically, and forced to disk) only once per block. After a restart the sequence continues
+ * from the end of the last reserved block, or past the highest stored ID if that is higher, so IDs are
+ * never reused, at the cost of skipping the unused rest of that block.
+ * <p>
+ * The sequence never hands out {@link Integer#MAX_VALUE}: once it would, or once that ID is in use, the ID space is
+ * exhausted and {@link #next()} fails instead of wrapping around to negative or already used IDs.
+ */
+public class IdSequence {
+    /**
+     * The default number of IDs reserved with each write of the sidecar file.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 64;
+
+    private final Path file;
+    private final int blockSize;
+    private final AtomicInteger next;
+    private volatile int limit; // End (exclusive) of the block reserved on disk
+
+    /**
+     * Opens the sequence stored in the given sidecar file.
+     *
+     * @param fileName  the sidecar file holding the end of the reserved block
+     * @param blockSize the number of IDs to reserve at a time
+     * @param seed      supplies the highest ID already stored, or 0 if there is none; the sequence starts after
+     *                  both it and the end of the reserved block
+     */
+    public IdSequence(String fileName, int blockSize, IntSupplier seed) {
+        this.file = Paths.get(fileName);
+        this.blockSize = blockSize;
+        int start = Math.max(1, Math.max(readLimit(), following(seed.getAsInt())));
+        this.next = new AtomicInteger(start);
+        this.limit = start;
+    }
+
+    /**
+     * Hands out the next ID. Safe to call from any number of threads.
+     *
+     * @return an ID that has never been returned before, including by earlier runs
+     * @throws IllegalStateException if every ID up to {@link Integer#MAX_VALUE} has been used
+     */
+    public int next() {
+        while (true) {
+            int id = next.get();
+            if (id == Integer.MAX_VALUE) {
+                throw new IllegalStateException("No IDs left in " + file + ": the highest possible ID is in use");
+            }
+            if (id >= limit) {
+                reserve(id);
+            } else if (next.compareAndSet(id, id + 1)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Makes sure the sequence never hands out the given ID, for entities stored with an ID chosen elsewhere.
+     * An ID beyond the reserved block is persisted by reserving a block past it, so it is not handed out
+     * after a restart either.
+     *
+     * @param id an ID that is already in use
+     */
+    public void advancePast(int id) {
+        next.accumulateAndGet(following(id), Math::max);
+        if (id >= limit) {
+            reserve(id);
+        }
+    }
+
+    /**
+     * Reserves a new block that contains the given ID and persists its end before any ID from it is handed out.
+     *
+     * @param id the ID that needs to be covered by the reserved block
+     */
+    private synchronized void reserve(int id) {
+        if (id < limit) {
+            return; // Another thread already reserved the block
+        }
+        int newLimit = (int) Math.min((long) id + blockSize, Integer.MAX_VALUE); // Never wraps around
+        Path tempPath = Paths.get(file + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tempPath.toFile());
+             DataOutputStream data = new DataOutputStream(out)) {
+            data.writeInt(newLimit);
+            data.flush();
+            out.getFD().sync();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot reserve IDs in " + file, e);
+        }
+        try {
+            Files.move(tempPath, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot reserve IDs in " + file, e);
+        }
+        limit = newLimit;
+    }
+
+    /**
+     * Returns the ID after the given one, or {@link Integer#MAX_VALUE} (the ID space is exhausted) for that ID itself.
+     */
+    private static int following(int id) {
+        return id == Integer.MAX_VALUE ? id : id + 1;
+    }
+
+    /**
+     * Reads the end of the last reserved block.
+     *
+     * @return the stored value, or -1 if the sidecar file does not exist or cannot be read
+     */
+    private int readLimit() {
+        if (!Files.exists(file)) {
+            return -1;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file.toFile()))) {
+            return in.readInt();
+        } catch (IOException e) {
+            e.printStackTrace(); // Log the exception if something goes wrong
+            return -1;
+        }
+    }
+}
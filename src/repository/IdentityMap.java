@@ -0,0 +1,158 @@
+package repository;
+
+import models.BaseEntity;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps each (entity type, ID) pair to one canonical instance, so that repeated reads of the same entity,
+ * through one repository or several, share a single object instead of creating a copy per read.
+ * Instances are held through weak references: an entity that nothing else refers to any more is
+ * dropped from the map and simply read again the next time it is needed.
+ * <p>
+ * The map has session semantics: once an instance is canonical, later reads return it even if another
+ * process has changed the stored entity meanwhile. Call {@link #clear()} to start a new session.
+ */
+public class IdentityMap {
+    private final Map<Key, Entry> entries = new HashMap<>();
+    private final ReferenceQueue<BaseEntity> collected = new ReferenceQueue<>();
+    private long duplicatesAvoided = 0;
+
+    /**
+     * Returns the canonical instance for the entity's type and ID.
+     * If there is none yet, the given entity becomes the canonical instance.
+     *
+     * @param type   the entity type, used together with the ID as the key
+     * @param entity the freshly read entity, may be null
+     * @param <T>    the type of the entity
+     * @return the canonical instance, or null if the entity was null
+     */
+    public synchronized <T extends BaseEntity> T canonicalize(Class<T> type, T entity) {
+        if (entity == null) {
+            return null;
+        }
+        purge();
+        Key key = new Key(type, entity.getId());
+        Entry existing = entries.get(key);
+        BaseEntity canonical = existing != null ? existing.get() : null;
+        if (canonical == null) {
+            entries.put(key, new Entry(key, entity, collected));
+            return entity;
+        }
+        if (canonical != entity) {
+            duplicatesAvoided++;
+        }
+        return type.cast(canonical);
+    }
+
+    /**
+     * Makes the given entity the canonical instance for its type and ID, replacing any previous one.
+     * Used when an entity is written, so that later reads return the written state.
+     *
+     * @param type   the entity type
+     * @param entity the entity that was written
+     * @param <T>    the type of the entity
+     */
+    public synchronized <T extends BaseEntity> void put(Class<T> type, T entity) {
+        purge();
+        Key key = new Key(type, entity.getId());
+        entries.put(key, new Entry(key, entity, collected));
+    }
+
+    /**
+     * Returns the canonical instance for a type and ID, if there is one.
+     *
+     * @param type the entity type
+     * @param id   the ID of the entity
+     * @param <T>  the type of the entity
+     * @return the canonical instance, or null if the entity has not been read or has been dropped
+     */
+    public synchronized <T extends BaseEntity> T get(Class<T> type, int id) {
+        Entry entry = entries.get(new Key(type, id));
+        return entry != null ? type.cast(entry.get()) : null;
+    }
+
+    /**
+     * Forgets the canonical instance for a type and ID, for example after the entity was deleted.
+     *
+     * @param type the entity type
+     * @param id   the ID of the entity
+     */
+    public synchronized void remove(Class<? extends BaseEntity> type, int id) {
+        entries.remove(new Key(type, id));
+    }
+
+    /**
+     * Forgets every canonical instance.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        purge();
+    }
+
+    /**
+     * Returns the number of canonical instances currently held.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        purge();
+        return entries.size();
+    }
+
+    /**
+     * Returns how many read copies were replaced by an existing canonical instance,
+     * which is the number of duplicate objects the map kept out of memory.
+     *
+     * @return the number of duplicates avoided
+     */
+    public synchronized long getDuplicatesAvoided() {
+        return duplicatesAvoided;
+    }
+
+    /**
+     * Removes the entries whose instance has been garbage collected.
+     */
+    private void purge() {
+        Entry entry;
+        while ((entry = (Entry) collected.poll()) != null) {
+            entries.remove(entry.key, entry); // Only if it was not replaced meanwhile
+        }
+    }
+
+    private static final class Key {
+        private final Class<?> type;
+        private final int id;
+
+        private Key(Class<?> type, int id) {
+            this.type = type;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return id == key.id && type == key.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * type.hashCode() + id;
+        }
+    }
+
+    private static final class Entry extends WeakReference<BaseEntity> {
+        private final Key key;
+
+        private Entry(Key key, BaseEntity entity, ReferenceQueue<BaseEntity> queue) {
+            super(entity, queue);
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package repository;
+
+import models.Adoptant;
+import models.AdoptionRequest;
+import models.Animal;
+import models.BaseEntity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A decorator that passes every entity read from another {@link IRepository} through an {@link IdentityMap},
+ * so that reading the same entity twice returns the same instance instead of two copies.
+ * Written entities become the canonical instances, and deleted ones are forgotten. A write only replaces the canonical
+ * instance if the wrapped repository accepts it: an add of an ID that is already stored, or an update of one that is
+ * not, leaves the identity map as it was. To tell, each write first checks which of its IDs are stored, from the
+ * identity map where possible and from the wrapped repository otherwise.
+ * Several repositories can share one identity map; an optional linker then replaces the entities
+ * embedded in a freshly read entity with their canonical instances, as {@link #forAdoptionRequests} does.
+ *
+ * @param <T> the type of entity that extends BaseEntity
+ */
+public class IdentityMapRepository<T extends BaseEntity> implements IRepository<T> {
+    private final IRepository<T> delegate;
+    private final IdentityMap identityMap;
+    private final Class<T> type;
+    private final Consumer<? super T> linker; // null when entities hold no references to other entities
+
+    /**
+     * Creates the decorator.
+     *
+     * @param delegate    the repository to read from and write to
+     * @param identityMap the identity map, possibly shared with other repositories
+     * @param type        the entity type, used as part of the identity map key
+     */
+    public IdentityMapRepository(IRepository<T> delegate, IdentityMap identityMap, Class<T> type) {
+        this(delegate, identityMap, type, null);
+    }
+
+    /**
+     * Creates the decorator with a linker for the references held by the entities.
+     *
+     * @param delegate    the repository to read from and write to
+     * @param identityMap the identity map, possibly shared with other repositories
+     * @param type        the entity type, used as part of the identity map key
+     * @param linker      called once for every entity that becomes canonical, or null
+     */
+    public IdentityMapRepository(IRepository<T> delegate, IdentityMap identityMap, Class<T> type, Consumer<? super T> linker) {
+        this.delegate = delegate;
+        this.identityMap = identityMap;
+        this.type = type;
+        this.linker = linker;
+    }
+
+    /**
+     * Creates the decorator for adoption requests that embed their adoptant and animal.
+     * The embedded objects are replaced with the canonical adoptant and animal, so every request
+     * of an adoptant shares one adoptant instance with each other and with the adoptant repository.
+     * Requests stored by reference should instead be decoded with resolvers that read through
+     * identity-mapped adoptant and animal repositories.
+     *
+     * @param delegate    the repository to read from and write to
+     * @param identityMap the identity map shared with the adoptant and animal repositories
+     * @return the decorator
+     */
+    public static IdentityMapRepository<AdoptionRequest> forAdoptionRequests(IRepository<AdoptionRequest> delegate, IdentityMap identityMap) {
+        return new IdentityMapRepository<>(delegate, identityMap, AdoptionRequest.class, request -> {
+            request.setAdoptant(identityMap.canonicalize(Adoptant.class, request.getAdoptant()));
+            request.setAnimal(identityMap.canonicalize(Animal.class, request.getAnimal()));
+        });
+    }
+
+    /**
+     * Adds a new entity and makes it the canonical instance, unless an entity with its ID is already stored.
+     *
+     * @param entity the entity to add
+     */
+    @Override
+    public void add(T entity) {
+        boolean stored = isStored(entity.getId());
+        delegate.add(entity);
+        if (!stored) {
+            identityMap.put(type, entity);
+        }
+    }
+
+    /**
+     * Updates an entity and makes the updated instance the canonical one, if an entity with its ID is stored.
+     *
+     * @param entity the entity with updated data
+     */
+    @Override
+    public void update(T entity) {
+        boolean stored = isStored(entity.getId());
+        delegate.update(entity);
+        if (stored) {
+            identityMap.put(type, entity);
+        }
+    }
+
+    /**
+     * Deletes an entity and forgets its canonical instance.
+     *
+     * @param id the ID of the entity to delete
+     */
+    @Override
+    public void delete(int id) {
+        delegate.delete(id);
+        identityMap.remove(type, id);
+    }
+
+    /**
+     * Adds several entities in one batch and makes them the canonical instances.
+     * Entities whose ID is already stored, or appears earlier in the batch, are not made canonical.
+     *
+     * @param entities the entities to add
+     */
+    @Override
+    public void addAll(Collection<? extends T> entities) {
+        Set<Integer> taken = storedIds(entities);
+        delegate.addAll(entities);
+        for (T entity : entities) {
+            if (taken.add(entity.getId())) {
+                identityMap.put(type, entity);
+            }
+        }
+    }
+
+    /**
+     * Updates several entities in one batch and makes the updated instances the canonical ones.
+     * Entities whose ID is not stored are not made canonical.
+     *
+     * @param entities the entities with updated data
+     */
+    @Override
+    public void updateAll(Collection<? extends T> entities) {
+        Set<Integer> stored = storedIds(entities);
+        delegate.updateAll(entities);
+        for (T entity : entities) {
+            if (stored.contains(entity.getId())) {
+                identityMap.put(type, entity);
+            }
+        }
+    }
+
+    /**
+     * Deletes several entities in one batch and forgets their canonical instances.
+     *
+     * @param ids the IDs of the entities to delete
+     */
+    @Override
+    public void deleteAll(int... ids) {
+        delegate.deleteAll(ids);
+        for (int id : ids) {
+            identityMap.remove(type, id);
+        }
+    }
+
+    /**
+     * Retrieves an entity by its ID, returning the canonical instance if the entity was read before.
+     *
+     * @param id the ID of the entity to retrieve
+     * @return the entity with the given ID, or null if not found
+     */
+    @Override
+    public T getById(int id) {
+        T canonical = identityMap.get(type, id);
+        return canonical != null ? canonical : canonicalize(delegate.getById(id));
+    }
+
+    /**
+     * Retrieves the entities with the given IDs as canonical instances.
+     *
+     * @param ids the IDs of the entities to retrieve
+     * @return the entities that were found
+     */
+    @Override
+    public List<T> getByIds(Collection<Integer> ids) {
+        return delegate.getByIds(ids).stream().map(this::canonicalize).collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieves all entities as canonical instances.
+     *
+     * @return a list of all entities
+     */
+    @Override
+    public List<T> getAll() {
+        return delegate.getAll().stream().map(this::canonicalize).collect(Collectors.toList());
+    }
+
+    /**
+     * Streams over all entities as canonical instances.
+     *
+     * @return a stream of all entities
+     */
+    @Override
+    public Stream<T> scan() {
+        return delegate.scan().map(this::canonicalize);
+    }
+
+    /**
+     * Retrieves one page of entities as canonical instances.
+     *
+     * @param afterId the cursor: only entities with a greater ID are returned
+     * @param limit   the maximum number of entities on the page
+     * @return the page of entities, ordered by ascending ID
+     */
+    @Override
+    public Page<T> page(int afterId, int limit) {
+        Page<T> page = delegate.page(afterId, limit);
+        List<T> items = page.getItems().stream().map(this::canonicalize).collect(Collectors.toList());
+        return new Page<>(items, page.getNextAfterId(), page.hasMore());
+    }
+
+    /**
+     * Registers an index with the wrapped repository.
+     *
+     * @param index the index to register
+     * @param <I>   the type of the index
+     * @return the index maintained under the given name, or null if the wrapped repository does not support indexes
+     */
+    @Override
+    public <I extends RepositoryIndex<T>> I registerIndex(I index) {
+        return delegate.registerIndex(index);
+    }
+
+    /**
+     * Retrieves an index registered with the wrapped repository.
+     *
+     * @param name the name of the index
+     * @return the index, or null if no index with that name is registered
+     */
+    @Override
+    public RepositoryIndex<T> getIndex(String name) {
+        return delegate.getIndex(name);
+    }
+
+    /**
+     * Generates a unique ID for new entities using the wrapped repository.
+     *
+     * @return the next available unique ID
+     */
+    @Override
+    public int generateUniqueId() {
+        return delegate.generateUniqueId();
+    }
+
+    /**
+     * Tells whether an entity with the given ID is stored. A canonical instance means it is,
+     * which saves reading the wrapped repository.
+     */
+    private boolean isStored(int id) {
+        return identityMap.get(type, id) != null || delegate.getById(id) != null;
+    }
+
+    /**
+     * Returns the IDs of the given entities that are stored, reading the wrapped repository
+     * only for those without a canonical instance.
+     */
+    private Set<Integer> storedIds(Collection<? extends T> entities) {
+        Set<Integer> stored = new HashSet<>();
+        List<Integer> unknown = new ArrayList<>();
+        for (T entity : entities) {
+            if (identityMap.get(type, entity.getId()) != null) {
+                stored.add(entity.getId());
+            } else {
+                unknown.add(entity.getId());
+            }
+        }
+        if (!unknown.isEmpty()) {
+            delegate.getByIds(unknown).forEach(entity -> stored.add(entity.getId()));
+        }
+        return stored;
+    }
+
+    /**
+     * Returns the canonical instance of a freshly read entity, linking the entity's references
+     * if it becomes canonical itself.
+     */
+    private T canonicalize(T entity) {
+        T canonical = identityMap.canonicalize(type, entity);
+        if (canonical == entity && entity != null && linker != null) {
+            linker.accept(entity);
+        }
+        return canonical;
+    }
+}
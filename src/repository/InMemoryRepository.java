@@ -1,8 +1,8 @@
 package repository;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 import models.BaseEntity;
 
@@ -10,11 +10,19 @@ import models.BaseEntity;
  * An in-memory implementation of the {@link IRepository} interface for managing entities.
  * This class provides basic CRUD (Create, Read, Update, Delete) operations for objects
  * of type {@code T} that extend the {@link BaseEntity} class.
+ * <p>
+ * Entities are kept in insertion order in a list, and an {@link IntHashIndex} maps each ID
+ * to its position in that list, so lookups, updates and deletes take constant time.
+ * Deleted positions are left empty and the list is compacted once they outnumber the live entities.
+ * Registered indexes are updated before the entity itself, so an index that rejects a change leaves
+ * the repository unchanged.
  *
  * @param <T> The type of entity being managed, which must extend {@link BaseEntity}.
  */
 public class InMemoryRepository<T extends BaseEntity> implements IRepository<T> {
-    private List<T> entities = new ArrayList<>(); // List to store all entities
+    private List<T> entities = new ArrayList<>(); // Entities in insertion order, null where one was deleted
+    private IntHashIndex positions = new IntHashIndex(); // Maps an entity ID to its position in the list
+    private IndexRegistry<T> indexes = new IndexRegistry<>(); // Secondary indexes kept up to date on every change
     private int currentId = 1; // Counter to generate unique IDs for entities
 
     /**
@@ -25,17 +33,32 @@ public class InMemoryRepository<T extends BaseEntity> implements IRepository<T>
      */
     @Override
     public void add(T entity) {
-        boolean exists = entities.stream()
-                .anyMatch(e -> e.getId() == entity.getId());
-
-        if (exists) {
+        if (positions.containsKey(entity.getId())) {
             System.out.println("An entity with this ID already exists.");
         } else {
-            entities.add(entity);
+            store(entity);
             System.out.println("Entity added successfully.");
         }
     }
 
+    /**
+     * Adds several entities to the repository.
+     * Entities whose ID already exists are skipped.
+     *
+     * @param batch The entities to add.
+     */
+    @Override
+    public void addAll(Collection<? extends T> batch) {
+        int added = 0;
+        for (T entity : batch) {
+            if (!positions.containsKey(entity.getId())) {
+                store(entity);
+                added++;
+            }
+        }
+        System.out.println(added + " entities added successfully.");
+    }
+
     /**
      * Retrieves an entity by its ID.
      *
@@ -44,20 +67,24 @@ public class InMemoryRepository<T extends BaseEntity> implements IRepository<T>
      */
     @Override
     public T getById(int id) {
-        Optional<T> entity = entities.stream()
-                .filter(e -> e.getId() == id)
-                .findFirst();
-        return entity.orElse(null);
+        int position = positions.get(id);
+        return position < 0 ? null : entities.get(position);
     }
 
     /**
      * Retrieves all entities in the repository.
      *
-     * @return A list of all entities.
+     * @return A list of all entities, in the order they were added.
      */
     @Override
     public List<T> getAll() {
-        return entities;
+        List<T> all = new ArrayList<>(positions.size());
+        for (T entity : entities) {
+            if (entity != null) {
+                all.add(entity);
+            }
+        }
+        return all;
     }
 
     /**
@@ -68,14 +95,34 @@ public class InMemoryRepository<T extends BaseEntity> implements IRepository<T>
      */
     @Override
     public void update(T entity) {
-        for (int i = 0; i < entities.size(); i++) {
-            if (entities.get(i).getId() == entity.getId()) {
-                entities.set(i, entity);
-                System.out.println("Entity updated successfully.");
-                return;
+        int position = positions.get(entity.getId());
+        if (position >= 0) {
+            indexes.put(entity);
+            entities.set(position, entity);
+            System.out.println("Entity updated successfully.");
+        } else {
+            System.out.println("Entity with the given ID not found.");
+        }
+    }
+
+    /**
+     * Updates several existing entities in the repository.
+     * Entities whose ID is not found are skipped.
+     *
+     * @param batch The updated entities to replace the existing ones.
+     */
+    @Override
+    public void updateAll(Collection<? extends T> batch) {
+        int updated = 0;
+        for (T entity : batch) {
+            int position = positions.get(entity.getId());
+            if (position >= 0) {
+                indexes.put(entity);
+                entities.set(position, entity);
+                updated++;
             }
         }
-        System.out.println("Entity with the given ID not found.");
+        System.out.println(updated + " entities updated successfully.");
     }
 
     /**
@@ -86,14 +133,96 @@ public class InMemoryRepository<T extends BaseEntity> implements IRepository<T>
      */
     @Override
     public void delete(int id) {
-        boolean removed = entities.removeIf(entity -> entity.getId() == id);
-        if (removed) {
+        int position = positions.get(id);
+        if (position >= 0) {
+            indexes.remove(id);
+            positions.remove(id);
+            entities.set(position, null);
+            compactIfSparse();
             System.out.println("Entity deleted successfully.");
         } else {
             System.out.println("Entity with the given ID not found.");
         }
     }
 
+    /**
+     * Deletes several entities from the repository by their IDs.
+     * IDs that are not found are skipped.
+     *
+     * @param ids The IDs of the entities to delete.
+     */
+    @Override
+    public void deleteAll(int... ids) {
+        int deleted = 0;
+        for (int id : ids) {
+            int position = positions.get(id);
+            if (position >= 0) {
+                indexes.remove(id);
+                positions.remove(id);
+                entities.set(position, null);
+                deleted++;
+            }
+        }
+        compactIfSparse();
+        System.out.println(deleted + " entities deleted successfully.");
+    }
+
+    /**
+     * Stores a new entity at the end of the list and indexes its position.
+     * Keeps the ID counter ahead of every stored ID, so generated IDs never collide with explicit ones.
+     *
+     * @param entity The entity to store.
+     */
+    private void store(T entity) {
+        indexes.put(entity);
+        positions.put(entity.getId(), entities.size());
+        entities.add(entity);
+        currentId = Math.max(currentId, entity.getId() + 1);
+    }
+
+    /**
+     * Registers an index that is kept up to date on every add, update and delete.
+     *
+     * @param index The index to register.
+     * @param <I>   The type of the index.
+     * @return The index maintained under the given name.
+     */
+    @Override
+    public <I extends RepositoryIndex<T>> I registerIndex(I index) {
+        return indexes.register(index, this);
+    }
+
+    /**
+     * Retrieves a registered index by its name.
+     *
+     * @param name The name of the index.
+     * @return The index, or null if no index with that name is registered.
+     */
+    @Override
+    public RepositoryIndex<T> getIndex(String name) {
+        return indexes.get(name);
+    }
+
+    /**
+     * Removes the empty positions left by deletions once they outnumber the live entities,
+     * rebuilding the ID index for the new positions. This keeps deletes amortized constant time.
+     */
+    private void compactIfSparse() {
+        int live = positions.size();
+        if (entities.size() - live <= Math.max(live, 16)) {
+            return;
+        }
+        List<T> compacted = new ArrayList<>(live);
+        positions.clear();
+        for (T entity : entities) {
+            if (entity != null) {
+                positions.put(entity.getId(), compacted.size());
+                compacted.add(entity);
+            }
+        }
+        entities = compacted;
+    }
+
     /**
      * Generates a unique ID for new entities.
      * This ID is automatically incremented for each call.
@@ -0,0 +1,57 @@
+package repository;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds the indexes registered with a repository and forwards every change to them.
+ * Used by the repository implementations that support {@link IRepository#registerIndex(RepositoryIndex)}.
+ * Changes are forwarded without taking a registry-wide lock, so concurrent writers only contend
+ * on the indexes themselves.
+ *
+ * @param <T> the type of entity being indexed
+ */
+final class IndexRegistry<T extends Serializable> {
+    private final Map<String, RepositoryIndex<T>> indexes = new LinkedHashMap<>();
+    private volatile List<RepositoryIndex<T>> active = new ArrayList<>(); // Replaced, never modified, on register
+
+    /**
+     * Registers an index and feeds it every entity currently in the repository.
+     * If an index with the same name is already registered, that one is kept and returned.
+     *
+     * @param index  the index to register
+     * @param source the repository whose entities are indexed
+     * @param <I>    the type of the index
+     * @return the index that is maintained under the given name
+     */
+    @SuppressWarnings("unchecked")
+    synchronized <I extends RepositoryIndex<T>> I register(I index, IRepository<? extends T> source) {
+        RepositoryIndex<T> existing = indexes.get(index.getName());
+        if (existing != null) {
+            return (I) existing;
+        }
+        source.forEach(index::onPut);
+        indexes.put(index.getName(), index);
+        active = new ArrayList<>(indexes.values());
+        return index;
+    }
+
+    synchronized RepositoryIndex<T> get(String name) {
+        return indexes.get(name);
+    }
+
+    void put(T entity) {
+        for (RepositoryIndex<T> index : active) {
+            index.onPut(entity);
+        }
+    }
+
+    void remove(int id) {
+        for (RepositoryIndex<T> index : active) {
+            index.onRemove(id);
+        }
+    }
+}
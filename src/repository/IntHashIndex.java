@@ -0,0 +1,179 @@
+package repository;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from int keys to non-negative int values, backed by open addressing with linear probing.
+ * Keys and values are stored in primitive arrays, so lookups and updates never box an {@link Integer}.
+ * Removal uses backward-shift deletion, which keeps probe sequences short without tombstones.
+ */
+public class IntHashIndex {
+    private static final int EMPTY = -1;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] keys;
+    private int[] values; // EMPTY marks a free slot
+    private int size;
+    private int mask;
+
+    /**
+     * Creates an empty index.
+     */
+    public IntHashIndex() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty index that can hold the given number of keys without resizing.
+     *
+     * @param expectedSize the number of keys expected to be stored
+     */
+    public IntHashIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, expectedSize * 2) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Returns the value stored for the given key.
+     *
+     * @param key the key to look up
+     * @return the value, or -1 if the key is not present
+     */
+    public int get(int key) {
+        int slot = hash(key);
+        while (values[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Checks whether the given key is present.
+     *
+     * @param key the key to look up
+     * @return true if the key has a value, false otherwise
+     */
+    public boolean containsKey(int key) {
+        return get(key) != EMPTY;
+    }
+
+    /**
+     * Stores a value for the given key, replacing any previous value.
+     *
+     * @param key   the key
+     * @param value the value to store, must not be negative
+     * @return the previous value, or -1 if the key was not present
+     */
+    public int put(int key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Values must not be negative: " + value);
+        }
+        int slot = hash(key);
+        while (values[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > values.length) {
+            resize(values.length * 2);
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Removes the given key.
+     *
+     * @param key the key to remove
+     * @return the value that was stored, or -1 if the key was not present
+     */
+    public int remove(int key) {
+        int slot = hash(key);
+        while (values[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                shiftBack(slot);
+                size--;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Returns the number of keys in the index.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all keys from the index.
+     */
+    public void clear() {
+        Arrays.fill(values, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * Closes the gap left by a removed slot by moving back the entries of the same probe run
+     * that would otherwise become unreachable.
+     *
+     * @param gap the slot that was just emptied
+     */
+    private void shiftBack(int gap) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (values[slot] == EMPTY) {
+                break;
+            }
+            int home = hash(keys[slot]);
+            // Move the entry if its home slot is not cyclically within (gap, slot]
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        values[gap] = EMPTY;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != EMPTY) {
+                int slot = hash(oldKeys[i]);
+                while (values[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private int hash(int key) {
+        int h = key * 0x9E3779B9; // Fibonacci hashing spreads sequential IDs across the table
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,318 @@
+package repository;
+
+import models.BaseEntity;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * A Bloom filter of the IDs stored in a data file, used to answer lookups of missing IDs
+ * without reading the data file at all.
+ * The filter is sized to the number of stored entities, whatever their IDs are, with about ten bits per ID,
+ * so a lookup of a missing ID reads the data file only about once in a hundred times. A stored ID is never
+ * reported as missing.
+ * <p>
+ * The filter is kept up to date as entities are added and deleted. A Bloom filter cannot forget an ID,
+ * so deleted IDs keep their bits and only make false positives more likely; once the IDs added since
+ * the filter was built outgrow its size, or half of them were deleted again, it is rebuilt from the entities.
+ * <p>
+ * The filter is persisted to a sidecar file together with the size and a CRC-32 checksum of the data file
+ * it describes. A sidecar whose checksum does not match the data file is ignored, so a filter that went stale,
+ * for example because a crash happened between writing the data file and writing the sidecar, is never used,
+ * even if the data file was rewritten with the same size within the same clock tick.
+ * While a filter is in use, changes to the data file are detected from its size, modification time and file key;
+ * every commit replaces the data file with a new file, which has a new file key.
+ */
+public final class LiveIdSet {
+    private static final int MAGIC = 0x4C494432; // "LID2"
+    private static final int BITS_PER_ID = 10;
+    private static final int HASHES = 7; // The best number of hashes for 10 bits per ID: about 1% false positives
+    private static final int MIN_CAPACITY = 64;
+
+    private final long[] words;
+    private final long bitCount;
+    private final int capacity; // The number of IDs the filter is sized for
+    private int added; // IDs added since the filter was built, including those deleted since
+    private int removed; // IDs deleted since the filter was built, whose bits are still set
+    private volatile Stamp stamp; // The state of the data file the filter describes
+
+    private LiveIdSet(long[] words, int capacity, int added, int removed, Stamp stamp) {
+        this.words = words;
+        this.bitCount = (long) words.length * Long.SIZE;
+        this.capacity = capacity;
+        this.added = added;
+        this.removed = removed;
+        this.stamp = stamp;
+    }
+
+    /**
+     * Builds the filter of the given entities' IDs, sized with room for as many again,
+     * and stamped with the current state of the data file.
+     *
+     * @param entities     the entities stored in the data file
+     * @param dataFile     the data file the entities were read from or written to
+     * @param dataChecksum the checksum of the data file, from {@link #checksumOf(Path)} or from writing it
+     * @return the filter of the live IDs
+     */
+    public static LiveIdSet of(Collection<? extends BaseEntity> entities, Path dataFile, long dataChecksum) {
+        int capacity = (int) Math.min(Integer.MAX_VALUE / BITS_PER_ID, Math.max(MIN_CAPACITY, 2L * entities.size()));
+        long[] words = new long[(int) (((long) capacity * BITS_PER_ID + Long.SIZE - 1) / Long.SIZE)];
+        LiveIdSet set = new LiveIdSet(words, capacity, 0, 0, Stamp.of(dataFile, dataChecksum));
+        for (BaseEntity entity : entities) {
+            set.add(entity.getId());
+        }
+        return set;
+    }
+
+    /**
+     * Returns whether an entity with the given ID may be stored.
+     *
+     * @param id the ID to look up
+     * @return false if the ID is certainly not stored; true if it is stored, or in rare cases if it is not
+     */
+    public boolean mightContain(int id) {
+        long hash = mix(id);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = bitOf(hash, i);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records an added ID. Not safe to call concurrently with itself or {@link #remove(int)};
+     * concurrent lookups may or may not see the ID until the call returns.
+     *
+     * @param id the ID of the added entity
+     */
+    public void add(int id) {
+        long hash = mix(id);
+        boolean changed = false;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = bitOf(hash, i);
+            int word = (int) (bit >>> 6);
+            if ((words[word] & (1L << bit)) == 0) {
+                words[word] |= 1L << bit;
+                changed = true;
+            }
+        }
+        if (changed) {
+            added++; // IDs that were already present, or collide with others, do not use up capacity
+        }
+    }
+
+    /**
+     * Records a deleted ID. Its bits stay set, so the ID may still be reported as possibly stored.
+     *
+     * @param id the ID of the deleted entity
+     */
+    public void remove(int id) {
+        if (mightContain(id)) {
+            removed++;
+        }
+    }
+
+    /**
+     * Returns whether the filter should be rebuilt from the entities: either more IDs were added than it was sized
+     * for, so false positives become frequent, or so many were deleted that a good part of it is stale.
+     *
+     * @return true if the filter should be rebuilt
+     */
+    public boolean needsRebuild() {
+        return added > capacity || removed > added / 2;
+    }
+
+    /**
+     * Returns the number of IDs the filter is sized for.
+     *
+     * @return the capacity of the filter
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of IDs added to the filter, including those deleted since.
+     *
+     * @return the number of IDs
+     */
+    public int size() {
+        return added;
+    }
+
+    /**
+     * Returns whether the filter still describes the data file, that is whether the file has the same
+     * size, modification time and file key as when the filter was last stamped. Checking costs one file
+     * status read.
+     *
+     * @param dataFile the data file
+     * @return true if the data file has not changed since the filter was stamped
+     */
+    public boolean matches(Path dataFile) {
+        return stamp.sameFileAs(Stamp.of(dataFile, stamp.checksum));
+    }
+
+    /**
+     * Records that the filter now describes the data file as it is, after the changes made to the filter
+     * were saved to it.
+     *
+     * @param dataFile     the data file
+     * @param dataChecksum the checksum of the data file as it was written
+     */
+    public void restamp(Path dataFile, long dataChecksum) {
+        stamp = Stamp.of(dataFile, dataChecksum);
+    }
+
+    /**
+     * Writes the filter to a sidecar file, replacing it atomically.
+     * The sidecar is not forced to disk: if it is lost or stale, it is simply rebuilt from the data file.
+     *
+     * @param fileName the sidecar file
+     */
+    public void writeTo(String fileName) {
+        Path tempPath = Paths.get(fileName + ".tmp");
+        Stamp current = stamp;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempPath.toFile())))) {
+            out.writeInt(MAGIC);
+            out.writeLong(current.size);
+            out.writeLong(current.checksum);
+            out.writeInt(capacity);
+            out.writeInt(added);
+            out.writeInt(removed);
+            out.writeInt(words.length);
+            for (long word : words) {
+                out.writeLong(word);
+            }
+        } catch (IOException e) {
+            e.printStackTrace(); // Log the exception if something goes wrong
+            return;
+        }
+        try {
+            Files.move(tempPath, Paths.get(fileName), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            e.printStackTrace(); // Log the exception if something goes wrong
+        }
+    }
+
+    /**
+     * Reads a filter from its sidecar file, if the sidecar still describes the data file.
+     * Verifying that costs one sequential read of the data file to compute its checksum, without decoding it.
+     *
+     * @param fileName the sidecar file
+     * @param dataFile the data file the filter must describe
+     * @return the filter, or null if the sidecar does not exist, cannot be read or is stale
+     */
+    public static LiveIdSet readFrom(String fileName, Path dataFile) {
+        if (!Files.exists(Paths.get(fileName))) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName)))) {
+            if (in.readInt() != MAGIC) {
+                return null;
+            }
+            long dataSize = in.readLong();
+            long dataChecksum = in.readLong();
+            int capacity = in.readInt();
+            int added = in.readInt();
+            int removed = in.readInt();
+            int wordCount = in.readInt();
+            if (capacity < MIN_CAPACITY || wordCount != (int) (((long) capacity * BITS_PER_ID + Long.SIZE - 1) / Long.SIZE)) {
+                return null; // Corrupt
+            }
+            long[] words = new long[wordCount];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = in.readLong();
+            }
+            Stamp current = Stamp.of(dataFile, checksumOf(dataFile));
+            if (current.size != dataSize || current.checksum != dataChecksum) {
+                return null;
+            }
+            return new LiveIdSet(words, capacity, added, removed, current);
+        } catch (IOException e) {
+            return null; // Truncated or corrupt: rebuilt from the data file
+        }
+    }
+
+    /**
+     * Computes the CRC-32 checksum of a file's contents.
+     *
+     * @param dataFile the file
+     * @return the checksum, or 0 (the checksum of no bytes) if the file does not exist
+     * @throws IOException if the file exists but cannot be read
+     */
+    public static long checksumOf(Path dataFile) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(dataFile)) {
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                crc.update(buffer, 0, read);
+            }
+        } catch (NoSuchFileException e) {
+            return 0; // Nothing stored yet
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Spreads an ID over 64 bits, so that sequential IDs set unrelated bits.
+     */
+    private static long mix(int id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        h *= 0xD6E8FEB86659FD93L;
+        return h ^ (h >>> 32);
+    }
+
+    /**
+     * Returns the bit set by the i-th hash function, derived from two halves of the mixed ID (double hashing).
+     */
+    private long bitOf(long hash, int i) {
+        long combined = (hash & 0xFFFFFFFFL) + i * ((hash >>> 32) | 1);
+        return combined % bitCount;
+    }
+
+    /**
+     * The state of a data file: size, modification time and file key, and the checksum it was written with.
+     */
+    private static final class Stamp {
+        private final long size;
+        private final long modified; // In nanoseconds, as precise as the file system allows
+        private final Object fileKey; // Identifies the file itself (the inode on Unix), null where not available
+        private final long checksum;
+
+        private Stamp(long size, long modified, Object fileKey, long checksum) {
+            this.size = size;
+            this.modified = modified;
+            this.fileKey = fileKey;
+            this.checksum = checksum;
+        }
+
+        /**
+         * Reads the state of a data file, or -1 for size and time if it does not exist.
+         */
+        private static Stamp of(Path dataFile, long checksum) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(dataFile, BasicFileAttributes.class);
+                return new Stamp(attributes.size(), attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+                        attributes.fileKey(), checksum);
+            } catch (IOException e) {
+                return new Stamp(-1, -1, null, checksum);
+            }
+        }
+
+        private boolean sameFileAs(Stamp other) {
+            return size == other.size && modified == other.modified && Objects.equals(fileKey, other.fileKey);
+        }
+    }
+}
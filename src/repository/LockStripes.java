@@ -0,0 +1,68 @@
+package repository;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A fixed set of read-write locks selected by hashing an int key.
+ * Operations on keys that map to different stripes proceed in parallel, while operations on
+ * the same key are always serialized by the same lock. When several stripes have to be held
+ * at once, they must be acquired in ascending stripe order to avoid deadlocks.
+ */
+public class LockStripes {
+    private final ReentrantReadWriteLock[] locks;
+    private final int mask;
+
+    /**
+     * Creates the lock stripes.
+     *
+     * @param stripes the minimum number of stripes; rounded up to a power of two
+     */
+    public LockStripes(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        locks = new ReentrantReadWriteLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Returns the number of stripes.
+     *
+     * @return the number of stripes
+     */
+    public int size() {
+        return locks.length;
+    }
+
+    /**
+     * Returns the index of the stripe that guards the given key.
+     *
+     * @param key the key
+     * @return the stripe index, between 0 and {@link #size()} - 1
+     */
+    public int stripeOf(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Returns the lock that guards the given key.
+     *
+     * @param key the key
+     * @return the lock of the key's stripe
+     */
+    public ReentrantReadWriteLock forKey(int key) {
+        return locks[stripeOf(key)];
+    }
+
+    /**
+     * Returns the lock of the given stripe.
+     *
+     * @param stripe the stripe index
+     * @return the lock of that stripe
+     */
+    public ReentrantReadWriteLock getStripe(int stripe) {
+        return locks[stripe];
+    }
+}
@@ -0,0 +1,592 @@
+package repository;
+
+import models.BaseEntity;
+import repository.codec.EntityCodec;
+import repository.codec.SerializationCodec;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A file-backed repository that stores entities as an append-only log.
+ * Every mutation appends a single record to the end of the file (a PUT with the serialized entity,
+ * or a DELETE tombstone), so the cost of a write depends only on the size of the entity and not
+ * on the number of entities already stored. The current state is kept in memory and is rebuilt
+ * by replaying the log when the repository is opened.
+ * <p>
+ * To keep the log from growing without bound, it can be compacted: the current log is rotated
+ * aside, and a background thread merges it into a snapshot file that only contains the live
+ * entities. Opening the repository then replays the snapshot plus the short log written since.
+ * The files used are {@code fileName} (the log), {@code fileName.snapshot} and, while a compaction
+ * is running, {@code fileName.compacting}.
+ * <p>
+ * Entities are written with an {@link EntityCodec}; by default standard Java serialization is used.
+ *
+ * @param <T> the type of entity that extends BaseEntity
+ */
+public class LogFileRepository<T extends BaseEntity> implements IRepository<T>, Closeable {
+    private final String fileName;
+    private final EntityCodec<T> codec;
+    private final Path logPath;
+    private final Path snapshotPath;
+    private final Path compactingPath;
+    private final Map<Integer, T> entities = new LinkedHashMap<>(); // Live entities in insertion order
+    private final IndexRegistry<T> indexes = new IndexRegistry<>(); // Secondary indexes kept up to date on every change
+    private int maxId = 0; // Highest ID seen while replaying, used to seed the ID sequence
+    private IdSequence idSequence; // Durable ID sequence, opened once the log has been replayed
+    private FileOutputStream logFile;
+    private DataOutputStream log;
+    private int recordsInLog = 0; // Records appended to the current log since it was started
+    private final AtomicBoolean compacting = new AtomicBoolean(false);
+    private ScheduledExecutorService compactor;
+
+    /**
+     * Constructor for the LogFileRepository. Loads the snapshot and replays the log file
+     * (if they exist) and opens the log for appending new records.
+     * A compaction interrupted by a crash is completed before the log is replayed; if it fails again,
+     * the rotated log is replayed between the snapshot and the log and kept for the next compaction.
+     *
+     * @param fileName the name of the log file where entities are stored
+     * @throws UncheckedIOException if a stored file cannot be read or an entity cannot be decoded
+     */
+    public LogFileRepository(String fileName) {
+        this(fileName, new SerializationCodec<>());
+    }
+
+    /**
+     * Constructor for the LogFileRepository that writes entities with the given codec.
+     *
+     * @param fileName the name of the log file where entities are stored
+     * @param codec    the codec used to encode and decode entities
+     */
+    public LogFileRepository(String fileName, EntityCodec<T> codec) {
+        this.fileName = fileName;
+        this.codec = codec;
+        this.logPath = Paths.get(fileName);
+        this.snapshotPath = Paths.get(fileName + ".snapshot");
+        this.compactingPath = Paths.get(fileName + ".compacting");
+        if (Files.exists(compactingPath)) {
+            mergeIntoSnapshot();
+        }
+        replay(snapshotPath.toFile());
+        replay(compactingPath.toFile()); // Still there only if the merge failed again; its records come before the log's
+        recordsInLog = replay(logPath.toFile());
+        idSequence = new IdSequence(fileName + ".seq", IdSequence.DEFAULT_BLOCK_SIZE, () -> maxId);
+        openLog();
+    }
+
+    /**
+     * Adds a new entity to the repository by appending a PUT record to the log.
+     *
+     * @param entity the entity to add
+     */
+    @Override
+    public synchronized void add(T entity) {
+        put(entity);
+    }
+
+    /**
+     * Updates an existing entity by appending a PUT record to the log.
+     * If no entity with the same ID exists, no update is performed.
+     *
+     * @param entity the entity with updated data
+     */
+    @Override
+    public synchronized void update(T entity) {
+        if (entities.containsKey(entity.getId())) {
+            put(entity);
+        }
+    }
+
+    /**
+     * Deletes an entity by appending a DELETE tombstone to the log.
+     * If no entity with the given ID exists, nothing is written.
+     *
+     * @param id the ID of the entity to delete
+     */
+    @Override
+    public synchronized void delete(int id) {
+        if (entities.containsKey(id) && append(LogRecord.delete(id))) {
+            remove(id);
+        }
+    }
+
+    /**
+     * Adds several entities by appending one PUT record each, with a single fsync for the whole batch.
+     *
+     * @param batch the entities to add
+     */
+    @Override
+    public synchronized void addAll(Collection<? extends T> batch) {
+        putAll(new ArrayList<>(batch));
+    }
+
+    /**
+     * Updates several entities by appending one PUT record each, with a single fsync for the whole batch.
+     * Entities whose ID does not exist are skipped.
+     *
+     * @param batch the entities with updated data
+     */
+    @Override
+    public synchronized void updateAll(Collection<? extends T> batch) {
+        List<T> existing = new ArrayList<>(batch.size());
+        for (T entity : batch) {
+            if (entities.containsKey(entity.getId())) {
+                existing.add(entity);
+            }
+        }
+        putAll(existing);
+    }
+
+    /**
+     * Deletes several entities by appending one DELETE tombstone each, with a single fsync for the whole batch.
+     * IDs that do not exist are skipped.
+     *
+     * @param ids the IDs of the entities to delete
+     */
+    @Override
+    public synchronized void deleteAll(int... ids) {
+        List<LogRecord> records = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            if (entities.containsKey(id)) {
+                records.add(LogRecord.delete(id));
+            }
+        }
+        if (append(records)) {
+            for (LogRecord record : records) {
+                remove(record.getId());
+            }
+        }
+    }
+
+    /**
+     * Retrieves an entity by its ID.
+     *
+     * @param id the ID of the entity to retrieve
+     * @return the entity with the given ID, or null if not found
+     */
+    @Override
+    public synchronized T getById(int id) {
+        return entities.get(id);
+    }
+
+    /**
+     * Retrieves all live entities.
+     *
+     * @return a list of all entities, in the order they were first added
+     */
+    @Override
+    public synchronized List<T> getAll() {
+        return new ArrayList<>(entities.values());
+    }
+
+    /**
+     * Registers an index that is kept up to date on every add, update and delete.
+     *
+     * @param index the index to register
+     * @param <I>   the type of the index
+     * @return the index maintained under the given name
+     */
+    @Override
+    public synchronized <I extends RepositoryIndex<T>> I registerIndex(I index) {
+        return indexes.register(index, this);
+    }
+
+    /**
+     * Retrieves a registered index by its name.
+     *
+     * @param name the name of the index
+     * @return the index, or null if no index with that name is registered
+     */
+    @Override
+    public synchronized RepositoryIndex<T> getIndex(String name) {
+        return indexes.get(name);
+    }
+
+    /**
+     * Generates a unique ID for new entities from a durable {@link IdSequence}
+     * stored in the sidecar file {@code fileName.seq}. Each call hands out a new ID.
+     *
+     * @return the next available unique ID
+     */
+    @Override
+    public int generateUniqueId() {
+        return idSequence.next();
+    }
+
+    /**
+     * Starts a background thread that compacts the log whenever it holds at least
+     * {@code recordThreshold} records. Compaction never blocks add, update or delete
+     * for longer than it takes to rotate the log file.
+     *
+     * @param interval        how often to check whether the log needs compacting
+     * @param unit            the time unit of the interval
+     * @param recordThreshold the number of log records that triggers a compaction
+     */
+    public synchronized void startBackgroundCompaction(long interval, TimeUnit unit, int recordThreshold) {
+        if (compactor != null) {
+            return; // Already running
+        }
+        compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "log-compactor-" + fileName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(() -> {
+            if (getRecordsInLog() >= recordThreshold) {
+                compact();
+            }
+        }, interval, interval, unit);
+    }
+
+    /**
+     * Compacts the log on the calling thread: the current log is rotated aside and merged,
+     * together with the previous snapshot, into a new snapshot holding only the live entities.
+     * The new snapshot replaces the old one atomically, so a crash at any point leaves
+     * a state from which the repository can be reopened. A rotated log left over by a failed merge
+     * is merged first; the log is not rotated again until that has succeeded.
+     *
+     * @return true if a compaction was performed, false if another one was already running or the merge failed
+     */
+    public boolean compact() {
+        if (!compacting.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            if (Files.exists(compactingPath) && !mergeIntoSnapshot()) {
+                return false; // Retry the failed merge before rotating over its file
+            }
+            return rotateLog() && mergeIntoSnapshot();
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    /**
+     * Returns the number of records appended to the current log since it was last rotated.
+     *
+     * @return the number of records in the current log
+     */
+    public synchronized int getRecordsInLog() {
+        return recordsInLog;
+    }
+
+    /**
+     * Stops the background compaction (waiting for a running one to finish)
+     * and closes the underlying log file. The repository must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        if (compactor != null) {
+            compactor.shutdown();
+            try {
+                compactor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            try {
+                log.close();
+            } catch (IOException e) {
+                e.printStackTrace(); // Log the exception if something goes wrong
+            }
+        }
+    }
+
+    /**
+     * Serializes the entity, appends it to the log and applies it to the in-memory state.
+     * The in-memory state is only changed once the record has been written.
+     *
+     * @param entity the entity to store
+     */
+    private void put(T entity) {
+        byte[] payload = serialize(entity);
+        if (payload != null && append(LogRecord.put(entity.getId(), payload))) {
+            apply(entity);
+        }
+    }
+
+    /**
+     * Serializes a batch of entities, appends them to the log and applies them to the in-memory state.
+     * Nothing is applied unless the whole batch was written.
+     *
+     * @param batch the entities to store
+     */
+    private void putAll(List<T> batch) {
+        List<LogRecord> records = new ArrayList<>(batch.size());
+        for (T entity : batch) {
+            byte[] payload = serialize(entity);
+            if (payload == null) {
+                return;
+            }
+            records.add(LogRecord.put(entity.getId(), payload));
+        }
+        if (append(records)) {
+            batch.forEach(this::apply);
+        }
+    }
+
+    /**
+     * Appends a record to the end of the log and forces it to disk.
+     *
+     * @param record the record to append
+     * @return true if the record was written, false otherwise
+     */
+    private boolean append(LogRecord record) {
+        return append(Collections.singletonList(record));
+    }
+
+    /**
+     * Appends records to the end of the log and forces them to disk with a single fsync.
+     *
+     * @param records the records to append
+     * @return true if the records were written, false otherwise
+     */
+    private boolean append(List<LogRecord> records) {
+        if (records.isEmpty()) {
+            return true;
+        }
+        long lengthBefore = -1;
+        try {
+            lengthBefore = logFile.getChannel().size(); // Nothing is buffered: every append is flushed
+            for (LogRecord record : records) {
+                record.writeTo(log);
+            }
+            log.flush();
+            logFile.getFD().sync();
+            recordsInLog += records.size();
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace(); // Log the exception if something goes wrong
+            discardPartialAppend(lengthBefore);
+            return false;
+        }
+    }
+
+    /**
+     * Cuts a failed append off the end of the log and reopens it, so the next records do not follow
+     * a partially written batch that would end the log when it is replayed.
+     *
+     * @param length the length of the log before the failed append, or -1 if it is unknown
+     */
+    private void discardPartialAppend(long length) {
+        try {
+            log.close(); // Drops whatever is still buffered
+        } catch (IOException e) {
+            e.printStackTrace(); // Log the exception if something goes wrong
+        }
+        if (length >= 0) {
+            try (RandomAccessFile raf = new RandomAccessFile(logPath.toFile(), "rw")) {
+                raf.setLength(length);
+            } catch (IOException e) {
+                e.printStackTrace(); // Log the exception if something goes wrong
+            }
+        }
+        openLog();
+    }
+
+    private void apply(T entity) {
+        entities.put(entity.getId(), entity);
+        indexes.put(entity);
+        maxId = Math.max(maxId, entity.getId());
+        if (idSequence != null) {
+            idSequence.advancePast(entity.getId()); // Keep generated IDs clear of explicitly chosen ones
+        }
+    }
+
+    private void remove(int id) {
+        entities.remove(id);
+        indexes.remove(id);
+    }
+
+    /**
+     * Applies every record of the given file to the in-memory state.
+     * A torn or corrupt record (left by a crash during a write) is discarded together with
+     * everything after it, and the file is truncated back to the last intact record.
+     *
+     * @param file the snapshot or log file to replay
+     * @return the number of records replayed
+     */
+    private int replay(File file) {
+        return readRecords(file, record -> {
+            if (record.isPut()) {
+                apply(deserialize(record.getPayload()));
+            } else {
+                remove(record.getId());
+            }
+        });
+    }
+
+    /**
+     * Closes the current log, moves it aside as the file to be compacted and starts a new, empty log.
+     * Refuses to rotate while a previously rotated log has not been merged yet, since moving over it
+     * would destroy its records.
+     *
+     * @return true if the log was rotated, false if it could not be
+     */
+    private synchronized boolean rotateLog() {
+        if (Files.exists(compactingPath)) {
+            return false;
+        }
+        try {
+            log.close();
+            Files.move(logPath, compactingPath, StandardCopyOption.ATOMIC_MOVE);
+            recordsInLog = 0;
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace(); // Log the exception if something goes wrong
+            return false;
+        } finally {
+            openLog();
+        }
+    }
+
+    /**
+     * Merges the rotated log into the snapshot. Works only on the raw records in the files,
+     * so it never touches the in-memory entities and can run concurrently with writers.
+     * The new snapshot is written to a temporary file, forced to disk and then atomically
+     * renamed over the old one; the rotated log is deleted last.
+     *
+     * @return true if the rotated log was merged and deleted, false if it is kept for another attempt
+     */
+    private boolean mergeIntoSnapshot() {
+        Map<Integer, byte[]> live = new LinkedHashMap<>();
+        LogRecordConsumer merge = record -> {
+            if (record.isPut()) {
+                live.put(record.getId(), record.getPayload());
+            } else {
+                live.remove(record.getId());
+            }
+        };
+        try {
+            readRecords(snapshotPath.toFile(), merge);
+            readRecords(compactingPath.toFile(), merge);
+        } catch (UncheckedIOException e) {
+            e.printStackTrace(); // Log the exception if something goes wrong
+            return false; // Keep the rotated log, the merge is retried on the next open
+        }
+
+        Path tempPath = Paths.get(snapshotPath + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tempPath.toFile());
+             DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out))) {
+            for (Map.Entry<Integer, byte[]> entry : live.entrySet()) {
+                LogRecord.put(entry.getKey(), entry.getValue()).writeTo(data);
+            }
+            data.flush();
+            out.getFD().sync();
+        } catch (IOException e) {
+            e.printStackTrace(); // Log the exception if something goes wrong
+            return false; // Keep the rotated log, the merge is retried on the next open
+        }
+        try {
+            Files.move(tempPath, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            Files.delete(compactingPath);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace(); // Log the exception if something goes wrong
+            return false;
+        }
+    }
+
+    /**
+     * Reads every complete record of a snapshot or log file and passes it to the consumer.
+     * A record that cannot be read back intact (torn by a crash during a write, or failing its checksum)
+     * ends the file: it and everything after it are dropped and the file is truncated back to the last
+     * intact record, so that new records are never appended after bytes that cannot be replayed.
+     *
+     * @param file     the file to read; a missing file is treated as empty
+     * @param consumer receives each record in file order
+     * @return the number of records read
+     * @throws UncheckedIOException if the file cannot be read, or an intact record cannot be decoded
+     */
+    private int readRecords(File file, LogRecordConsumer consumer) {
+        if (!file.exists()) {
+            return 0; // Nothing stored yet
+        }
+        int count = 0;
+        long fileLength = file.length();
+        long validLength = 0;
+        boolean torn = false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                LogRecord record;
+                try {
+                    record = LogRecord.readFrom(in, fileLength - validLength);
+                } catch (IOException e) {
+                    if (!(e instanceof EOFException)) {
+                        e.printStackTrace(); // Log the exception if something goes wrong
+                    }
+                    torn = true; // The record is torn or corrupt, it is dropped below
+                    break;
+                }
+                if (record == null) {
+                    break;
+                }
+                try {
+                    consumer.accept(record);
+                } catch (IOException | ClassNotFoundException e) {
+                    // The record is intact, so truncating here would destroy data that is merely not decodable
+                    throw new UncheckedIOException("Cannot decode the record for ID " + record.getId() + " in " + file,
+                            e instanceof IOException ? (IOException) e : new IOException(e));
+                }
+                validLength += record.encodedSize();
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + file, e);
+        }
+        if (torn) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(validLength);
+            } catch (IOException e) {
+                e.printStackTrace(); // Log the exception if something goes wrong
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Callback used while reading records, allowed to fail while decoding a payload.
+     */
+    private interface LogRecordConsumer {
+        void accept(LogRecord record) throws IOException, ClassNotFoundException;
+    }
+
+    private void openLog() {
+        try {
+            logFile = new FileOutputStream(fileName, true);
+            log = new DataOutputStream(new BufferedOutputStream(logFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open log file " + fileName, e);
+        }
+    }
+
+    private byte[] serialize(T entity) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            codec.encode(entity, out);
+        } catch (IOException e) {
+            e.printStackTrace(); // Log the exception if something goes wrong
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    private T deserialize(byte[] payload) throws IOException {
+        return codec.decode(new DataInputStream(new ByteArrayInputStream(payload)));
+    }
+}
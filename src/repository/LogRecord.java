@@ -0,0 +1,154 @@
+package repository;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.zip.CRC32;
+
+/**
+ * A single entry of an append-only repository log.
+ * A record is either a PUT, carrying the serialized form of an entity, or a DELETE tombstone
+ * that only carries the ID of the removed entity.
+ * The on-disk layout is: operation (1 byte), entity ID (4 bytes), and for PUT records
+ * the payload length (4 bytes) followed by the payload bytes, then a CRC-32 of all preceding
+ * bytes of the record (4 bytes). Records written before the checksum was introduced use their own
+ * operation codes and have no checksum; they can still be read.
+ */
+final class LogRecord {
+    static final byte PUT = 3;
+    static final byte DELETE = 4;
+    private static final byte LEGACY_PUT = 1; // Written without a checksum
+    private static final byte LEGACY_DELETE = 2; // Written without a checksum
+
+    private final byte operation;
+    private final int id;
+    private final byte[] payload;
+    private final int encodedSize;
+
+    private LogRecord(byte operation, int id, byte[] payload, int encodedSize) {
+        this.operation = operation;
+        this.id = id;
+        this.payload = payload;
+        this.encodedSize = encodedSize;
+    }
+
+    /**
+     * Creates a PUT record for the entity with the given ID.
+     *
+     * @param id      the ID of the entity
+     * @param payload the serialized entity
+     * @return the new record
+     */
+    static LogRecord put(int id, byte[] payload) {
+        return new LogRecord(PUT, id, payload, 13 + payload.length);
+    }
+
+    /**
+     * Creates a DELETE tombstone for the entity with the given ID.
+     *
+     * @param id the ID of the deleted entity
+     * @return the new record
+     */
+    static LogRecord delete(int id) {
+        return new LogRecord(DELETE, id, null, 9);
+    }
+
+    boolean isPut() {
+        return operation == PUT;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    byte[] getPayload() {
+        return payload;
+    }
+
+    /**
+     * Returns the number of bytes this record occupies on disk.
+     *
+     * @return the encoded size of the record
+     */
+    int encodedSize() {
+        return encodedSize;
+    }
+
+    /**
+     * Writes this record, followed by its checksum, to the given stream.
+     *
+     * @param out the stream to write to
+     * @throws IOException if the record cannot be written
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeByte(operation);
+        out.writeInt(id);
+        if (isPut()) {
+            out.writeInt(payload.length);
+            out.write(payload);
+        }
+        out.writeInt(checksum(operation, id, payload));
+    }
+
+    /**
+     * Reads the next record from the given stream and verifies its checksum.
+     * The payload length is checked against the number of bytes left in the file before anything is
+     * allocated, so a corrupt length cannot cause a huge or negative allocation.
+     *
+     * @param in        the stream to read from
+     * @param remaining the number of bytes left in the file, including this record
+     * @return the record, or null if the stream ended cleanly before a new record started
+     * @throws EOFException if the stream ends in the middle of a record (a torn write)
+     * @throws IOException  if the record cannot be read or is corrupt
+     */
+    static LogRecord readFrom(DataInputStream in, long remaining) throws IOException {
+        int operation = in.read();
+        if (operation == -1) {
+            return null;
+        }
+        boolean checked = operation == PUT || operation == DELETE;
+        boolean put = operation == PUT || operation == LEGACY_PUT;
+        if (!put && operation != DELETE && operation != LEGACY_DELETE) {
+            throw new IOException("Corrupt log record with operation " + operation);
+        }
+        int id = in.readInt();
+        int size = checked ? 9 : 5;
+        byte[] payload = null;
+        if (put) {
+            int length = in.readInt();
+            size += 4;
+            if (length < 0 || length > remaining - size) {
+                throw new IOException("Corrupt log record with length " + length);
+            }
+            payload = new byte[length];
+            in.readFully(payload);
+            size += length;
+        }
+        if (checked && in.readInt() != checksum((byte) operation, id, payload)) {
+            throw new IOException("Corrupt log record for ID " + id + ": checksum mismatch");
+        }
+        return new LogRecord(put ? PUT : DELETE, id, payload, size);
+    }
+
+    /**
+     * Computes the CRC-32 of a record's operation, ID and, for PUT records, payload length and payload.
+     */
+    private static int checksum(byte operation, int id, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(operation);
+        updateInt(crc, id);
+        if (payload != null) {
+            updateInt(crc, payload.length);
+            crc.update(payload);
+        }
+        return (int) crc.getValue();
+    }
+
+    private static void updateInt(CRC32 crc, int value) {
+        crc.update(value >>> 24);
+        crc.update(value >>> 16);
+        crc.update(value >>> 8);
+        crc.update(value);
+    }
+}
@@ -0,0 +1,70 @@
+package repository;
+
+import java.util.List;
+
+/**
+ * One page of entities returned by a keyset (cursor) query.
+ * Pages are ordered by ascending entity ID; the ID of the last entity on a page
+ * is the cursor used to request the next one.
+ *
+ * @param <T> the type of entity on the page
+ */
+public class Page<T> {
+    /**
+     * Cursor that requests the first page.
+     */
+    public static final int START = Integer.MIN_VALUE;
+
+    private final List<T> items;
+    private final int nextAfterId;
+    private final boolean hasMore;
+
+    /**
+     * Constructor for creating a page.
+     *
+     * @param items       the entities on this page, ordered by ID
+     * @param nextAfterId the cursor to pass to request the next page
+     * @param hasMore     whether more entities follow this page
+     */
+    public Page(List<T> items, int nextAfterId, boolean hasMore) {
+        this.items = items;
+        this.nextAfterId = nextAfterId;
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * Returns the entities on this page.
+     *
+     * @return the entities, ordered by ID
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Returns the cursor for the next page (the ID of the last entity on this page).
+     *
+     * @return the cursor to pass as {@code afterId} for the next page
+     */
+    public int getNextAfterId() {
+        return nextAfterId;
+    }
+
+    /**
+     * Returns whether more entities follow this page.
+     *
+     * @return true if there is a next page, false otherwise
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    /**
+     * Returns whether this page has no entities.
+     *
+     * @return true if the page is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+}
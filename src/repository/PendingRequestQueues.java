@@ -0,0 +1,145 @@
+package repository;
+
+import models.AdoptionRequest;
+import models.AdoptionRequestStatus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The review queues of pending adoption requests: one FIFO queue per animal, in the order the requests
+ * became pending, and one global queue ordered by request date (then by ID) for "what to review next".
+ * A request joins the queues when it is stored as pending and leaves them as soon as it is approved,
+ * rejected or deleted. The next request to review, the pending requests of an animal and the queue depths
+ * are read without touching the repository; the head of the global queue is kept at hand, so reading it is O(1).
+ */
+public class PendingRequestQueues extends RepositoryIndex<AdoptionRequest> {
+    /**
+     * The name the queues are registered under.
+     */
+    public static final String NAME = "adoptionRequest.pending";
+
+    private final Map<Integer, Set<Integer>> queuesByAnimal = new HashMap<>(); // Animal ID to request IDs, FIFO
+    private final TreeSet<Entry> reviewQueue = new TreeSet<>(); // All pending requests by date, then ID
+    private final Map<Integer, Entry> entriesById = new HashMap<>();
+    private Entry head; // First entry of the review queue, null when it is empty
+
+    /**
+     * Creates empty queues, filled when they are registered with a request repository.
+     */
+    public PendingRequestQueues() {
+        super(NAME);
+    }
+
+    /**
+     * Returns the pending request that should be reviewed next: the one with the earliest request date.
+     *
+     * @return the ID of the request, or -1 if no request is pending
+     */
+    public synchronized int next() {
+        return head != null ? head.requestId : -1;
+    }
+
+    /**
+     * Returns the pending requests for an animal, oldest first.
+     *
+     * @param animalId the ID of the animal
+     * @return the IDs of the pending requests; empty if there are none
+     */
+    public synchronized List<Integer> pendingForAnimal(int animalId) {
+        Set<Integer> queue = queuesByAnimal.get(animalId);
+        return queue == null ? Collections.emptyList() : new ArrayList<>(queue);
+    }
+
+    /**
+     * Returns the number of pending requests.
+     *
+     * @return the depth of the review queue
+     */
+    public synchronized int depth() {
+        return entriesById.size();
+    }
+
+    /**
+     * Returns the number of pending requests for an animal.
+     *
+     * @param animalId the ID of the animal
+     * @return the depth of the animal's queue
+     */
+    public synchronized int depth(int animalId) {
+        Set<Integer> queue = queuesByAnimal.get(animalId);
+        return queue == null ? 0 : queue.size();
+    }
+
+    @Override
+    protected synchronized void onPut(AdoptionRequest request) {
+        Entry previous = entriesById.get(request.getId());
+        if (request.getStatus() != AdoptionRequestStatus.PENDING) {
+            if (previous != null) {
+                unlink(previous);
+            }
+            return;
+        }
+        Entry entry = new Entry(request);
+        if (previous != null) {
+            if (previous.animalId == entry.animalId && previous.time == entry.time) {
+                return; // Still pending for the same animal: keep its place in the queues
+            }
+            unlink(previous);
+        }
+        entriesById.put(entry.requestId, entry);
+        queuesByAnimal.computeIfAbsent(entry.animalId, key -> new LinkedHashSet<>()).add(entry.requestId);
+        reviewQueue.add(entry);
+        if (head == null || entry.compareTo(head) < 0) {
+            head = entry;
+        }
+    }
+
+    @Override
+    protected synchronized void onRemove(int id) {
+        Entry entry = entriesById.get(id);
+        if (entry != null) {
+            unlink(entry);
+        }
+    }
+
+    private void unlink(Entry entry) {
+        entriesById.remove(entry.requestId);
+        Set<Integer> queue = queuesByAnimal.get(entry.animalId);
+        queue.remove(entry.requestId);
+        if (queue.isEmpty()) {
+            queuesByAnimal.remove(entry.animalId);
+        }
+        reviewQueue.remove(entry);
+        if (entry == head) {
+            head = reviewQueue.isEmpty() ? null : reviewQueue.first();
+        }
+    }
+
+    /**
+     * A pending request's place in the review queue.
+     */
+    private static final class Entry implements Comparable<Entry> {
+        private final int requestId;
+        private final int animalId;
+        private final long time; // Request date in milliseconds; requests without a date are reviewed last
+
+        private Entry(AdoptionRequest request) {
+            this.requestId = request.getId();
+            this.animalId = request.getAnimalId();
+            this.time = request.getRequestDate() != null ? request.getRequestDate().getTime() : Long.MAX_VALUE;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Integer.compare(requestId, other.requestId);
+        }
+    }
+}
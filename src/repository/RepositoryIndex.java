@@ -0,0 +1,46 @@
+package repository;
+
+/**
+ * Base class for indexes that a repository keeps up to date as entities are added, updated and deleted.
+ * Once an index is registered with {@link IRepository#registerIndex(RepositoryIndex)}, the repository
+ * feeds it every existing entity and then every change, so the index can answer its queries
+ * without scanning the repository.
+ *
+ * @param <T> the type of entity being indexed
+ */
+public abstract class RepositoryIndex<T> {
+    private final String name;
+
+    /**
+     * Constructor for a repository index.
+     *
+     * @param name the name the index is registered under; unique within a repository
+     */
+    protected RepositoryIndex(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the name the index is registered under.
+     *
+     * @return the name of the index
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Called when an entity is added, or when an entity with the same ID is replaced by an update.
+     *
+     * @param entity the new state of the entity
+     */
+    protected abstract void onPut(T entity);
+
+    /**
+     * Called when the entity with the given ID is deleted.
+     * Called for IDs the index has never seen as well, which must be ignored.
+     *
+     * @param id the ID of the deleted entity
+     */
+    protected abstract void onRemove(int id);
+}
@@ -0,0 +1,85 @@
+package repository;
+
+import models.BaseEntity;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * An equality index over a derived key of an entity, such as an animal's status or a veterinarian's specialization.
+ * It maps each key to the IDs of the entities that have it, so a lookup costs time proportional
+ * to the number of matches instead of a scan of the whole repository.
+ * The index remembers the key each ID was last indexed under, so updates move an entity between keys
+ * even if the entity object was modified in place.
+ *
+ * @param <T> the type of entity being indexed
+ * @param <K> the type of the key
+ */
+public class SecondaryIndex<T extends BaseEntity, K> extends RepositoryIndex<T> {
+    private final Function<? super T, ? extends K> keyExtractor;
+    private final Map<K, Set<Integer>> idsByKey = new HashMap<>();
+    private final Map<Integer, K> keyById = new HashMap<>();
+
+    /**
+     * Constructor for a secondary index.
+     *
+     * @param name         the name the index is registered under
+     * @param keyExtractor derives the indexed key from an entity; case-fold or normalize here if lookups should
+     */
+    public SecondaryIndex(String name, Function<? super T, ? extends K> keyExtractor) {
+        super(name);
+        this.keyExtractor = keyExtractor;
+    }
+
+    /**
+     * Returns the IDs of the entities whose key equals the given key.
+     *
+     * @param key the key to look up, normalized the same way as the key extractor does
+     * @return the matching IDs in the order they were indexed; empty if there are none
+     */
+    public synchronized List<Integer> lookup(K key) {
+        Set<Integer> ids = idsByKey.get(key);
+        return ids == null ? Collections.emptyList() : new ArrayList<>(ids);
+    }
+
+    /**
+     * Returns the number of entities whose key equals the given key.
+     *
+     * @param key the key to count
+     * @return the number of matching entities
+     */
+    public synchronized int count(K key) {
+        Set<Integer> ids = idsByKey.get(key);
+        return ids == null ? 0 : ids.size();
+    }
+
+    @Override
+    protected synchronized void onPut(T entity) {
+        K key = keyExtractor.apply(entity);
+        int id = entity.getId();
+        if (keyById.containsKey(id)) {
+            K previous = keyById.get(id);
+            if (Objects.equals(previous, key)) {
+                return; // Key unchanged
+            }
+            unlink(id, previous);
+        }
+        keyById.put(id, key);
+        idsByKey.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(id);
+    }
+
+    @Override
+    protected synchronized void onRemove(int id) {
+        if (keyById.containsKey(id)) {
+            unlink(id, keyById.remove(id));
+        }
+    }
+
+    private void unlink(int id, K key) {
+        Set<Integer> ids = idsByKey.get(key);
+        ids.remove(id);
+        if (ids.isEmpty()) {
+            idsByKey.remove(key);
+        }
+    }
+}
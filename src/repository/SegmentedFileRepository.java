@@ -0,0 +1,571 @@
+package repository;
+
+import models.BaseEntity;
+import repository.codec.EntityCodec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.OptionalInt;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A file-backed implementation of the {@link IRepository} interface that splits the entities over
+ * several segment files by ID range: segment {@code n} holds the IDs from {@code n * segmentSize}
+ * to {@code (n + 1) * segmentSize - 1} and is stored as a {@link FileRepository} in {@code segment-n.dat}.
+ * The segment files are storage only: IDs are generated from one sequence for the whole store, in {@code ids.seq}.
+ * <ul>
+ *     <li>Single-entity operations read and rewrite only the segment that owns the ID.</li>
+ *     <li>A segment is loaded into memory the first time it is used; segments that are never used stay on disk.
+ *     At most a given number of segments are held in memory; beyond that, the least recently used one is unloaded.
+ *     Optionally, existing segments are loaded in parallel, up to that limit, when the repository is opened.</li>
+ *     <li>{@link #scan()} walks the segments in ID order and decodes segments that are not loaded
+ *     straight from disk, without keeping them in memory.</li>
+ *     <li>Batch operations write each touched segment once; they are atomic per segment, not across segments.</li>
+ * </ul>
+ *
+ * @param <T> the type of entity that extends BaseEntity
+ */
+public class SegmentedFileRepository<T extends BaseEntity> implements IRepository<T> {
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+    private static final int DEFAULT_MAX_LOADED_SEGMENTS = 64;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final EntityCodec<T> codec; // null when segments are stored with Java serialization
+    private final ConcurrentSkipListMap<Integer, Segment<T>> segments = new ConcurrentSkipListMap<>();
+    private final IndexRegistry<T> indexes = new IndexRegistry<>();
+    private final IdSequence idSequence;
+    private final int maxLoadedSegments;
+    private final LinkedHashMap<Integer, Segment<T>> loadedSegments = new LinkedHashMap<>(16, 0.75f, true); // In access order, guarded by itself
+    private final ReentrantReadWriteLock registration = new ReentrantReadWriteLock(); // Read-locked by writers, write-locked while an index is built
+
+    /**
+     * Opens the segmented store in the given directory, storing entities with Java serialization
+     * and loading segments on first use.
+     *
+     * @param directory   the directory holding the segment files; created if it does not exist
+     * @param segmentSize the number of IDs covered by each segment
+     */
+    public SegmentedFileRepository(String directory, int segmentSize) {
+        this(directory, segmentSize, null, false);
+    }
+
+    /**
+     * Opens the segmented store in the given directory, holding at most the default number of segments in memory.
+     *
+     * @param directory   the directory holding the segment files; created if it does not exist
+     * @param segmentSize the number of IDs covered by each segment
+     * @param codec       the codec used to encode and decode entities, or null for Java serialization
+     * @param preload     whether to load existing segments right away, in parallel
+     * @throws UncheckedIOException if the directory cannot be created or listed
+     */
+    public SegmentedFileRepository(String directory, int segmentSize, EntityCodec<T> codec, boolean preload) {
+        this(directory, segmentSize, codec, preload, DEFAULT_MAX_LOADED_SEGMENTS);
+    }
+
+    /**
+     * Opens the segmented store in the given directory.
+     *
+     * @param directory   the directory holding the segment files; created if it does not exist
+     * @param segmentSize the number of IDs covered by each segment
+     * @param codec       the codec used to encode and decode entities, or null for Java serialization
+     * @param preload           whether to load existing segments right away, in parallel, up to the limit
+     * @param maxLoadedSegments the number of segments held in memory at most
+     * @throws UncheckedIOException if the directory cannot be created or listed
+     */
+    public SegmentedFileRepository(String directory, int segmentSize, EntityCodec<T> codec, boolean preload, int maxLoadedSegments) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive: " + segmentSize);
+        }
+        if (maxLoadedSegments <= 0) {
+            throw new IllegalArgumentException("The number of loaded segments must be positive: " + maxLoadedSegments);
+        }
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSize;
+        this.codec = codec;
+        this.maxLoadedSegments = maxLoadedSegments;
+        try {
+            Files.createDirectories(this.directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    int index;
+                    try {
+                        index = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                    } catch (NumberFormatException e) {
+                        continue; // Not a segment file, such as a copy made by hand
+                    }
+                    segments.put(index, openSegment(index));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open segments in " + directory, e);
+        }
+        if (preload) {
+            List<Segment<T>> preloaded = segments.values().stream().limit(maxLoadedSegments).collect(Collectors.toList());
+            preloaded.parallelStream().forEach(Segment::load);
+            preloaded.forEach(this::touched);
+        }
+        idSequence = new IdSequence(this.directory.resolve("ids.seq").toString(), IdSequence.DEFAULT_BLOCK_SIZE, this::highestStoredId);
+    }
+
+    /**
+     * Adds a new entity to the segment that owns its ID.
+     * If an entity with the same ID already exists, it is not added.
+     *
+     * @param entity the entity to add
+     */
+    @Override
+    public void add(T entity) {
+        Segment<T> segment = segmentFor(entity.getId());
+        boolean added;
+        registration.readLock().lock();
+        try {
+            added = segment.add(entity);
+        } finally {
+            registration.readLock().unlock();
+        }
+        touched(segment);
+        if (added) {
+            idSequence.advancePast(entity.getId());
+        }
+    }
+
+    /**
+     * Updates an existing entity in the segment that owns its ID.
+     * If no entity with the same ID exists, no update is performed.
+     *
+     * @param entity the entity with updated data
+     */
+    @Override
+    public void update(T entity) {
+        Segment<T> segment = segments.get(indexOf(entity.getId()));
+        if (segment != null) {
+            registration.readLock().lock();
+            try {
+                segment.update(entity);
+            } finally {
+                registration.readLock().unlock();
+            }
+            touched(segment);
+        }
+    }
+
+    /**
+     * Deletes an entity from the segment that owns its ID.
+     *
+     * @param id the ID of the entity to delete
+     */
+    @Override
+    public void delete(int id) {
+        Segment<T> segment = segments.get(indexOf(id));
+        if (segment != null) {
+            registration.readLock().lock();
+            try {
+                segment.delete(id);
+            } finally {
+                registration.readLock().unlock();
+            }
+            touched(segment);
+        }
+    }
+
+    /**
+     * Adds several entities, writing each touched segment once.
+     *
+     * @param batch the entities to add
+     */
+    @Override
+    public void addAll(Collection<? extends T> batch) {
+        for (Map.Entry<Integer, List<T>> group : groupBySegment(batch).entrySet()) {
+            Segment<T> segment = segmentAt(group.getKey());
+            List<T> added;
+            registration.readLock().lock();
+            try {
+                added = segment.addAll(group.getValue());
+            } finally {
+                registration.readLock().unlock();
+            }
+            touched(segment);
+            for (T entity : added) {
+                idSequence.advancePast(entity.getId());
+            }
+        }
+    }
+
+    /**
+     * Updates several entities, writing each touched segment once.
+     *
+     * @param batch the entities with updated data
+     */
+    @Override
+    public void updateAll(Collection<? extends T> batch) {
+        for (Map.Entry<Integer, List<T>> group : groupBySegment(batch).entrySet()) {
+            Segment<T> segment = segments.get(group.getKey());
+            if (segment != null) {
+                registration.readLock().lock();
+                try {
+                    segment.updateAll(group.getValue());
+                } finally {
+                    registration.readLock().unlock();
+                }
+                touched(segment);
+            }
+        }
+    }
+
+    /**
+     * Deletes several entities, writing each touched segment once.
+     *
+     * @param ids the IDs of the entities to delete
+     */
+    @Override
+    public void deleteAll(int... ids) {
+        NavigableMap<Integer, List<Integer>> groups = new TreeMap<>();
+        for (int id : ids) {
+            groups.computeIfAbsent(indexOf(id), index -> new ArrayList<>()).add(id);
+        }
+        for (Map.Entry<Integer, List<Integer>> group : groups.entrySet()) {
+            Segment<T> segment = segments.get(group.getKey());
+            if (segment != null) {
+                registration.readLock().lock();
+                try {
+                    segment.deleteAll(group.getValue());
+                } finally {
+                    registration.readLock().unlock();
+                }
+                touched(segment);
+            }
+        }
+    }
+
+    /**
+     * Retrieves an entity by its ID from the segment that owns it.
+     *
+     * @param id the ID of the entity to retrieve
+     * @return the entity with the given ID, or null if not found
+     */
+    @Override
+    public T getById(int id) {
+        Segment<T> segment = segments.get(indexOf(id));
+        if (segment == null) {
+            return null;
+        }
+        T entity = segment.get(id);
+        touched(segment);
+        return entity;
+    }
+
+    /**
+     * Retrieves all entities, segment by segment in ID order.
+     *
+     * @return a list of all entities
+     */
+    @Override
+    public List<T> getAll() {
+        try (Stream<T> entities = scan()) {
+            return entities.collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    /**
+     * Streams over all entities, segment by segment in ID order.
+     * Each segment is only read when the stream reaches it; the stream should be closed after use.
+     *
+     * @return a stream of all entities
+     */
+    @Override
+    public Stream<T> scan() {
+        return new ArrayList<>(segments.values()).stream().flatMap(Segment::scan);
+    }
+
+    /**
+     * Retrieves one page of entities ordered by ID, reading only the segments the page covers.
+     *
+     * @param afterId the cursor: only entities with a greater ID are returned
+     * @param limit   the maximum number of entities on the page
+     * @return the page of entities, ordered by ascending ID
+     */
+    @Override
+    public Page<T> page(int afterId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive: " + limit);
+        }
+        int firstSegment = afterId == Integer.MIN_VALUE ? Integer.MIN_VALUE : indexOf(afterId);
+        List<T> items = new ArrayList<>(limit + 1);
+        for (Segment<T> segment : segments.tailMap(firstSegment, true).values()) {
+            List<T> candidates;
+            try (Stream<T> entities = segment.scan()) {
+                candidates = entities.filter(entity -> entity.getId() > afterId)
+                        .sorted(Comparator.comparingInt(BaseEntity::getId))
+                        .collect(Collectors.toList());
+            }
+            items.addAll(candidates.subList(0, Math.min(candidates.size(), limit + 1 - items.size())));
+            if (items.size() > limit) {
+                break; // Segments cover increasing ID ranges, so later segments cannot hold smaller IDs
+            }
+        }
+        boolean hasMore = items.size() > limit;
+        if (hasMore) {
+            items.remove(limit);
+        }
+        int nextAfterId = items.isEmpty() ? afterId : items.get(items.size() - 1).getId();
+        return new Page<>(items, nextAfterId, hasMore);
+    }
+
+    /**
+     * Registers an index that is built from all segments once and then kept up to date
+     * on every add, update and delete made through this repository.
+     * Writes wait while the index is built, so it cannot miss a change made during registration.
+     *
+     * @param index the index to register
+     * @param <I>   the type of the index
+     * @return the index maintained under the given name
+     */
+    @Override
+    public <I extends RepositoryIndex<T>> I registerIndex(I index) {
+        registration.writeLock().lock();
+        try {
+            return indexes.register(index, this);
+        } finally {
+            registration.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves a registered index by its name.
+     *
+     * @param name the name of the index
+     * @return the index, or null if no index with that name is registered
+     */
+    @Override
+    public RepositoryIndex<T> getIndex(String name) {
+        return indexes.get(name);
+    }
+
+    /**
+     * Generates a unique ID for new entities from a durable {@link IdSequence} stored in the directory.
+     *
+     * @return the next available unique ID
+     */
+    @Override
+    public int generateUniqueId() {
+        return idSequence.next();
+    }
+
+    /**
+     * Returns the number of segments that are currently held in memory.
+     *
+     * @return the number of loaded segments
+     */
+    public int getLoadedSegmentCount() {
+        return (int) segments.values().stream().filter(Segment::isLoaded).count();
+    }
+
+    private int indexOf(int id) {
+        return Math.floorDiv(id, segmentSize);
+    }
+
+    private Segment<T> segmentFor(int id) {
+        return segmentAt(indexOf(id));
+    }
+
+    private Segment<T> segmentAt(int index) {
+        return segments.computeIfAbsent(index, this::openSegment);
+    }
+
+    private Segment<T> openSegment(int index) {
+        String fileName = directory.resolve(SEGMENT_PREFIX + index + SEGMENT_SUFFIX).toString();
+        return new Segment<>(index, FileRepository.storageOnly(fileName, codec), indexes);
+    }
+
+    /**
+     * Marks a segment as the most recently used one and unloads the least recently used segments
+     * while more than the allowed number are loaded. A segment is only unloaded between operations,
+     * and reloaded from its file the next time it is used.
+     *
+     * @param segment the segment that was just used
+     */
+    private void touched(Segment<T> segment) {
+        List<Segment<T>> evicted = new ArrayList<>();
+        synchronized (loadedSegments) {
+            loadedSegments.put(segment.index, segment);
+            Iterator<Segment<T>> eldest = loadedSegments.values().iterator();
+            while (loadedSegments.size() > maxLoadedSegments && eldest.hasNext()) {
+                Segment<T> candidate = eldest.next();
+                if (candidate != segment) {
+                    eldest.remove();
+                    evicted.add(candidate);
+                }
+            }
+        }
+        evicted.forEach(Segment::unload);
+    }
+
+    private NavigableMap<Integer, List<T>> groupBySegment(Collection<? extends T> batch) {
+        NavigableMap<Integer, List<T>> groups = new TreeMap<>();
+        for (T entity : batch) {
+            groups.computeIfAbsent(indexOf(entity.getId()), index -> new ArrayList<>()).add(entity);
+        }
+        return groups;
+    }
+
+    /**
+     * Seeds the ID sequence from the last non-empty segment, which holds the highest IDs.
+     *
+     * @return the highest stored ID, or 0 if nothing is stored
+     */
+    private int highestStoredId() {
+        for (Segment<T> segment : segments.descendingMap().values()) {
+            try (Stream<T> entities = segment.scan()) {
+                OptionalInt max = entities.mapToInt(BaseEntity::getId).max();
+                if (max.isPresent()) {
+                    return max.getAsInt();
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * One segment file and, while it is loaded, its entities in memory.
+     * Changes are forwarded to the indexes while the segment is still locked, so the indexes see the changes
+     * to an ID in the order they were written.
+     *
+     * @param <T> the type of entity that extends BaseEntity
+     */
+    private static final class Segment<T extends BaseEntity> {
+        private final int index;
+        private final FileRepository<T> file;
+        private final IndexRegistry<T> indexes;
+        private LinkedHashMap<Integer, T> entities; // null while the segment is not loaded
+
+        private Segment(int index, FileRepository<T> file, IndexRegistry<T> indexes) {
+            this.index = index;
+            this.file = file;
+            this.indexes = indexes;
+        }
+
+        private synchronized boolean isLoaded() {
+            return entities != null;
+        }
+
+        private synchronized void load() {
+            if (entities == null) {
+                LinkedHashMap<Integer, T> loaded = new LinkedHashMap<>();
+                for (T entity : file.getAll()) {
+                    loaded.put(entity.getId(), entity);
+                }
+                entities = loaded;
+            }
+        }
+
+        private synchronized void unload() {
+            entities = null; // The file holds every change, so nothing is lost
+        }
+
+        private synchronized T get(int id) {
+            load();
+            return entities.get(id);
+        }
+
+        /**
+         * Streams over the segment: from memory if it is loaded, otherwise straight from the file.
+         */
+        private Stream<T> scan() {
+            synchronized (this) {
+                if (entities != null) {
+                    return new ArrayList<>(entities.values()).stream();
+                }
+            }
+            return file.scan();
+        }
+
+        private synchronized boolean add(T entity) {
+            load();
+            if (entities.containsKey(entity.getId())) {
+                return false;
+            }
+            file.add(entity);
+            entities.put(entity.getId(), entity);
+            indexes.put(entity);
+            return true;
+        }
+
+        private synchronized void update(T entity) {
+            load();
+            if (entities.containsKey(entity.getId())) {
+                file.update(entity);
+                entities.put(entity.getId(), entity);
+                indexes.put(entity);
+            }
+        }
+
+        private synchronized void delete(int id) {
+            load();
+            if (entities.containsKey(id)) {
+                file.delete(id);
+                entities.remove(id);
+                indexes.remove(id);
+            }
+        }
+
+        private synchronized List<T> addAll(List<T> batch) {
+            load();
+            Map<Integer, T> added = new LinkedHashMap<>();
+            for (T entity : batch) {
+                if (!entities.containsKey(entity.getId())) {
+                    added.putIfAbsent(entity.getId(), entity);
+                }
+            }
+            if (!added.isEmpty()) {
+                file.addAll(added.values());
+                entities.putAll(added);
+                added.values().forEach(indexes::put);
+            }
+            return new ArrayList<>(added.values());
+        }
+
+        private synchronized void updateAll(List<T> batch) {
+            load();
+            Map<Integer, T> updated = new LinkedHashMap<>();
+            for (T entity : batch) {
+                if (entities.containsKey(entity.getId())) {
+                    updated.put(entity.getId(), entity); // The last version of an ID wins
+                }
+            }
+            if (!updated.isEmpty()) {
+                file.updateAll(updated.values());
+                entities.putAll(updated);
+                updated.values().forEach(indexes::put);
+            }
+        }
+
+        private synchronized void deleteAll(List<Integer> ids) {
+            load();
+            List<Integer> deleted = ids.stream().distinct().filter(entities::containsKey).collect(Collectors.toList());
+            if (!deleted.isEmpty()) {
+                file.deleteAll(deleted.stream().mapToInt(Integer::intValue).toArray());
+                deleted.forEach(entities::remove);
+                deleted.forEach(indexes::remove);
+            }
+        }
+    }
+}
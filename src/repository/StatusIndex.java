@@ -0,0 +1,154 @@
+package repository;
+
+import models.BaseEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * An index of entities by an enum-typed status, such as an animal's availability.
+ * Each status has a packed array of the IDs that have it, held in an {@link EnumMap}, so counting the entities
+ * with a status is O(1) and listing them only walks and sorts that status' IDs. A hash index maps every ID to its
+ * status and its position in that array, so a change of status moves the ID in O(1) by swapping the last ID of
+ * the array into its place. Memory is proportional to the number of indexed entities, whatever their IDs are,
+ * and negative IDs need no special handling. Entities whose status is null are not indexed.
+ *
+ * @param <T> the type of entity being indexed
+ * @param <S> the enum type of the status
+ */
+public class StatusIndex<T extends BaseEntity, S extends Enum<S>> extends RepositoryIndex<T> {
+    private final Class<S> statusType;
+    private final S[] statuses; // The enum constants, by ordinal; getEnumConstants() copies them on every call
+    private final Function<? super T, S> statusExtractor;
+    private final EnumMap<S, Members> idsByStatus;
+    private final IntHashIndex statusById = new IntHashIndex(); // ID to the ordinal it is indexed under
+    private final IntHashIndex positionById = new IntHashIndex(); // ID to its position in the IDs of its status
+
+    /**
+     * Constructor for a status index.
+     *
+     * @param name            the name the index is registered under
+     * @param statusType      the enum type of the status
+     * @param statusExtractor returns the status of an entity, may return null
+     */
+    public StatusIndex(String name, Class<S> statusType, Function<? super T, S> statusExtractor) {
+        super(name);
+        this.statusType = statusType;
+        this.statuses = statusType.getEnumConstants();
+        this.statusExtractor = statusExtractor;
+        this.idsByStatus = new EnumMap<>(statusType);
+        for (S status : statuses) {
+            idsByStatus.put(status, new Members());
+        }
+    }
+
+    /**
+     * Returns the IDs of the entities with the given status.
+     *
+     * @param status the status to look up
+     * @return the matching IDs in ascending order; empty if there are none
+     */
+    public synchronized List<Integer> lookup(S status) {
+        Members members = idsByStatus.get(status);
+        int[] ids = Arrays.copyOf(members.ids, members.size);
+        Arrays.sort(ids);
+        List<Integer> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(id);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of entities with the given status.
+     *
+     * @param status the status to count
+     * @return the number of matching entities
+     */
+    public synchronized int count(S status) {
+        return idsByStatus.get(status).size;
+    }
+
+    /**
+     * Returns the number of entities for every status, including statuses no entity has.
+     *
+     * @return the counts per status
+     */
+    public synchronized EnumMap<S, Integer> counts() {
+        EnumMap<S, Integer> result = new EnumMap<>(statusType);
+        for (S status : statuses) {
+            result.put(status, idsByStatus.get(status).size);
+        }
+        return result;
+    }
+
+    @Override
+    protected synchronized void onPut(T entity) {
+        S status = statusExtractor.apply(entity);
+        int id = entity.getId();
+        int previous = statusById.get(id);
+        if (status != null && previous == status.ordinal()) {
+            return; // Status unchanged
+        }
+        if (previous >= 0) {
+            unlink(id, previous);
+        }
+        if (status != null) {
+            positionById.put(id, idsByStatus.get(status).add(id));
+            statusById.put(id, status.ordinal());
+        }
+    }
+
+    @Override
+    protected synchronized void onRemove(int id) {
+        int previous = statusById.get(id);
+        if (previous >= 0) {
+            unlink(id, previous);
+        }
+    }
+
+    private void unlink(int id, int ordinal) {
+        Members members = idsByStatus.get(statuses[ordinal]);
+        int position = positionById.remove(id);
+        int moved = members.removeAt(position);
+        if (moved != id) {
+            positionById.put(moved, position); // The last ID took the removed one's place
+        }
+        statusById.remove(id);
+    }
+
+    /**
+     * The IDs with one status, packed in a growable array in no particular order.
+     */
+    private static final class Members {
+        private int[] ids = new int[16];
+        private int size;
+
+        /**
+         * Appends an ID.
+         *
+         * @return the position of the ID
+         */
+        private int add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size] = id;
+            return size++;
+        }
+
+        /**
+         * Removes the ID at a position by moving the last ID into it.
+         *
+         * @return the ID now at that position, or the removed ID if it was the last one
+         */
+        private int removeAt(int position) {
+            int removed = ids[position];
+            ids[position] = ids[--size];
+            return position == size ? removed : ids[position];
+        }
+    }
+}
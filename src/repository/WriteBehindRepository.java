@@ -0,0 +1,325 @@
+package repository;
+
+import models.BaseEntity;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * A write-behind buffer in front of another {@link IRepository}, typically a {@link FileRepository}.
+ * Every add, update and delete is applied to an in-memory copy of the data and returns immediately;
+ * a background thread later persists the changes to the wrapped repository in batches.
+ * <ul>
+ *     <li>Changes to the same ID are coalesced, so only the latest version of each entity is written,
+ *     and an entity added and deleted before a flush is never written at all.</li>
+ *     <li>A flush runs every flush interval, or as soon as the number of changed IDs reaches the flush threshold.
+ *     Each flush costs at most one batch call per kind of change (delete, update, add) on the wrapped repository.</li>
+ *     <li>When {@code maxPending} changed IDs are waiting, writers block until a flush has made room,
+ *     so memory stays bounded when the disk falls behind.</li>
+ *     <li>{@link #flush()} and {@link #close()} return only once every earlier change has been persisted.</li>
+ * </ul>
+ * Changes that have not been flushed are lost if the process dies; call {@link #flush()} where durability matters.
+ *
+ * @param <T> the type of entity that extends BaseEntity
+ */
+public class WriteBehindRepository<T extends BaseEntity> implements IRepository<T>, Closeable {
+    private final IRepository<T> delegate;
+    private final int flushThreshold;
+    private final int maxPending;
+    private final LinkedHashMap<Integer, T> entities = new LinkedHashMap<>(); // Current state, including unflushed changes
+    private final IndexRegistry<T> indexes = new IndexRegistry<>();
+    private final ScheduledExecutorService flusher;
+    private final Object flushLock = new Object(); // Held while a batch is written, so flushes never overlap
+    private final IntHashIndex persisted = new IntHashIndex(); // IDs stored in the wrapped repository, guarded by flushLock
+    private LinkedHashMap<Integer, T> dirty = new LinkedHashMap<>(); // Latest version per changed ID, null for a delete
+    private boolean flushRequested = false;
+    private boolean closed = false;
+
+    /**
+     * Loads the current entities of the wrapped repository and starts the background flusher.
+     *
+     * @param delegate       the repository the changes are persisted to
+     * @param flushInterval  how often pending changes are flushed
+     * @param unit           the time unit of the interval
+     * @param flushThreshold the number of changed IDs that triggers an early flush
+     * @param maxPending     the number of changed IDs at which writers start to wait for a flush
+     */
+    public WriteBehindRepository(IRepository<T> delegate, long flushInterval, TimeUnit unit, int flushThreshold, int maxPending) {
+        if (flushThreshold <= 0 || maxPending < flushThreshold) {
+            throw new IllegalArgumentException("Flush threshold must be positive and not above the pending limit");
+        }
+        this.delegate = delegate;
+        this.flushThreshold = flushThreshold;
+        this.maxPending = maxPending;
+        for (T entity : delegate.getAll()) {
+            entities.put(entity.getId(), entity);
+            persisted.put(entity.getId(), 0);
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "write-behind-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushInBackground, flushInterval, flushInterval, unit);
+    }
+
+    /**
+     * Adds a new entity. If an entity with the same ID already exists, it is not added.
+     *
+     * @param entity the entity to add
+     */
+    @Override
+    public synchronized void add(T entity) {
+        awaitCapacity();
+        if (!entities.containsKey(entity.getId())) {
+            indexes.put(entity); // Before the map, so an index that rejects the change leaves it unchanged
+            entities.put(entity.getId(), entity);
+            markDirty(entity.getId(), entity);
+        }
+    }
+
+    /**
+     * Updates an existing entity. If no entity with the same ID exists, no update is performed.
+     *
+     * @param entity the entity with updated data
+     */
+    @Override
+    public synchronized void update(T entity) {
+        awaitCapacity();
+        if (entities.containsKey(entity.getId())) {
+            indexes.put(entity);
+            entities.put(entity.getId(), entity);
+            markDirty(entity.getId(), entity);
+        }
+    }
+
+    /**
+     * Deletes an entity by its ID. If no entity with this ID exists, nothing happens.
+     *
+     * @param id the ID of the entity to delete
+     */
+    @Override
+    public synchronized void delete(int id) {
+        awaitCapacity();
+        if (entities.containsKey(id)) {
+            indexes.remove(id);
+            entities.remove(id);
+            markDirty(id, null);
+        }
+    }
+
+    /**
+     * Retrieves an entity by its ID, including changes that have not been flushed yet.
+     *
+     * @param id the ID of the entity to retrieve
+     * @return the entity with the given ID, or null if not found
+     */
+    @Override
+    public synchronized T getById(int id) {
+        return entities.get(id);
+    }
+
+    /**
+     * Retrieves all entities, including changes that have not been flushed yet.
+     *
+     * @return a list of all entities
+     */
+    @Override
+    public synchronized List<T> getAll() {
+        return new ArrayList<>(entities.values());
+    }
+
+    /**
+     * Streams over a snapshot of all entities.
+     *
+     * @return a stream of all entities
+     */
+    @Override
+    public Stream<T> scan() {
+        return getAll().stream();
+    }
+
+    /**
+     * Registers an index that is kept up to date on every add, update and delete.
+     *
+     * @param index the index to register
+     * @param <I>   the type of the index
+     * @return the index maintained under the given name
+     */
+    @Override
+    public synchronized <I extends RepositoryIndex<T>> I registerIndex(I index) {
+        return indexes.register(index, this);
+    }
+
+    /**
+     * Retrieves a registered index by its name.
+     *
+     * @param name the name of the index
+     * @return the index, or null if no index with that name is registered
+     */
+    @Override
+    public RepositoryIndex<T> getIndex(String name) {
+        return indexes.get(name);
+    }
+
+    /**
+     * Generates a unique ID for new entities using the wrapped repository.
+     *
+     * @return the next available unique ID
+     */
+    @Override
+    public int generateUniqueId() {
+        return delegate.generateUniqueId();
+    }
+
+    /**
+     * Returns the number of changed IDs that have not been flushed yet.
+     *
+     * @return the number of pending changes
+     */
+    public synchronized int getPendingCount() {
+        return dirty.size();
+    }
+
+    /**
+     * Persists every change made so far on the calling thread.
+     * Returns once the changes, including any flush already in progress, have been written to the wrapped repository.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            writePending();
+        }
+    }
+
+    /**
+     * Stops the background flusher and persists every remaining change.
+     * Further changes are rejected.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll(); // Release writers waiting for room
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Records the latest version of a changed entity and asks for an early flush once the threshold is reached.
+     * Must be called while holding this repository's lock.
+     *
+     * @param id     the ID of the changed entity
+     * @param entity the new version, or null if the entity was deleted
+     */
+    private void markDirty(int id, T entity) {
+        dirty.remove(id); // Re-insert so the batch keeps the order of the latest changes
+        dirty.put(id, entity);
+        if (dirty.size() >= flushThreshold) {
+            requestFlush();
+        }
+    }
+
+    /**
+     * Blocks the calling writer while the pending changes are at the limit.
+     * Must be called while holding this repository's lock.
+     */
+    private void awaitCapacity() {
+        while (dirty.size() >= maxPending && !closed) {
+            requestFlush();
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for pending changes to be flushed", e);
+            }
+        }
+        if (closed) {
+            throw new IllegalStateException("Repository is closed");
+        }
+    }
+
+    private void requestFlush() {
+        if (!flushRequested && !closed) {
+            flushRequested = true;
+            flusher.execute(this::flushInBackground);
+        }
+    }
+
+    private void flushInBackground() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            e.printStackTrace(); // Log the exception if something goes wrong; the changes are retried on the next flush
+        }
+    }
+
+    /**
+     * Takes the pending changes and writes them to the wrapped repository.
+     * If the write fails, the changes are put back unless a newer version was recorded meanwhile.
+     * Must be called while holding the flush lock.
+     */
+    private void writePending() {
+        Map<Integer, T> batch;
+        synchronized (this) {
+            flushRequested = false;
+            if (dirty.isEmpty()) {
+                return;
+            }
+            batch = dirty;
+            dirty = new LinkedHashMap<>();
+            notifyAll(); // Room for waiting writers
+        }
+        List<Integer> deleted = new ArrayList<>();
+        List<T> updated = new ArrayList<>();
+        List<T> added = new ArrayList<>();
+        for (Map.Entry<Integer, T> change : batch.entrySet()) {
+            boolean stored = persisted.containsKey(change.getKey());
+            if (change.getValue() == null) {
+                if (stored) {
+                    deleted.add(change.getKey());
+                }
+            } else if (stored) {
+                updated.add(change.getValue());
+            } else {
+                added.add(change.getValue());
+            }
+        }
+        try {
+            if (!deleted.isEmpty()) {
+                delegate.deleteAll(deleted.stream().mapToInt(Integer::intValue).toArray());
+            }
+            if (!updated.isEmpty()) {
+                delegate.updateAll(updated);
+            }
+            if (!added.isEmpty()) {
+                delegate.addAll(added);
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                // Requeue the batch, keeping the newer version of anything changed meanwhile. A delete is recorded as
+                // null, which putIfAbsent would overwrite, so check for the key itself.
+                batch.forEach((id, entity) -> {
+                    if (!dirty.containsKey(id)) {
+                        dirty.put(id, entity);
+                    }
+                });
+            }
+            throw e;
+        }
+        deleted.forEach(persisted::remove);
+        added.forEach(entity -> persisted.put(entity.getId(), 0));
+    }
+}
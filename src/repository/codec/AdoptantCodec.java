@@ -0,0 +1,30 @@
+package repository.codec;
+
+import models.Adoptant;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Compact binary codec for {@link Adoptant} entities.
+ * Writes the ID, name and contact details. The adoptant's list of adoption requests is not written,
+ * since the requests are stored in their own repository.
+ */
+public class AdoptantCodec implements EntityCodec<Adoptant> {
+
+    @Override
+    public void encode(Adoptant adoptant, DataOutput out) throws IOException {
+        BinaryIO.writeSignedVarInt(out, adoptant.getId());
+        BinaryIO.writeString(out, adoptant.getName());
+        BinaryIO.writeString(out, adoptant.getContactDetails());
+    }
+
+    @Override
+    public Adoptant decode(DataInput in) throws IOException {
+        int id = BinaryIO.readSignedVarInt(in);
+        Adoptant adoptant = new Adoptant(id, BinaryIO.readString(in), BinaryIO.readString(in));
+        adoptant.setId(id);
+        return adoptant;
+    }
+}
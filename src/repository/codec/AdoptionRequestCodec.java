@@ -0,0 +1,90 @@
+package repository.codec;
+
+import models.Adoptant;
+import models.AdoptionRequest;
+import models.Animal;
+import repository.IRepository;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.IntFunction;
+
+/**
+ * Compact binary codec for {@link AdoptionRequest} entities.
+ * Writes the ID, the adoptant and animal the request refers to, the request date
+ * and the dictionary-coded status.
+ * <p>
+ * By default the adoptant and the animal are embedded in every request. A codec created with
+ * {@link #byReference(IntFunction, IntFunction)} writes only their IDs instead, and decoded requests
+ * look the objects up the first time they are accessed. The two formats are not interchangeable,
+ * so a file must always be read with the same kind of codec it was written with.
+ */
+public class AdoptionRequestCodec implements EntityCodec<AdoptionRequest> {
+    private final AdoptantCodec adoptantCodec = new AdoptantCodec();
+    private final AnimalCodec animalCodec = new AnimalCodec();
+    private final IntFunction<Adoptant> adoptantResolver; // null when adoptants and animals are embedded
+    private final IntFunction<Animal> animalResolver;
+
+    /**
+     * Creates a codec that embeds the adoptant and the animal in every request.
+     */
+    public AdoptionRequestCodec() {
+        this(null, null);
+    }
+
+    private AdoptionRequestCodec(IntFunction<Adoptant> adoptantResolver, IntFunction<Animal> animalResolver) {
+        this.adoptantResolver = adoptantResolver;
+        this.animalResolver = animalResolver;
+    }
+
+    /**
+     * Creates a codec that stores requests with the IDs of their adoptant and animal only.
+     *
+     * @param adoptantResolver looks up an adoptant by ID when a decoded request first needs it
+     * @param animalResolver   looks up an animal by ID when a decoded request first needs it
+     * @return the by-reference codec
+     */
+    public static AdoptionRequestCodec byReference(IntFunction<Adoptant> adoptantResolver, IntFunction<Animal> animalResolver) {
+        return new AdoptionRequestCodec(adoptantResolver, animalResolver);
+    }
+
+    /**
+     * Creates a codec that stores requests with the IDs of their adoptant and animal only,
+     * resolving them through the given repositories.
+     *
+     * @param adoptants the repository holding the adoptants
+     * @param animals   the repository holding the animals
+     * @return the by-reference codec
+     */
+    public static AdoptionRequestCodec byReference(IRepository<Adoptant> adoptants, IRepository<Animal> animals) {
+        return byReference(adoptants::getById, animals::getById);
+    }
+
+    @Override
+    public void encode(AdoptionRequest request, DataOutput out) throws IOException {
+        BinaryIO.writeSignedVarInt(out, request.getId());
+        if (adoptantResolver != null) {
+            BinaryIO.writeSignedVarInt(out, request.getAdoptantId());
+            BinaryIO.writeSignedVarInt(out, request.getAnimalId());
+        } else {
+            adoptantCodec.encode(request.getAdoptant(), out);
+            animalCodec.encode(request.getAnimal(), out);
+        }
+        BinaryIO.writeDate(out, request.getRequestDate());
+        StatusDictionary.write(out, request.getStatus());
+    }
+
+    @Override
+    public AdoptionRequest decode(DataInput in) throws IOException {
+        int id = BinaryIO.readSignedVarInt(in);
+        if (adoptantResolver != null) {
+            AdoptionRequest request = new AdoptionRequest(id, BinaryIO.readSignedVarInt(in), BinaryIO.readSignedVarInt(in),
+                    BinaryIO.readDate(in), StatusDictionary.readAdoptionRequestStatus(in));
+            request.setResolvers(adoptantResolver, animalResolver);
+            return request;
+        }
+        return new AdoptionRequest(id, adoptantCodec.decode(in), animalCodec.decode(in),
+                BinaryIO.readDate(in), StatusDictionary.readAdoptionRequestStatus(in));
+    }
+}
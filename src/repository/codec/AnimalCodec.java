@@ -0,0 +1,127 @@
+package repository.codec;
+
+import models.Animal;
+import models.AnimalType;
+import models.CarePlan;
+import models.HealthRecord;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.IntFunction;
+
+/**
+ * Compact binary codec for {@link Animal} entities.
+ * Writes the ID, name, type, age and dictionary-coded status, followed by the optional
+ * health record (with its veterinarian), care plan and assigned volunteer.
+ * Each optional part is preceded by a presence flag.
+ * <p>
+ * By default the animal type is embedded in every animal. A codec created with
+ * {@link #byTypeReference(IntFunction)} writes only the type ID and decodes it to the shared type
+ * instance, for types that are stored once in their own repository. The two formats are not
+ * interchangeable, so a file must always be read with the same kind of codec it was written with.
+ */
+public class AnimalCodec implements EntityCodec<Animal> {
+    private final VeterinarianCodec veterinarianCodec = new VeterinarianCodec();
+    private final VolunteerCodec volunteerCodec = new VolunteerCodec();
+    private final IntFunction<AnimalType> typeResolver; // null when types are embedded
+
+    /**
+     * Creates a codec that embeds the animal type in every animal.
+     */
+    public AnimalCodec() {
+        this(null);
+    }
+
+    private AnimalCodec(IntFunction<AnimalType> typeResolver) {
+        this.typeResolver = typeResolver;
+    }
+
+    /**
+     * Creates a codec that stores only the ID of each animal's type.
+     *
+     * @param typeResolver returns the shared animal type with a given ID
+     * @return the by-reference codec
+     */
+    public static AnimalCodec byTypeReference(IntFunction<AnimalType> typeResolver) {
+        return new AnimalCodec(typeResolver);
+    }
+
+    @Override
+    public void encode(Animal animal, DataOutput out) throws IOException {
+        BinaryIO.writeSignedVarInt(out, animal.getId());
+        BinaryIO.writeString(out, animal.getName());
+        encodeType(animal.getAnimalType(), out);
+        BinaryIO.writeSignedVarInt(out, animal.getAge());
+        StatusDictionary.write(out, animal.getStatus());
+
+        HealthRecord healthRecord = animal.getHealthRecord();
+        out.writeBoolean(healthRecord != null);
+        if (healthRecord != null) {
+            BinaryIO.writeSignedVarInt(out, healthRecord.getId());
+            BinaryIO.writeStringList(out, healthRecord.getDiagnoses());
+            BinaryIO.writeStringList(out, healthRecord.getTreatments());
+            out.writeBoolean(healthRecord.getVeterinarian() != null);
+            if (healthRecord.getVeterinarian() != null) {
+                veterinarianCodec.encode(healthRecord.getVeterinarian(), out);
+            }
+        }
+
+        CarePlan carePlan = animal.getCarePlan();
+        out.writeBoolean(carePlan != null);
+        if (carePlan != null) {
+            BinaryIO.writeSignedVarInt(out, carePlan.getId());
+            BinaryIO.writeString(out, carePlan.getFeedingPlan());
+            BinaryIO.writeString(out, carePlan.getMedicalCare());
+        }
+
+        out.writeBoolean(animal.getAssignedVolunteer() != null);
+        if (animal.getAssignedVolunteer() != null) {
+            volunteerCodec.encode(animal.getAssignedVolunteer(), out);
+        }
+    }
+
+    @Override
+    public Animal decode(DataInput in) throws IOException {
+        int id = BinaryIO.readSignedVarInt(in);
+        String name = BinaryIO.readString(in);
+        AnimalType animalType = decodeType(in);
+        int age = BinaryIO.readSignedVarInt(in);
+        Animal animal = new Animal(id, name, animalType, age, StatusDictionary.readAnimalStatus(in));
+
+        if (in.readBoolean()) {
+            int recordId = BinaryIO.readSignedVarInt(in);
+            animal.setHealthRecord(new HealthRecord(recordId, BinaryIO.readStringList(in), BinaryIO.readStringList(in),
+                    in.readBoolean() ? veterinarianCodec.decode(in) : null));
+        }
+        if (in.readBoolean()) {
+            animal.setCarePlan(new CarePlan(BinaryIO.readSignedVarInt(in), BinaryIO.readString(in), BinaryIO.readString(in)));
+        }
+        if (in.readBoolean()) {
+            animal.setAssignedVolunteer(volunteerCodec.decode(in));
+        }
+        return animal;
+    }
+
+    private void encodeType(AnimalType animalType, DataOutput out) throws IOException {
+        out.writeBoolean(animalType != null);
+        if (animalType != null) {
+            BinaryIO.writeSignedVarInt(out, animalType.getId());
+            if (typeResolver != null) {
+                return;
+            }
+            BinaryIO.writeString(out, animalType.getTypeName());
+            BinaryIO.writeString(out, animalType.getSpecialCharacteristics());
+        }
+    }
+
+    private AnimalType decodeType(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        if (typeResolver != null) {
+            return typeResolver.apply(BinaryIO.readSignedVarInt(in));
+        }
+        return new AnimalType(BinaryIO.readSignedVarInt(in), BinaryIO.readString(in), BinaryIO.readString(in));
+    }
+}
@@ -0,0 +1,209 @@
+package repository.codec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Low-level helpers shared by the binary entity codecs.
+ * Integers are written as variable-length values (7 bits per byte), signed values use zig-zag
+ * encoding so that small negative numbers stay short, and strings are written as
+ * length-prefixed UTF-8. Nullable values are prefixed so that null can be told apart from empty.
+ */
+public final class BinaryIO {
+
+    private BinaryIO() {
+    }
+
+    /**
+     * Writes a non-negative int using 1 to 5 bytes.
+     *
+     * @param out   the output to write to
+     * @param value the value, must not be negative
+     * @throws IOException if the value cannot be written
+     */
+    public static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Reads an int written by {@link #writeVarInt(DataOutput, int)}.
+     *
+     * @param in the input to read from
+     * @return the value
+     * @throws IOException if the value cannot be read or is malformed
+     */
+    public static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length int");
+    }
+
+    /**
+     * Writes a signed int using zig-zag encoding.
+     *
+     * @param out   the output to write to
+     * @param value the value
+     * @throws IOException if the value cannot be written
+     */
+    public static void writeSignedVarInt(DataOutput out, int value) throws IOException {
+        writeVarInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Reads an int written by {@link #writeSignedVarInt(DataOutput, int)}.
+     *
+     * @param in the input to read from
+     * @return the value
+     * @throws IOException if the value cannot be read or is malformed
+     */
+    public static int readSignedVarInt(DataInput in) throws IOException {
+        int raw = readVarInt(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    /**
+     * Writes a signed long using zig-zag encoding and 1 to 10 bytes.
+     *
+     * @param out   the output to write to
+     * @param value the value
+     * @throws IOException if the value cannot be written
+     */
+    public static void writeSignedVarLong(DataOutput out, long value) throws IOException {
+        long raw = (value << 1) ^ (value >> 63);
+        while ((raw & ~0x7FL) != 0) {
+            out.writeByte((int) ((raw & 0x7F) | 0x80));
+            raw >>>= 7;
+        }
+        out.writeByte((int) raw);
+    }
+
+    /**
+     * Reads a long written by {@link #writeSignedVarLong(DataOutput, long)}.
+     *
+     * @param in the input to read from
+     * @return the value
+     * @throws IOException if the value cannot be read or is malformed
+     */
+    public static long readSignedVarLong(DataInput in) throws IOException {
+        long raw = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = in.readUnsignedByte();
+            raw |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (raw >>> 1) ^ -(raw & 1);
+            }
+        }
+        throw new IOException("Malformed variable-length long");
+    }
+
+    /**
+     * Writes a nullable string as its UTF-8 length plus one (zero meaning null) followed by the bytes.
+     *
+     * @param out   the output to write to
+     * @param value the string, may be null
+     * @throws IOException if the string cannot be written
+     */
+    public static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(DataOutput, String)}.
+     *
+     * @param in the input to read from
+     * @return the string, or null if null was written
+     * @throws IOException if the string cannot be read
+     */
+    public static String readString(DataInput in) throws IOException {
+        int length = readVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a nullable list of strings as its size plus one followed by the strings.
+     *
+     * @param out    the output to write to
+     * @param values the strings, may be null
+     * @throws IOException if the list cannot be written
+     */
+    public static void writeStringList(DataOutput out, List<String> values) throws IOException {
+        if (values == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        writeVarInt(out, values.size() + 1);
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    /**
+     * Reads a list written by {@link #writeStringList(DataOutput, List)}.
+     *
+     * @param in the input to read from
+     * @return the list of strings, or null if null was written
+     * @throws IOException if the list cannot be read
+     */
+    public static List<String> readStringList(DataInput in) throws IOException {
+        int size = readVarInt(in);
+        if (size == 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size - 1);
+        for (int i = 1; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    /**
+     * Writes a nullable date as a presence flag followed by its epoch milliseconds.
+     *
+     * @param out   the output to write to
+     * @param value the date, may be null
+     * @throws IOException if the date cannot be written
+     */
+    public static void writeDate(DataOutput out, Date value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeSignedVarLong(out, value.getTime());
+        }
+    }
+
+    /**
+     * Reads a date written by {@link #writeDate(DataOutput, Date)}.
+     *
+     * @param in the input to read from
+     * @return the date, or null if null was written
+     * @throws IOException if the date cannot be read
+     */
+    public static Date readDate(DataInput in) throws IOException {
+        return in.readBoolean() ? new Date(readSignedVarLong(in)) : null;
+    }
+}
@@ -0,0 +1,33 @@
+package repository.codec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Converts entities of type T to and from a compact binary form.
+ * File-backed repositories use a codec to persist each entity as a self-contained record,
+ * instead of serializing whole object graphs with Java serialization.
+ *
+ * @param <T> the type of entity handled by the codec
+ */
+public interface EntityCodec<T> {
+
+    /**
+     * Writes the binary form of an entity.
+     *
+     * @param entity The entity to encode. This cannot be null.
+     * @param out    The output the entity is written to.
+     * @throws IOException if the entity cannot be written
+     */
+    void encode(T entity, DataOutput out) throws IOException;
+
+    /**
+     * Reads an entity previously written by {@link #encode(Object, DataOutput)}.
+     *
+     * @param in The input the entity is read from.
+     * @return The decoded entity.
+     * @throws IOException if the entity cannot be read or the data is corrupt
+     */
+    T decode(DataInput in) throws IOException;
+}
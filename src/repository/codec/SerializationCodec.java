@@ -0,0 +1,50 @@
+package repository.codec;
+
+import java.io.*;
+
+/**
+ * A codec that falls back to standard Java serialization for a single entity.
+ * Each encoded entity is written as a length-prefixed serialized object.
+ * It works for any {@link Serializable} entity, at the cost of larger records and slower decoding
+ * than the hand-written codecs.
+ *
+ * @param <T> the type of entity handled by the codec
+ */
+public class SerializationCodec<T extends Serializable> implements EntityCodec<T> {
+
+    /**
+     * Serializes the entity and writes it with its length.
+     *
+     * @param entity the entity to encode
+     * @param out    the output the entity is written to
+     * @throws IOException if the entity cannot be serialized
+     */
+    @Override
+    public void encode(T entity, DataOutput out) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(entity);
+        }
+        BinaryIO.writeVarInt(out, bytes.size());
+        out.write(bytes.toByteArray());
+    }
+
+    /**
+     * Reads a length-prefixed serialized entity.
+     *
+     * @param in the input the entity is read from
+     * @return the deserialized entity
+     * @throws IOException if the entity cannot be deserialized
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T decode(DataInput in) throws IOException {
+        byte[] payload = new byte[BinaryIO.readVarInt(in)];
+        in.readFully(payload);
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(payload))) {
+            return (T) ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown class in serialized entity", e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package repository.codec;
+
+import models.Shelter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes the shelters a person is associated with as shallow references (ID, name and address).
+ * The shelters' own lists of animals, volunteers and veterinarians are not written, since they
+ * point back at the entities being encoded.
+ */
+final class ShelterRefs {
+
+    private ShelterRefs() {
+    }
+
+    static void write(DataOutput out, List<Shelter> shelters) throws IOException {
+        BinaryIO.writeVarInt(out, shelters.size());
+        for (Shelter shelter : shelters) {
+            BinaryIO.writeSignedVarInt(out, shelter.getId());
+            BinaryIO.writeString(out, shelter.getName());
+            BinaryIO.writeString(out, shelter.getAddress());
+        }
+    }
+
+    static void read(DataInput in, List<Shelter> shelters) throws IOException {
+        int count = BinaryIO.readVarInt(in);
+        for (int i = 0; i < count; i++) {
+            shelters.add(new Shelter(BinaryIO.readSignedVarInt(in), BinaryIO.readString(in), BinaryIO.readString(in)));
+        }
+    }
+}
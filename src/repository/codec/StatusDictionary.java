@@ -0,0 +1,141 @@
+package repository.codec;
+
+import models.AdoptionRequestStatus;
+import models.AnimalStatus;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Dictionary encoding for the statuses of animals and adoption requests.
+ * The well-known statuses, which include every {@link AnimalStatus} and {@link AdoptionRequestStatus},
+ * are written as a single byte; any other value is written as a marker byte followed by the literal
+ * string, so files written when statuses were free-form strings can still be read.
+ */
+public final class StatusDictionary {
+    private static final int NULL = 0;
+    private static final int LITERAL = 1;
+    private static final String[] KNOWN = {"Available", "Adopted", "Pending", "Approved", "Rejected"};
+
+    private StatusDictionary() {
+    }
+
+    /**
+     * Writes a status as a dictionary code, or as a literal if it is not a known status.
+     *
+     * @param out    the output to write to
+     * @param status the status, may be null
+     * @throws IOException if the status cannot be written
+     */
+    public static void write(DataOutput out, String status) throws IOException {
+        if (status == null) {
+            out.writeByte(NULL);
+            return;
+        }
+        for (int i = 0; i < KNOWN.length; i++) {
+            if (KNOWN[i].equals(status)) {
+                out.writeByte(i + 2);
+                return;
+            }
+        }
+        out.writeByte(LITERAL);
+        BinaryIO.writeString(out, status);
+    }
+
+    /**
+     * Writes an animal status as its one-byte dictionary code.
+     *
+     * @param out    the output to write to
+     * @param status the status, may be null
+     * @throws IOException if the status cannot be written
+     */
+    public static void write(DataOutput out, AnimalStatus status) throws IOException {
+        write(out, status == null ? null : status.getLabel());
+    }
+
+    /**
+     * Writes an adoption request status as its one-byte dictionary code.
+     *
+     * @param out    the output to write to
+     * @param status the status, may be null
+     * @throws IOException if the status cannot be written
+     */
+    public static void write(DataOutput out, AdoptionRequestStatus status) throws IOException {
+        write(out, status == null ? null : status.getLabel());
+    }
+
+    /**
+     * Reads an animal status written by {@link #write(DataOutput, AnimalStatus)}, or a free-form status
+     * written by {@link #write(DataOutput, String)} that matches an animal status ignoring case.
+     *
+     * @param in the input to read from
+     * @return the status, or null if null was written
+     * @throws IOException if the status cannot be read or is not an animal status
+     */
+    public static AnimalStatus readAnimalStatus(DataInput in) throws IOException {
+        String label = read(in);
+        try {
+            return label == null ? null : AnimalStatus.parse(label);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads an adoption request status written by {@link #write(DataOutput, AdoptionRequestStatus)}, or a free-form
+     * status written by {@link #write(DataOutput, String)} that matches a request status ignoring case.
+     *
+     * @param in the input to read from
+     * @return the status, or null if null was written
+     * @throws IOException if the status cannot be read or is not an adoption request status
+     */
+    public static AdoptionRequestStatus readAdoptionRequestStatus(DataInput in) throws IOException {
+        String label = read(in);
+        try {
+            return label == null ? null : AdoptionRequestStatus.parse(label);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the dictionary code of a status, matching the well-known statuses ignoring case.
+     * Used where a status has to fit in a fixed-width field.
+     *
+     * @param status the status, may be null
+     * @return 0 for null, 1 for a status that is not well known, otherwise the one-byte code of the status
+     */
+    public static int codeOf(String status) {
+        if (status == null) {
+            return NULL;
+        }
+        for (int i = 0; i < KNOWN.length; i++) {
+            if (KNOWN[i].equalsIgnoreCase(status)) {
+                return i + 2;
+            }
+        }
+        return LITERAL;
+    }
+
+    /**
+     * Reads a status written by {@link #write(DataOutput, String)}.
+     *
+     * @param in the input to read from
+     * @return the status, or null if null was written
+     * @throws IOException if the status cannot be read or the code is unknown
+     */
+    public static String read(DataInput in) throws IOException {
+        int code = in.readUnsignedByte();
+        if (code == NULL) {
+            return null;
+        }
+        if (code == LITERAL) {
+            return BinaryIO.readString(in);
+        }
+        if (code - 2 >= KNOWN.length) {
+            throw new IOException("Unknown status code " + code);
+        }
+        return KNOWN[code - 2];
+    }
+}
@@ -0,0 +1,32 @@
+package repository.codec;
+
+import models.Veterinarian;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Compact binary codec for {@link Veterinarian} entities.
+ * Writes the ID, name, contact details, specialization and shallow references to the veterinarian's shelters.
+ */
+public class VeterinarianCodec implements EntityCodec<Veterinarian> {
+
+    @Override
+    public void encode(Veterinarian veterinarian, DataOutput out) throws IOException {
+        BinaryIO.writeSignedVarInt(out, veterinarian.getId());
+        BinaryIO.writeString(out, veterinarian.getName());
+        BinaryIO.writeString(out, veterinarian.getContactDetails());
+        BinaryIO.writeString(out, veterinarian.getSpecialization());
+        ShelterRefs.write(out, veterinarian.getShelters());
+    }
+
+    @Override
+    public Veterinarian decode(DataInput in) throws IOException {
+        int id = BinaryIO.readSignedVarInt(in);
+        Veterinarian veterinarian = new Veterinarian(id, BinaryIO.readString(in), BinaryIO.readString(in), BinaryIO.readString(in));
+        veterinarian.setId(id);
+        ShelterRefs.read(in, veterinarian.getShelters());
+        return veterinarian;
+    }
+}
@@ -0,0 +1,33 @@
+package repository.codec;
+
+import models.Volunteer;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Compact binary codec for {@link Volunteer} entities.
+ * Writes the ID, name, contact details, experience and shallow references to the volunteer's shelters.
+ * The animals cared for by the volunteer are not written; each animal records its assigned volunteer instead.
+ */
+public class VolunteerCodec implements EntityCodec<Volunteer> {
+
+    @Override
+    public void encode(Volunteer volunteer, DataOutput out) throws IOException {
+        BinaryIO.writeSignedVarInt(out, volunteer.getId());
+        BinaryIO.writeString(out, volunteer.getName());
+        BinaryIO.writeString(out, volunteer.getContactDetails());
+        BinaryIO.writeString(out, volunteer.getExperience());
+        ShelterRefs.write(out, volunteer.getShelters());
+    }
+
+    @Override
+    public Volunteer decode(DataInput in) throws IOException {
+        int id = BinaryIO.readSignedVarInt(in);
+        Volunteer volunteer = new Volunteer(id, BinaryIO.readString(in), BinaryIO.readString(in), BinaryIO.readString(in));
+        volunteer.setId(id);
+        ShelterRefs.read(in, volunteer.getShelters());
+        return volunteer;
+    }
+}
@@ -1,12 +1,20 @@
 package service;
 
 import models.Adoptant;
+import models.AdoptantRanking;
 import models.AdoptionRequest;
+import models.AdoptionRequestStatus;
 import models.Animal;
+import repository.AdoptantLeaderboard;
+import repository.AdoptionRequestCounters;
 import repository.IRepository;
+import repository.Page;
+import repository.SecondaryIndex;
 
 import java.util.*;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class that handles the business logic related to adoptants and adoption requests.
@@ -15,11 +23,18 @@ import java.util.stream.Collectors;
  */
 public class AdoptantService {
     private IRepository<Adoptant> adoptantRepository;
+    private static final String REQUESTS_BY_ADOPTANT_INDEX = "adoptionRequest.adoptantId";
+
     private IRepository<AdoptionRequest> adoptionRequestRepository;  // Repository for adoption requests
+    private SecondaryIndex<AdoptionRequest, Integer> requestsByAdoptant; // Null if the repository has no indexes
+    private AdoptionRequestCounters requestCounters; // Null if the repository has no indexes
+    private AdoptantLeaderboard leaderboard; // Null if the repository has no indexes
 
     /**
      * Constructor that initializes the AdoptantService with the provided repositories
      * for adoptants and adoption requests.
+     * Registers an index of adoption requests by adoptant ID, per-adoptant request counters
+     * and the adoptant leaderboard if the request repository supports indexes.
      *
      * @param adoptantRepository The repository to handle adoptants data.
      * @param adoptionRequestRepository The repository to handle adoption requests data.
@@ -27,19 +42,40 @@ public class AdoptantService {
     public AdoptantService(IRepository<Adoptant> adoptantRepository, IRepository<AdoptionRequest> adoptionRequestRepository) {
         this.adoptantRepository = adoptantRepository;
         this.adoptionRequestRepository = adoptionRequestRepository;
+        this.requestsByAdoptant = adoptionRequestRepository.registerIndex(
+                new SecondaryIndex<>(REQUESTS_BY_ADOPTANT_INDEX, AdoptionRequest::getAdoptantId));
+        this.requestCounters = adoptionRequestRepository.registerIndex(new AdoptionRequestCounters());
+        this.leaderboard = adoptionRequestRepository.registerIndex(new AdoptantLeaderboard());
     }
 
     /**
      * Adds a new adoptant to the system.
-     * Assigns a unique ID to the adoptant before adding it to the repository.
+     * Assigns a unique ID to the adoptant before adding it to the repository, unless it already has one.
      *
      * @param adoptant The adoptant object to be added.
      */
     public void addAdoptant(Adoptant adoptant) {
-        adoptant.setId(adoptantRepository.generateUniqueId());
+        if (adoptant.getId() <= 0) {
+            adoptant.setId(adoptantRepository.generateUniqueId());
+        }
         adoptantRepository.add(adoptant);
     }
 
+    /**
+     * Adds several adoptants to the system in a single batch.
+     * Assigns a unique ID to every adoptant that does not have one yet before adding them to the repository.
+     *
+     * @param adoptants The adoptants to be added.
+     */
+    public void addAdoptants(List<Adoptant> adoptants) {
+        for (Adoptant adoptant : adoptants) {
+            if (adoptant.getId() <= 0) {
+                adoptant.setId(adoptantRepository.generateUniqueId());
+            }
+        }
+        adoptantRepository.addAll(adoptants);
+    }
+
     /**
      * Retrieves all adoptants in the system.
      *
@@ -49,6 +85,17 @@ public class AdoptantService {
         return adoptantRepository.getAll();
     }
 
+    /**
+     * Retrieves one page of adoptants ordered by ID.
+     *
+     * @param afterId The cursor: only adoptants with a greater ID are returned ({@link Page#START} for the first page).
+     * @param limit The maximum number of adoptants on the page.
+     * @return The page of adoptants.
+     */
+    public Page<Adoptant> getAdoptantsPage(int afterId, int limit) {
+        return adoptantRepository.page(afterId, limit);
+    }
+
     /**
      * Retrieves an adoptant by its ID.
      *
@@ -68,6 +115,15 @@ public class AdoptantService {
         adoptantRepository.update(adoptant);
     }
 
+    /**
+     * Updates the information of several adoptants in a single batch.
+     *
+     * @param adoptants The adoptants with updated information.
+     */
+    public void updateAdoptants(List<Adoptant> adoptants) {
+        adoptantRepository.updateAll(adoptants);
+    }
+
     /**
      * Deletes an adoptant by their ID.
      *
@@ -77,6 +133,15 @@ public class AdoptantService {
         adoptantRepository.delete(id);
     }
 
+    /**
+     * Deletes several adoptants by their IDs in a single batch.
+     *
+     * @param ids The IDs of the adoptants to be deleted.
+     */
+    public void deleteAdoptants(int... ids) {
+        adoptantRepository.deleteAll(ids);
+    }
+
     /**
      * Retrieves a list of adoption requests associated with a specific adoptant.
      *
@@ -84,9 +149,14 @@ public class AdoptantService {
      * @return A list of adoption requests made by the specified adoptant.
      */
     public List<AdoptionRequest> getAdoptionRequestsByAdoptant(Adoptant adoptant) {
-        return adoptionRequestRepository.getAll().stream()
-                .filter(request -> request.getAdoptant().equals(adoptant))
-                .collect(Collectors.toList());
+        if (requestsByAdoptant != null) {
+            return adoptionRequestRepository.getByIds(requestsByAdoptant.lookup(adoptant.getId())).stream()
+                    .filter(request -> request.getAdoptantId() == adoptant.getId())
+                    .collect(Collectors.toList());
+        }
+        try (Stream<AdoptionRequest> requests = adoptionRequestRepository.scan(request -> request.getAdoptantId() == adoptant.getId())) {
+            return requests.collect(Collectors.toList());
+        }
     }
 
     /**
@@ -102,21 +172,29 @@ public class AdoptantService {
             return;
         }
 
-        AdoptionRequest request = new AdoptionRequest(0, adoptant, animal, new Date(), "Pending");
+        AdoptionRequest request = new AdoptionRequest(adoptionRequestRepository.generateUniqueId(), adoptant, animal, new Date(), AdoptionRequestStatus.PENDING);
         adoptionRequestRepository.add(request);
         System.out.println("Adoption request submitted successfully!");
     }
 
     /**
      * Filters adoptants based on the minimum number of adoption requests they have made.
+     * With the request counters only the adoptants that qualify are read.
      *
      * @param minRequests The minimum number of adoption requests.
      * @return A list of adoptants who have made at least the specified number of requests.
      */
     public List<Adoptant> filterAdoptantsByAdoptionRequests(int minRequests) {
-        return adoptantRepository.getAll().stream()
-                .filter(adoptant -> getAdoptionRequestsByAdoptant(adoptant).size() >= minRequests)
-                .collect(Collectors.toList());
+        if (requestCounters != null && minRequests > 0) {
+            List<Integer> adoptantIds = requestCounters.adoptantIds().stream()
+                    .filter(adoptantId -> requestCounters.count(adoptantId) >= minRequests)
+                    .collect(Collectors.toList());
+            return adoptantRepository.getByIds(adoptantIds);
+        }
+        ToIntFunction<Adoptant> requestCount = requestCounter();
+        try (Stream<Adoptant> adoptants = adoptantRepository.scan(adoptant -> requestCount.applyAsInt(adoptant) >= minRequests)) {
+            return adoptants.collect(Collectors.toList());
+        }
     }
 
     /**
@@ -125,11 +203,30 @@ public class AdoptantService {
      * @return A list of adoptants sorted by the number of adoption requests.
      */
     public List<Adoptant> sortAdoptantsByAdoptionRequests() {
-        return adoptantRepository.getAll().stream()
-                .sorted((adoptant1, adoptant2) -> Integer.compare(
-                        getAdoptionRequestsByAdoptant(adoptant2).size(),
-                        getAdoptionRequestsByAdoptant(adoptant1).size()))
-                .collect(Collectors.toList());
+        ToIntFunction<Adoptant> requestCount = requestCounter();
+        try (Stream<Adoptant> adoptants = adoptantRepository.scan()) {
+            return adoptants
+                    .sorted(Comparator.comparingInt(requestCount).reversed()) // Sort in descending order
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Returns a function that gives the number of adoption requests an adoptant has made.
+     * It reads the request counters if they are registered; otherwise all requests are counted
+     * once with a single scan, instead of once per adoptant.
+     *
+     * @return The request count function.
+     */
+    private ToIntFunction<Adoptant> requestCounter() {
+        if (requestCounters != null) {
+            return adoptant -> requestCounters.count(adoptant.getId());
+        }
+        Map<Integer, Long> requestCounts;
+        try (Stream<AdoptionRequest> requests = adoptionRequestRepository.scan()) {
+            requestCounts = requests.collect(Collectors.groupingBy(AdoptionRequest::getAdoptantId, Collectors.counting()));
+        }
+        return adoptant -> requestCounts.getOrDefault(adoptant.getId(), 0L).intValue();
     }
 
     /**
@@ -139,17 +236,25 @@ public class AdoptantService {
      * @return A list of adoption requests for the specified adoptant.
      */
     public List<AdoptionRequest> getAdoptionRequestsForAdoptant(int adoptantId) {
-        return adoptionRequestRepository.getAll().stream()
-                .filter(request -> request.getAdoptant().getId() == adoptantId)
-                .collect(Collectors.toList());
+        if (requestsByAdoptant != null) {
+            return adoptionRequestRepository.getByIds(requestsByAdoptant.lookup(adoptantId)).stream()
+                    .filter(request -> request.getAdoptantId() == adoptantId)
+                    .collect(Collectors.toList());
+        }
+        try (Stream<AdoptionRequest> requests = adoptionRequestRepository.scan(request -> request.getAdoptantId() == adoptantId)) {
+            return requests.collect(Collectors.toList());
+        }
     }
 
     /**
-     * Adds a new adoption request to the system.
+     * Adds a new adoption request to the system. Assigns a unique ID if the request does not have one yet.
      *
      * @param adoptionRequest The adoption request to be added.
      */
     public void addAdoptionRequest(AdoptionRequest adoptionRequest) {
+        if (adoptionRequest.getId() <= 0) {
+            adoptionRequest.setId(adoptionRequestRepository.generateUniqueId());
+        }
         adoptionRequestRepository.add(adoptionRequest);
     }
 
@@ -163,25 +268,28 @@ public class AdoptantService {
     }
 
     /**
-     * Retrieves a list of adoptants sorted by the total number of adoptions they have made.
+     * Retrieves the adoptants sorted by the total number of adoptions they have made, with their counts.
      * The adoptants are sorted in descending order based on their adoption count.
      *
-     * @return A list of adoptants sorted by their total number of adoptions.
+     * @return A list of adoptants and their adoption counts, most adoptions first.
      */
-    public List<Adoptant> getAdoptantsByTotalAdoptions() {
-        Map<Adoptant, Integer> adoptantAdoptionCount = new HashMap<>();
+    public List<AdoptantRanking> getAdoptantsByTotalAdoptions() {
+        return getTopAdoptantsByTotalAdoptions(Integer.MAX_VALUE);
+    }
 
-        for (AdoptionRequest request : adoptionRequestRepository.getAll()) {
-            Adoptant adoptant = request.getAdoptant();
-            adoptantAdoptionCount.put(adoptant, adoptantAdoptionCount.getOrDefault(adoptant, 0) + 1);
+    /**
+     * Retrieves the adoptants who have made the most adoptions, with their counts.
+     * The live leaderboard answers in time proportional to the limit; only the returned adoptants are read.
+     *
+     * @param limit The maximum number of adoptants to return.
+     * @return A list of at most {@code limit} adoptants and their adoption counts, most adoptions first.
+     */
+    public List<AdoptantRanking> getTopAdoptantsByTotalAdoptions(int limit) {
+        if (leaderboard != null) {
+            return leaderboard.rank(limit, adoptantRepository);
+        }
+        try (Stream<AdoptionRequest> requests = adoptionRequestRepository.scan()) {
+            return AdoptantLeaderboard.of(requests).rank(limit, adoptantRepository);
         }
-
-        List<Adoptant> sortedAdoptants = new ArrayList<>(adoptantAdoptionCount.keySet());
-        sortedAdoptants.sort((adoptant1, adoptant2) -> Integer.compare(
-                adoptantAdoptionCount.get(adoptant2),
-                adoptantAdoptionCount.get(adoptant1)
-        ));
-
-        return sortedAdoptants;
     }
 }
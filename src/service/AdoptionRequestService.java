@@ -1,25 +1,62 @@
 package service;
 
+import models.AdoptantRanking;
+import models.AdoptionDecisionReport;
 import models.AdoptionRequest;
+import models.AdoptionRequestStatus;
 import models.Animal;
+import models.AnimalStatus;
 import models.Adoptant;
+import repository.AdoptantLeaderboard;
 import repository.IRepository;
+import repository.LockStripes;
+import repository.Page;
+import repository.PendingRequestQueues;
+import repository.StatusIndex;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class responsible for handling operations related to adoption requests.
  * It interacts with repositories to add, approve, reject, and retrieve adoption requests.
+ * <p>
+ * Approvals and rejections are serialized per animal with lock stripes that are shared by every service
+ * over the same animal repository instance. Services over different repository instances, such as two
+ * processes working on the same files, do not coordinate their decisions.
  */
 public class AdoptionRequestService {
+    private static final String STATUS_INDEX = "adoptionRequest.status";
+    private static final int ANIMAL_LOCK_STRIPES = 64;
+    private static final Map<IRepository<Animal>, LockStripes> ANIMAL_LOCKS = new WeakHashMap<>(); // Guarded by itself
+    private static final Comparator<AdoptionRequest> REVIEW_ORDER = Comparator
+            .comparing(AdoptionRequest::getRequestDate, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingInt(AdoptionRequest::getId); // Oldest first, the same order as the pending queues
+
     private IRepository<AdoptionRequest> adoptionRequestRepository;
     private IRepository<Animal> animalRepository;
     private IRepository<Adoptant> adoptantRepository;
+    private StatusIndex<AdoptionRequest, AdoptionRequestStatus> statusIndex; // Null if the repository has no indexes
+    private AdoptantLeaderboard leaderboard; // Null if the repository has no indexes
+    private PendingRequestQueues pendingQueues; // Null if the repository has no indexes
+    private final LockStripes animalLocks; // Serialize decisions per animal, shared per animal repository
 
     /**
      * Constructor for the AdoptionRequestService.
+     * Registers a status index, the adoptant leaderboard and the pending request queues
+     * on the request repository if it supports indexes.
      *
      * @param adoptionRequestRepository The repository for adoption requests.
      * @param animalRepository The repository for animals.
@@ -29,14 +66,24 @@ public class AdoptionRequestService {
         this.adoptionRequestRepository = adoptionRequestRepository;
         this.animalRepository = animalRepository;
         this.adoptantRepository = adoptantRepository;
+        synchronized (ANIMAL_LOCKS) {
+            this.animalLocks = ANIMAL_LOCKS.computeIfAbsent(animalRepository, repository -> new LockStripes(ANIMAL_LOCK_STRIPES));
+        }
+        this.statusIndex = adoptionRequestRepository.registerIndex(
+                new StatusIndex<>(STATUS_INDEX, AdoptionRequestStatus.class, AdoptionRequest::getStatus));
+        this.leaderboard = adoptionRequestRepository.registerIndex(new AdoptantLeaderboard());
+        this.pendingQueues = adoptionRequestRepository.registerIndex(new PendingRequestQueues());
     }
 
     /**
-     * Adds a new adoption request to the repository.
+     * Adds a new adoption request to the repository. Assigns a unique ID if the request does not have one yet.
      *
      * @param request The adoption request to be added.
      */
     public void addAdoptionRequest(AdoptionRequest request) {
+        if (request.getId() <= 0) {
+            request.setId(adoptionRequestRepository.generateUniqueId());
+        }
         adoptionRequestRepository.add(request);
     }
 
@@ -49,24 +96,124 @@ public class AdoptionRequestService {
         return adoptionRequestRepository.getAll();
     }
 
+    /**
+     * Retrieves one page of adoption requests ordered by ID.
+     *
+     * @param afterId The cursor: only requests with a greater ID are returned ({@link Page#START} for the first page).
+     * @param limit The maximum number of requests on the page.
+     * @return The page of adoption requests.
+     */
+    public Page<AdoptionRequest> getAdoptionRequestsPage(int afterId, int limit) {
+        return adoptionRequestRepository.page(afterId, limit);
+    }
+
+    /**
+     * Retrieves the adoption requests with the given status, such as all pending requests.
+     *
+     * @param status The status to filter requests by.
+     * @return A list of adoption requests with that status.
+     */
+    public List<AdoptionRequest> getAdoptionRequestsByStatus(AdoptionRequestStatus status) {
+        if (statusIndex != null) {
+            return adoptionRequestRepository.getByIds(statusIndex.lookup(status));
+        }
+        try (Stream<AdoptionRequest> requests = adoptionRequestRepository.scan(request -> request.getStatus() == status)) {
+            return requests.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Counts the adoption requests with the given status.
+     *
+     * @param status The status to count.
+     * @return The number of adoption requests with that status.
+     */
+    public int countAdoptionRequestsByStatus(AdoptionRequestStatus status) {
+        if (statusIndex != null) {
+            return statusIndex.count(status);
+        }
+        try (Stream<AdoptionRequest> requests = adoptionRequestRepository.scan(request -> request.getStatus() == status)) {
+            return (int) requests.count();
+        }
+    }
+
+    /**
+     * Retrieves the pending adoption request that should be reviewed next, which is the oldest one.
+     *
+     * @return The oldest pending request, or null if no request is pending.
+     */
+    public AdoptionRequest getNextPendingRequest() {
+        if (pendingQueues != null) {
+            int requestId = pendingQueues.next();
+            return requestId >= 0 ? adoptionRequestRepository.getById(requestId) : null;
+        }
+        try (Stream<AdoptionRequest> requests = adoptionRequestRepository.scan(request -> request.getStatus() == AdoptionRequestStatus.PENDING)) {
+            return requests.min(REVIEW_ORDER).orElse(null);
+        }
+    }
+
+    /**
+     * Retrieves the pending adoption requests for an animal, oldest first.
+     *
+     * @param animalId The ID of the animal.
+     * @return A list of the animal's pending requests.
+     */
+    public List<AdoptionRequest> getPendingRequestsForAnimal(int animalId) {
+        if (pendingQueues != null) {
+            List<Integer> queue = pendingQueues.pendingForAnimal(animalId);
+            Map<Integer, AdoptionRequest> requestsById = new HashMap<>();
+            for (AdoptionRequest request : adoptionRequestRepository.getByIds(queue)) {
+                requestsById.put(request.getId(), request);
+            }
+            return queue.stream()
+                    .map(requestsById::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList()); // Keep the queue order
+        }
+        try (Stream<AdoptionRequest> requests = adoptionRequestRepository.scan(request ->
+                request.getAnimalId() == animalId && request.getStatus() == AdoptionRequestStatus.PENDING)) {
+            return requests.sorted(REVIEW_ORDER).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Returns the number of adoption requests waiting for review.
+     *
+     * @return The number of pending requests.
+     */
+    public int getPendingQueueDepth() {
+        return pendingQueues != null ? pendingQueues.depth() : countAdoptionRequestsByStatus(AdoptionRequestStatus.PENDING);
+    }
+
+    /**
+     * Returns the number of adoption requests waiting for review for an animal.
+     *
+     * @param animalId The ID of the animal.
+     * @return The number of pending requests for the animal.
+     */
+    public int getPendingQueueDepth(int animalId) {
+        return pendingQueues != null ? pendingQueues.depth(animalId) : getPendingRequestsForAnimal(animalId).size();
+    }
+
     /**
      * Approves an adoption request.
      * Marks the adoption request as "Approved" and updates the animal's status to "Adopted".
+     * The animal's other pending requests are rejected in the same batched write.
      *
      * @param requestId The ID of the adoption request to approve.
      */
     public void approveAdoptionRequest(int requestId) {
-        AdoptionRequest request = adoptionRequestRepository.getById(requestId);
-        if (request != null && request.getStatus().equals("Pending")) {
-            request = new AdoptionRequest(request.getId(), request.getAdoptant(), request.getAnimal(), request.getRequestDate(), "Approved");
-            adoptionRequestRepository.update(request);
-
-            // Mark the animal as adopted
+        AdoptionDecisionReport report = approveAll(requestId);
+        if (report.getOutcome(requestId) == AdoptionDecisionReport.Outcome.APPROVED) {
+            AdoptionRequest request = report.getRequest(requestId);
             Animal animal = request.getAnimal();
-            animal.setStatus("Adopted");
-            animalRepository.update(animal);
-
-            System.out.println("Adoption request approved for animal: " + animal.getName());
+            System.out.println("Adoption request approved for animal: " + (animal != null ? animal.getName() : "#" + request.getAnimalId()));
+            int autoRejected = report.count(AdoptionDecisionReport.Outcome.AUTO_REJECTED);
+            if (autoRejected > 0) {
+                System.out.println(autoRejected + " other pending request(s) for this animal were rejected.");
+            }
+        } else if (report.getOutcome(requestId) == AdoptionDecisionReport.Outcome.ANIMAL_ADOPTED) {
+            System.out.println(AdoptionDecisionReport.Outcome.ANIMAL_ADOPTED.getLabel());
         } else {
             System.out.println("Request not found or already processed.");
         }
@@ -79,34 +226,290 @@ public class AdoptionRequestService {
      * @param requestId The ID of the adoption request to reject.
      */
     public void rejectAdoptionRequest(int requestId) {
-        AdoptionRequest request = adoptionRequestRepository.getById(requestId);
-        if (request != null && request.getStatus().equals("Pending")) {
-            request = new AdoptionRequest(request.getId(), request.getAdoptant(), request.getAnimal(), request.getRequestDate(), "Rejected");
-            adoptionRequestRepository.update(request);
-            System.out.println("Adoption request rejected for animal: " + request.getAnimal().getName());
+        AdoptionDecisionReport report = rejectAll(requestId);
+        if (report.getOutcome(requestId) == AdoptionDecisionReport.Outcome.REJECTED) {
+            AdoptionRequest request = report.getRequest(requestId);
+            Animal animal = request.getAnimal();
+            System.out.println("Adoption request rejected for animal: " + (animal != null ? animal.getName() : "#" + request.getAnimalId()));
         } else {
             System.out.println("Request not found or already processed.");
         }
     }
 
     /**
-     * Retrieves a list of adoptants sorted by the total number of adoption requests they have made.
-     * The adoptants are sorted in descending order based on the number of requests.
+     * Approves several adoption requests at once.
+     * The requests are read with one lookup and validated in parallel. When several of them are for the same animal,
+     * the one with the earliest request date (then the lowest ID) is approved and the others are rejected, so the
+     * result does not depend on the order of the IDs. The other pending requests for every adopted animal are
+     * rejected as well. All changed requests are saved with one batched write, and all adopted animals with another.
+     * <p>
+     * Decisions are serialized per animal: the locks of the animals involved are held while the requests are read
+     * again, checked and saved, so two concurrent approvals can never adopt the same animal twice, while approvals
+     * for other animals proceed in parallel.
+     *
+     * @param requestIds The IDs of the adoption requests to approve; duplicates are ignored.
+     * @return The outcome for every distinct ID, followed by the requests that were rejected automatically.
+     */
+    public AdoptionDecisionReport approveAll(int... requestIds) {
+        return decideLocked(distinct(requestIds), this::decideApprovals);
+    }
+
+    /**
+     * Approves the requests with the given IDs. Must be called while holding the locks of the requests' animals.
+     *
+     * @param ids The distinct request IDs.
+     * @param requestsById The requests that were found, read while holding the locks.
+     * @return The outcome for every ID, followed by the requests that were rejected automatically.
+     */
+    private AdoptionDecisionReport decideApprovals(List<Integer> ids, Map<Integer, AdoptionRequest> requestsById) {
+        List<AdoptionDecisionReport.Outcome> checks = validate(ids, requestsById, AdoptionDecisionReport.Outcome.APPROVED);
+
+        // Pick one request per animal, independently of the order of the IDs
+        Map<Integer, AdoptionRequest> winners = new TreeMap<>(); // Animal ID to the request that is approved
+        for (int i = 0; i < ids.size(); i++) {
+            if (checks.get(i) == AdoptionDecisionReport.Outcome.APPROVED) {
+                AdoptionRequest request = requestsById.get(ids.get(i));
+                winners.merge(request.getAnimalId(), request,
+                        (current, candidate) -> REVIEW_ORDER.compare(current, candidate) <= 0 ? current : candidate);
+            }
+        }
+
+        // An animal that is already adopted cannot be adopted again, even if some of its requests are still pending
+        Map<Integer, Animal> animalsById = new HashMap<>();
+        for (Animal animal : animalRepository.getByIds(winners.keySet())) {
+            animalsById.put(animal.getId(), animal);
+        }
+        Set<Integer> unavailable = new HashSet<>();
+        for (Animal animal : animalsById.values()) {
+            if (animal.getStatus() == AnimalStatus.ADOPTED) {
+                unavailable.add(animal.getId());
+            }
+        }
+        winners.keySet().removeAll(unavailable);
+
+        AdoptionDecisionReport report = new AdoptionDecisionReport();
+        List<AdoptionRequest> decided = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            int requestId = ids.get(i);
+            AdoptionRequest request = requestsById.get(requestId);
+            if (checks.get(i) != AdoptionDecisionReport.Outcome.APPROVED) {
+                report.record(requestId, checks.get(i), null);
+            } else if (unavailable.contains(request.getAnimalId())) {
+                AdoptionRequest rejected = request.withStatus(AdoptionRequestStatus.REJECTED);
+                decided.add(rejected);
+                report.record(requestId, AdoptionDecisionReport.Outcome.ANIMAL_ADOPTED, rejected);
+            } else if (winners.get(request.getAnimalId()) == request) {
+                AdoptionRequest approved = request.withStatus(AdoptionRequestStatus.APPROVED);
+                decided.add(approved);
+                report.record(requestId, AdoptionDecisionReport.Outcome.APPROVED, approved);
+            } else {
+                AdoptionRequest rejected = request.withStatus(AdoptionRequestStatus.REJECTED);
+                decided.add(rejected);
+                report.record(requestId, AdoptionDecisionReport.Outcome.CONFLICT, rejected);
+            }
+        }
+        for (AdoptionRequest sibling : getPendingRequestsForAnimals(winners.keySet())) {
+            if (!requestsById.containsKey(sibling.getId())) {
+                AdoptionRequest rejected = sibling.withStatus(AdoptionRequestStatus.REJECTED); // The animal can only be adopted once
+                decided.add(rejected);
+                report.record(sibling.getId(), AdoptionDecisionReport.Outcome.AUTO_REJECTED, rejected);
+            }
+        }
+
+        if (!decided.isEmpty()) {
+            adoptionRequestRepository.updateAll(decided);
+        }
+        // Mark the animals as adopted, starting from the stored animals rather than the copies held by the requests.
+        // The stored instances may be shared, for example through an identity map, so they are copied, not changed.
+        List<Animal> adopted = winners.keySet().stream()
+                .map(animalsById::get)
+                .filter(Objects::nonNull)
+                .map(animal -> animal.withStatus(AnimalStatus.ADOPTED))
+                .collect(Collectors.toList());
+        if (!adopted.isEmpty()) {
+            animalRepository.updateAll(adopted);
+        }
+        return report;
+    }
+
+    /**
+     * Rejects several adoption requests at once.
+     * The requests are read with one lookup, validated in parallel and saved with one batched write.
+     * Like approvals, rejections hold the locks of the animals involved, so a request cannot be rejected
+     * and approved at the same time.
+     *
+     * @param requestIds The IDs of the adoption requests to reject; duplicates are ignored.
+     * @return The outcome for every distinct ID.
+     */
+    public AdoptionDecisionReport rejectAll(int... requestIds) {
+        return decideLocked(distinct(requestIds), this::decideRejections);
+    }
+
+    /**
+     * Rejects the requests with the given IDs. Must be called while holding the locks of the requests' animals.
      *
-     * @return A list of adoptants sorted by the total number of adoption requests.
+     * @param ids The distinct request IDs.
+     * @param requestsById The requests that were found, read while holding the locks.
+     * @return The outcome for every ID.
+     */
+    private AdoptionDecisionReport decideRejections(List<Integer> ids, Map<Integer, AdoptionRequest> requestsById) {
+        List<AdoptionDecisionReport.Outcome> checks = validate(ids, requestsById, AdoptionDecisionReport.Outcome.REJECTED);
+
+        AdoptionDecisionReport report = new AdoptionDecisionReport();
+        List<AdoptionRequest> decided = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            int requestId = ids.get(i);
+            if (checks.get(i) == AdoptionDecisionReport.Outcome.REJECTED) {
+                AdoptionRequest rejected = requestsById.get(requestId).withStatus(AdoptionRequestStatus.REJECTED);
+                decided.add(rejected);
+                report.record(requestId, AdoptionDecisionReport.Outcome.REJECTED, rejected);
+            } else {
+                report.record(requestId, checks.get(i), null);
+            }
+        }
+        if (!decided.isEmpty()) {
+            adoptionRequestRepository.updateAll(decided);
+        }
+        return report;
+    }
+
+    /**
+     * Returns the given IDs without duplicates, in the order they first appear.
+     */
+    private static List<Integer> distinct(int[] requestIds) {
+        return Arrays.stream(requestIds).distinct().boxed().collect(Collectors.toList());
+    }
+
+    /**
+     * Decides the given requests while holding the locks of their animals.
+     * The animals are first found without holding any lock. Once their locks are held, the requests are read again;
+     * if one of them was meanwhile moved to an animal whose lock is not held, the locks are released and taken again
+     * for the animals the requests are for now, so the decision always sees the requests as they are under the locks.
+     */
+    private AdoptionDecisionReport decideLocked(List<Integer> ids,
+                                                BiFunction<List<Integer>, Map<Integer, AdoptionRequest>, AdoptionDecisionReport> decision) {
+        Set<Integer> animalIds = animalIdsOf(loadRequests(ids));
+        while (true) {
+            int[] stripes = stripesOf(animalIds);
+            for (int stripe : stripes) {
+                animalLocks.getStripe(stripe).writeLock().lock();
+            }
+            try {
+                Map<Integer, AdoptionRequest> requestsById = loadRequests(ids);
+                Set<Integer> current = animalIdsOf(requestsById);
+                if (covers(stripes, current)) {
+                    return decision.apply(ids, requestsById);
+                }
+                animalIds = current; // A request's animal changed before its lock was held: lock the new animals
+            } finally {
+                for (int i = stripes.length - 1; i >= 0; i--) {
+                    animalLocks.getStripe(stripes[i]).writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    private static Set<Integer> animalIdsOf(Map<Integer, AdoptionRequest> requestsById) {
+        return requestsById.values().stream()
+                .map(AdoptionRequest::getAnimalId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns the lock stripes of the given animals in ascending order, the order they must be locked in
+     * so that batches that share animals cannot deadlock.
      */
-    public List<Adoptant> getAdoptantsByTotalRequests() {
-        // Get all adoption requests
-        List<AdoptionRequest> allRequests = adoptionRequestRepository.getAll();
+    private int[] stripesOf(Set<Integer> animalIds) {
+        return animalIds.stream().mapToInt(animalLocks::stripeOf).distinct().sorted().toArray();
+    }
+
+    private boolean covers(int[] stripes, Set<Integer> animalIds) {
+        for (int animalId : animalIds) {
+            if (Arrays.binarySearch(stripes, animalLocks.stripeOf(animalId)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        // Create a map linking each adoptant to the number of adoption requests
-        Map<Adoptant, Long> adoptantRequestCount = allRequests.stream()
-                .collect(Collectors.groupingBy(AdoptionRequest::getAdoptant, Collectors.counting()));
+    /**
+     * Reads the requests with the given IDs with one lookup.
+     */
+    private Map<Integer, AdoptionRequest> loadRequests(List<Integer> ids) {
+        Map<Integer, AdoptionRequest> requestsById = new HashMap<>();
+        for (AdoptionRequest request : adoptionRequestRepository.getByIds(ids)) {
+            requestsById.put(request.getId(), request);
+        }
+        return requestsById;
+    }
 
-        // Sort the adoptants by the number of requests in descending order
-        return adoptantRequestCount.entrySet().stream()
-                .sorted((entry1, entry2) -> Long.compare(entry2.getValue(), entry1.getValue())) // Sort in descending order
-                .map(Map.Entry::getKey)  // Extract only the adoptants from the map
+    /**
+     * Checks in parallel which requests can be decided. Each check only reads its own request,
+     * and the results are collected in the order of the IDs.
+     *
+     * @param ids The distinct request IDs.
+     * @param requestsById The requests that were found.
+     * @param decision The outcome to report for a request that is still pending.
+     * @return The outcome for each ID: the decision, {@code NOT_FOUND} or {@code ALREADY_PROCESSED}.
+     */
+    private static List<AdoptionDecisionReport.Outcome> validate(List<Integer> ids, Map<Integer, AdoptionRequest> requestsById,
+                                                                 AdoptionDecisionReport.Outcome decision) {
+        return ids.parallelStream()
+                .map(requestId -> {
+                    AdoptionRequest request = requestsById.get(requestId);
+                    if (request == null) {
+                        return AdoptionDecisionReport.Outcome.NOT_FOUND;
+                    }
+                    return request.getStatus() == AdoptionRequestStatus.PENDING ? decision : AdoptionDecisionReport.Outcome.ALREADY_PROCESSED;
+                })
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Retrieves the pending requests for several animals with one lookup, or one scan without the pending queues.
+     */
+    private List<AdoptionRequest> getPendingRequestsForAnimals(Set<Integer> animalIds) {
+        if (animalIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (pendingQueues != null) {
+            List<Integer> requestIds = new ArrayList<>();
+            for (int animalId : animalIds) {
+                requestIds.addAll(pendingQueues.pendingForAnimal(animalId));
+            }
+            return adoptionRequestRepository.getByIds(requestIds).stream()
+                    .filter(request -> request.getStatus() == AdoptionRequestStatus.PENDING)
+                    .collect(Collectors.toList());
+        }
+        try (Stream<AdoptionRequest> requests = adoptionRequestRepository.scan(request ->
+                animalIds.contains(request.getAnimalId()) && request.getStatus() == AdoptionRequestStatus.PENDING)) {
+            return requests.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Retrieves all adoptants who have made adoption requests, with their request counts,
+     * sorted in descending order based on the number of requests.
+     *
+     * @return A list of adoptants and their request counts, most requests first.
+     */
+    public List<AdoptantRanking> getAdoptantsByTotalRequests() {
+        return getTopAdoptantsByTotalRequests(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Retrieves the adoptants who have made the most adoption requests, with their request counts.
+     * The live leaderboard answers in time proportional to the limit; only the returned adoptants are read.
+     *
+     * @param limit The maximum number of adoptants to return.
+     * @return A list of at most {@code limit} adoptants and their request counts, most requests first.
+     */
+    public List<AdoptantRanking> getTopAdoptantsByTotalRequests(int limit) {
+        if (leaderboard != null) {
+            return leaderboard.rank(limit, adoptantRepository);
+        }
+        try (Stream<AdoptionRequest> requests = adoptionRequestRepository.scan()) {
+            return AdoptantLeaderboard.of(requests).rank(limit, adoptantRepository);
+        }
+    }
 }
\ No newline at end of file
@@ -1,25 +1,72 @@
 package service;
 
 import models.Animal;
+import models.AnimalStatus;
+import models.AnimalType;
+import repository.AnimalColumnStore;
 import repository.IRepository;
+import repository.Page;
+import repository.StatusIndex;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class responsible for managing animal-related operations.
  * It interacts with the repository to add, update, delete, and retrieve animals.
  */
 public class AnimalService {
+    private static final String STATUS_INDEX = "animal.status";
+
     private IRepository<Animal> animalRepository;
+    private StatusIndex<Animal, AnimalStatus> statusIndex; // Null if the column store answers by status, or the repository has no indexes
+    private AnimalColumnStore columns; // Hot fields for reports, null if not configured or the repository has no indexes
+    private AnimalTypeRegistry typeRegistry; // Shared animal types, null if types are not interned
 
     /**
      * Constructor for the AnimalService.
+     * Registers a status index on the repository if it supports indexes.
      *
      * @param animalRepository The repository for animals.
      */
     public AnimalService(IRepository<Animal> animalRepository) {
+        this(animalRepository, null);
+    }
+
+    /**
+     * Constructor for the AnimalService that answers age, type and status reports from a column store.
+     * The column store is registered on the repository, which keeps it up to date, and takes the place of the status index.
+     *
+     * @param animalRepository The repository for animals.
+     * @param columns The column store for the hot animal fields, or null to read the animals themselves.
+     */
+    public AnimalService(IRepository<Animal> animalRepository, AnimalColumnStore columns) {
+        this(animalRepository, columns, null);
+    }
+
+    /**
+     * Constructor for the AnimalService that also interns animal types.
+     * Every animal that is added or updated then refers to the shared instance of its type.
+     *
+     * @param animalRepository The repository for animals.
+     * @param columns The column store for the hot animal fields, or null to read the animals themselves.
+     * @param typeRegistry The registry of shared animal types, or null to store types as given.
+     */
+    public AnimalService(IRepository<Animal> animalRepository, AnimalColumnStore columns, AnimalTypeRegistry typeRegistry) {
         this.animalRepository = animalRepository;
+        this.typeRegistry = typeRegistry;
+        if (columns != null) {
+            this.columns = animalRepository.registerIndex(columns);
+        }
+        if (this.columns == null) {
+            this.statusIndex = animalRepository.registerIndex(
+                    new StatusIndex<>(STATUS_INDEX, AnimalStatus.class, Animal::getStatus));
+        }
     }
 
     /**
@@ -28,9 +75,20 @@ public class AnimalService {
      * @param animal The animal to be added.
      */
     public void addAnimal(Animal animal) {
+        internType(animal);
         animalRepository.add(animal);
     }
 
+    /**
+     * Adds several animals to the repository in a single batch.
+     *
+     * @param animals The animals to be added.
+     */
+    public void addAnimals(List<Animal> animals) {
+        animals.forEach(this::internType);
+        animalRepository.addAll(animals);
+    }
+
     /**
      * Retrieves all animals from the repository.
      *
@@ -40,6 +98,17 @@ public class AnimalService {
         return animalRepository.getAll();
     }
 
+    /**
+     * Retrieves one page of animals ordered by ID.
+     *
+     * @param afterId The cursor: only animals with a greater ID are returned ({@link Page#START} for the first page).
+     * @param limit The maximum number of animals on the page.
+     * @return The page of animals.
+     */
+    public Page<Animal> getAnimalsPage(int afterId, int limit) {
+        return animalRepository.page(afterId, limit);
+    }
+
     /**
      * Retrieves an animal by its ID.
      *
@@ -56,9 +125,20 @@ public class AnimalService {
      * @param animal The animal with updated information.
      */
     public void updateAnimal(Animal animal) {
+        internType(animal);
         animalRepository.update(animal);
     }
 
+    /**
+     * Updates several existing animals in the repository in a single batch.
+     *
+     * @param animals The animals with updated information.
+     */
+    public void updateAnimals(List<Animal> animals) {
+        animals.forEach(this::internType);
+        animalRepository.updateAll(animals);
+    }
+
     /**
      * Deletes an animal from the repository by its ID.
      *
@@ -68,26 +148,137 @@ public class AnimalService {
         animalRepository.delete(id);
     }
 
+    /**
+     * Deletes several animals from the repository in a single batch.
+     *
+     * @param ids The IDs of the animals to be deleted.
+     */
+    public void deleteAnimals(int... ids) {
+        animalRepository.deleteAll(ids);
+    }
+
     /**
      * Sorts animals by their age in ascending order.
      *
      * @return A list of animals sorted by age in ascending order.
      */
     public List<Animal> sortAnimalsByAge() {
-        return animalRepository.getAll().stream()
-                .sorted((a1, a2) -> Integer.compare(a1.getAge(), a2.getAge()))
-                .collect(Collectors.toList());
+        if (columns != null) {
+            return getByIdsInOrder(columns.idsSortedByAge());
+        }
+        try (Stream<Animal> animals = animalRepository.scan()) {
+            return animals
+                    .sorted((a1, a2) -> Integer.compare(a1.getAge(), a2.getAge()))
+                    .collect(Collectors.toList());
+        }
     }
 
     /**
      * Filters animals based on their availability status.
      *
-     * @param status The status to filter animals by (e.g., "Available", "Adopted").
+     * @param status The status to filter animals by.
      * @return A list of animals that match the given status.
      */
-    public List<Animal> filterAnimalsByStatus(String status) {
-        return animalRepository.getAll().stream()
-                .filter(animal -> animal.getStatus().equalsIgnoreCase(status))
+    public List<Animal> filterAnimalsByStatus(AnimalStatus status) {
+        if (columns != null) {
+            return getByIdsInOrder(columns.idsWithStatus(status));
+        }
+        if (statusIndex != null) {
+            return animalRepository.getByIds(statusIndex.lookup(status));
+        }
+        try (Stream<Animal> animals = animalRepository.scan(animal -> animal.getStatus() == status)) {
+            return animals.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Returns the shared animal type with the given name and characteristics, creating it the first time.
+     * Without a type registry, a new unsaved type is returned.
+     *
+     * @param typeName The name of the type (e.g., Dog, Cat).
+     * @param specialCharacteristics The special characteristics of the type.
+     * @return The animal type.
+     */
+    public AnimalType getAnimalType(String typeName, String specialCharacteristics) {
+        if (typeRegistry != null) {
+            return typeRegistry.intern(typeName, specialCharacteristics);
+        }
+        return new AnimalType(0, typeName, specialCharacteristics);
+    }
+
+    /**
+     * Filters animals by their type, comparing type IDs.
+     *
+     * @param typeId The ID of the animal type.
+     * @return A list of animals of the given type.
+     */
+    public List<Animal> filterAnimalsByType(int typeId) {
+        if (columns != null) {
+            return getByIdsInOrder(columns.idsOfType(typeId));
+        }
+        try (Stream<Animal> animals = animalRepository.scan(
+                animal -> animal.getAnimalType() != null && animal.getAnimalType().getId() == typeId)) {
+            return animals.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Retrieves the youngest animals. With a column store, only the returned animals are read from the repository.
+     *
+     * @param limit The maximum number of animals to return.
+     * @return Up to {@code limit} animals, youngest first.
+     */
+    public List<Animal> getYoungestAnimals(int limit) {
+        if (columns != null) {
+            int[] ids = columns.idsSortedByAge();
+            return getByIdsInOrder(Arrays.copyOf(ids, Math.min(limit, ids.length)));
+        }
+        try (Stream<Animal> animals = animalRepository.scan()) {
+            return animals
+                    .sorted((a1, a2) -> Integer.compare(a1.getAge(), a2.getAge()))
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Counts the animals with the given status.
+     * The status index keeps a running count per status, and the column store compares one byte per animal,
+     * so neither reads any animal.
+     *
+     * @param status The status to count.
+     * @return The number of animals with that status.
+     */
+    public int countAnimalsByStatus(AnimalStatus status) {
+        if (columns != null) {
+            return columns.countWithStatus(status);
+        }
+        if (statusIndex != null) {
+            return statusIndex.count(status);
+        }
+        try (Stream<Animal> animals = animalRepository.scan(animal -> animal.getStatus() == status)) {
+            return (int) animals.count();
+        }
+    }
+
+    /**
+     * Retrieves the animals with the given IDs, in the order of the IDs.
+     *
+     * @param ids The IDs of the animals.
+     * @return The animals that were found, in the given order.
+     */
+    private List<Animal> getByIdsInOrder(int[] ids) {
+        Map<Integer, Animal> byId = animalRepository.getByIds(Arrays.stream(ids).boxed().collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(Animal::getId, Function.identity(), (first, second) -> first));
+        return Arrays.stream(ids)
+                .mapToObj(byId::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
+
+    private void internType(Animal animal) {
+        if (typeRegistry != null) {
+            animal.setAnimalType(typeRegistry.intern(animal.getAnimalType()));
+        }
+    }
 }
@@ -0,0 +1,101 @@
+package service;
+
+import models.AnimalType;
+import repository.IRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Registry that interns animal types, so that every animal of the same type shares one
+ * {@link AnimalType} instance with a real ID, and each type is stored only once.
+ * Types are matched by name, ignoring case, and by special characteristics.
+ * All types are kept in memory; there are only ever a handful of them.
+ */
+public class AnimalTypeRegistry {
+    private IRepository<AnimalType> typeRepository;
+    private Map<String, AnimalType> typesByKey = new HashMap<>();
+    private Map<Integer, AnimalType> typesById = new HashMap<>();
+
+    /**
+     * Constructor for the AnimalTypeRegistry. Loads the types already stored in the repository.
+     *
+     * @param typeRepository The repository where animal types are stored.
+     */
+    public AnimalTypeRegistry(IRepository<AnimalType> typeRepository) {
+        this.typeRepository = typeRepository;
+        for (AnimalType type : typeRepository.getAll()) {
+            typesByKey.putIfAbsent(keyOf(type.getTypeName(), type.getSpecialCharacteristics()), type);
+            typesById.put(type.getId(), type);
+        }
+    }
+
+    /**
+     * Returns the shared type with the given name and characteristics, storing a new type the first time.
+     *
+     * @param typeName The name of the type (e.g., Dog, Cat); matched ignoring case.
+     * @param specialCharacteristics The special characteristics of the type.
+     * @return The shared animal type.
+     */
+    public synchronized AnimalType intern(String typeName, String specialCharacteristics) {
+        String key = keyOf(typeName, specialCharacteristics);
+        AnimalType type = typesByKey.get(key);
+        if (type == null) {
+            type = new AnimalType(typeRepository.generateUniqueId(), normalize(typeName), normalize(specialCharacteristics));
+            typeRepository.add(type);
+            typesByKey.put(key, type);
+            typesById.put(type.getId(), type);
+        }
+        return type;
+    }
+
+    /**
+     * Returns the shared instance of a type, for example one that was built by hand or read as a copy.
+     *
+     * @param type The animal type, may be null.
+     * @return The shared animal type, or null if the type was null.
+     */
+    public AnimalType intern(AnimalType type) {
+        if (type == null) {
+            return null;
+        }
+        synchronized (this) {
+            AnimalType shared = typesById.get(type.getId());
+            if (shared != null && keyOf(shared.getTypeName(), shared.getSpecialCharacteristics())
+                    .equals(keyOf(type.getTypeName(), type.getSpecialCharacteristics()))) {
+                return shared; // Same ID, name and characteristics: a copy of a stored type
+            }
+        }
+        return intern(type.getTypeName(), type.getSpecialCharacteristics());
+    }
+
+    /**
+     * Retrieves a type by its ID.
+     *
+     * @param id The ID of the type.
+     * @return The shared animal type, or null if no type has this ID.
+     */
+    public synchronized AnimalType getById(int id) {
+        return typesById.get(id);
+    }
+
+    /**
+     * Retrieves all known types.
+     *
+     * @return A list of all animal types.
+     */
+    public synchronized List<AnimalType> getAll() {
+        return new ArrayList<>(typesById.values());
+    }
+
+    private static String keyOf(String typeName, String specialCharacteristics) {
+        return normalize(typeName).toLowerCase(Locale.ROOT) + '\u0000' + normalize(specialCharacteristics);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim();
+    }
+}
@@ -2,24 +2,33 @@ package service;
 
 import models.Veterinarian;
 import repository.IRepository;
+import repository.SecondaryIndex;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class responsible for managing veterinarian-related operations.
  * It interacts with the repository to add, update, delete, and retrieve veterinarians.
  */
 public class VeterinarianService {
+    private static final String SPECIALIZATION_INDEX = "veterinarian.specialization";
+
     private IRepository<Veterinarian> veterinarianRepository;
+    private SecondaryIndex<Veterinarian, String> specializationIndex; // Case-folded, null if the repository has no indexes
 
     /**
      * Constructor for the VeterinarianService.
+     * Registers a case-insensitive specialization index on the repository if it supports indexes.
      *
      * @param veterinarianRepository The repository for veterinarians.
      */
     public VeterinarianService(IRepository<Veterinarian> veterinarianRepository) {
         this.veterinarianRepository = veterinarianRepository;
+        this.specializationIndex = veterinarianRepository.registerIndex(
+                new SecondaryIndex<>(SPECIALIZATION_INDEX, veterinarian -> foldCase(veterinarian.getSpecialization())));
     }
 
     /**
@@ -74,9 +83,11 @@ public class VeterinarianService {
      * @return A list of veterinarians sorted by specialization.
      */
     public List<Veterinarian> sortVeterinariansBySpecialization() {
-        return veterinarianRepository.getAll().stream()
-                .sorted((v1, v2) -> v1.getSpecialization().compareTo(v2.getSpecialization()))
-                .collect(Collectors.toList());
+        try (Stream<Veterinarian> veterinarians = veterinarianRepository.scan()) {
+            return veterinarians
+                    .sorted((v1, v2) -> v1.getSpecialization().compareTo(v2.getSpecialization()))
+                    .collect(Collectors.toList());
+        }
     }
 
     /**
@@ -86,8 +97,16 @@ public class VeterinarianService {
      * @return A list of veterinarians that match the given specialization.
      */
     public List<Veterinarian> filterVeterinariansBySpecialization(String specialization) {
-        return veterinarianRepository.getAll().stream()
-                .filter(veterinarian -> veterinarian.getSpecialization().equalsIgnoreCase(specialization))
-                .collect(Collectors.toList());
+        if (specializationIndex != null) {
+            return veterinarianRepository.getByIds(specializationIndex.lookup(foldCase(specialization)));
+        }
+        try (Stream<Veterinarian> veterinarians = veterinarianRepository.scan(
+                veterinarian -> veterinarian.getSpecialization().equalsIgnoreCase(specialization))) {
+            return veterinarians.collect(Collectors.toList());
+        }
+    }
+
+    private static String foldCase(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
     }
 }
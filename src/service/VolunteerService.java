@@ -5,8 +5,8 @@ import models.Volunteer;
 import repository.IRepository;
 
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class that handles the business logic related to volunteers and animals.
@@ -29,15 +29,33 @@ public class VolunteerService {
     }
 
     /**
-     * Adds a new volunteer to the system. Assigns a unique ID before adding the volunteer.
+     * Adds a new volunteer to the system. Assigns a unique ID before adding the volunteer,
+     * unless the volunteer already has one.
      *
      * @param volunteer The volunteer object to be added.
      */
     public void addVolunteer(Volunteer volunteer) {
-        volunteer.setId(generateUniqueId());
+        if (volunteer.getId() <= 0) {
+            volunteer.setId(generateUniqueId());
+        }
         volunteerRepository.add(volunteer);
     }
 
+    /**
+     * Adds several volunteers to the system in a single batch.
+     * Assigns a unique ID to every volunteer that does not have one yet before adding them.
+     *
+     * @param volunteers The volunteers to be added.
+     */
+    public void addVolunteers(List<Volunteer> volunteers) {
+        for (Volunteer volunteer : volunteers) {
+            if (volunteer.getId() <= 0) {
+                volunteer.setId(generateUniqueId());
+            }
+        }
+        volunteerRepository.addAll(volunteers);
+    }
+
     /**
      * Retrieves a list of all volunteers in the system.
      *
@@ -66,6 +84,15 @@ public class VolunteerService {
         volunteerRepository.update(volunteer);
     }
 
+    /**
+     * Updates the information of several volunteers in a single batch.
+     *
+     * @param volunteers The volunteers with updated information.
+     */
+    public void updateVolunteers(List<Volunteer> volunteers) {
+        volunteerRepository.updateAll(volunteers);
+    }
+
     /**
      * Deletes a volunteer by their ID.
      *
@@ -75,15 +102,26 @@ public class VolunteerService {
         volunteerRepository.delete(id);
     }
 
+    /**
+     * Deletes several volunteers by their IDs in a single batch.
+     *
+     * @param ids The IDs of the volunteers to be deleted.
+     */
+    public void deleteVolunteers(int... ids) {
+        volunteerRepository.deleteAll(ids);
+    }
+
     /**
      * Sorts the list of volunteers based on their experience in descending order.
      *
      * @return A list of volunteers sorted by experience.
      */
     public List<Volunteer> sortVolunteersByExperience() {
-        return volunteerRepository.getAll().stream()
-                .sorted((v1, v2) -> v2.getExperience().compareTo(v1.getExperience()))
-                .collect(Collectors.toList());
+        try (Stream<Volunteer> volunteers = volunteerRepository.scan()) {
+            return volunteers
+                    .sorted((v1, v2) -> v2.getExperience().compareTo(v1.getExperience()))
+                    .collect(Collectors.toList());
+        }
     }
 
     /**
@@ -93,9 +131,9 @@ public class VolunteerService {
      * @return A list of volunteers who are involved in at least the specified number of shelters.
      */
     public List<Volunteer> filterVolunteersBySheltersCount(int minShelters) {
-        return volunteerRepository.getAll().stream()
-                .filter(volunteer -> volunteer.getShelters().size() >= minShelters)
-                .collect(Collectors.toList());
+        try (Stream<Volunteer> volunteers = volunteerRepository.scan(volunteer -> volunteer.getShelters().size() >= minShelters)) {
+            return volunteers.collect(Collectors.toList());
+        }
     }
 
     /**
@@ -106,26 +144,17 @@ public class VolunteerService {
      * @return A message indicating the result of the assignment (success or error).
      */
     public String assignAnimalToVolunteer(int volunteerId, int animalId) {
-        Optional<Volunteer> volunteerOpt = volunteerRepository.getAll().stream()
-                .filter(v -> v.getId() == volunteerId)
-                .findFirst();
-
-        if (volunteerOpt.isEmpty()) {
+        // Lookups by ID let the repository answer unknown IDs without reading its data file
+        Volunteer volunteer = volunteerRepository.getById(volunteerId);
+        if (volunteer == null) {
             return "Voluntar cu ID-ul " + volunteerId + " nu a fost găsit.";
         }
 
-        Volunteer volunteer = volunteerOpt.get();
-
-        Optional<Animal> animalOpt = animalRepository.getAll().stream()
-                .filter(a -> a.getId() == animalId)
-                .findFirst();
-
-        if (animalOpt.isEmpty()) {
+        Animal animal = animalRepository.getById(animalId);
+        if (animal == null) {
             return "Animal cu ID-ul " + animalId + " nu a fost găsit.";
         }
 
-        Animal animal = animalOpt.get();
-
         volunteer.addAnimal(animal);
         animal.setAssignedVolunteer(volunteer);
 
@@ -133,20 +162,11 @@ public class VolunteerService {
     }
 
     /**
-     * Generates a unique ID for a new volunteer by finding the maximum ID in the existing list of volunteers
-     * and adding 1 to it.
+     * Generates a unique ID for a new volunteer. Every call returns a new ID.
      *
      * @return The generated unique ID for the volunteer.
      */
     public int generateUniqueId() {
-        List<Volunteer> volunteers = volunteerRepository.getAll();
-        if (volunteers.isEmpty()) {
-            return 1;  // If there are no volunteers, return 1 as the ID.
-        }
-
-        return volunteers.stream()
-                .mapToInt(Volunteer::getId)
-                .max()
-                .orElse(0) + 1;
+        return volunteerRepository.generateUniqueId();
     }
 }